@@ -2,19 +2,24 @@ package com.example.expensetracker.config;
 
 import com.example.expensetracker.service.debt.AccountService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 @Component
+@Order(30)
 @RequiredArgsConstructor
-public class CreditLimitFixRunner implements ApplicationRunner {
+public class CreditLimitFixRunner implements StartupTask {
 
     private final AccountService accountService;
 
     @Override
-    public void run(ApplicationArguments args) {
-        // Ensure any credit cards without limits get the default
+    public String getName() {
+        return "default-credit-limits";
+    }
+
+    @Override
+    public void run() {
+        // Ensure any credit cards without limits get the default; bumps the snapshot versions when any changed
         accountService.ensureDefaultCreditLimits(1000.0);
     }
 }
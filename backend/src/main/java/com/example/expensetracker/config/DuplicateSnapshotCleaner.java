@@ -1,65 +1,93 @@
 package com.example.expensetracker.config;
 
 import com.example.expensetracker.model.debt.Snapshot;
-import org.springframework.boot.CommandLineRunner;
+import com.example.expensetracker.model.retirement.RetirementSnapshot;
+import com.example.expensetracker.service.RetirementYtdAggregateService;
+import com.example.expensetracker.service.debt.SnapshotService;
+import com.example.expensetracker.service.debt.SnapshotVersionService;
+import org.bson.Document;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 
+/**
+ * Removes snapshots that share a snapshotDate, keeping the most recently
+ * updated one. Runs before MongoIndexTask, which then puts a unique index on
+ * snapshotDate so it cannot happen again; @Indexed is not used because index
+ * creation would fail on startup while duplicates are still present.
+ * Retirement snapshots saved before updatedAt was tracked have none, so
+ * among those the most recently created one wins.
+ */
 @Component
-public class DuplicateSnapshotCleaner implements CommandLineRunner {
+@Order(10)
+public class DuplicateSnapshotCleaner implements StartupTask {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DuplicateSnapshotCleaner.class);
 
     private final MongoTemplate mongoTemplate;
+    private final RetirementYtdAggregateService ytdAggregateService;
+    private final SnapshotVersionService snapshotVersionService;
+    private final SnapshotService snapshotService;
 
-    public DuplicateSnapshotCleaner(MongoTemplate mongoTemplate) {
+    public DuplicateSnapshotCleaner(MongoTemplate mongoTemplate, RetirementYtdAggregateService ytdAggregateService,
+            SnapshotVersionService snapshotVersionService, SnapshotService snapshotService) {
         this.mongoTemplate = mongoTemplate;
+        this.ytdAggregateService = ytdAggregateService;
+        this.snapshotVersionService = snapshotVersionService;
+        this.snapshotService = snapshotService;
     }
 
     @Override
-    public void run(String... args) throws Exception {
-        System.out.println("----- STARTING DUPLICATE SNAPSHOT CLEANUP -----");
-        try {
-            List<Snapshot> allSnapshots = mongoTemplate.findAll(Snapshot.class);
-
-            // Group by date
-            Map<LocalDate, List<Snapshot>> grouped = allSnapshots.stream()
-                    .collect(Collectors.groupingBy(Snapshot::getSnapshotDate));
+    public String getName() {
+        return "duplicate-snapshot-cleanup";
+    }
 
-            for (Map.Entry<LocalDate, List<Snapshot>> entry : grouped.entrySet()) {
-                List<Snapshot> snapshots = entry.getValue();
-                if (snapshots.size() > 1) {
-                    System.out.println("Found duplicate snapshots for date: " + entry.getKey());
+    @Override
+    public void run() {
+        if (removeDuplicates(Snapshot.class, Sort.by(Sort.Direction.DESC, "updatedAt", "createdAt", "_id")) > 0) {
+            // A removed duplicate may be the copy the snapshot index holds for its date
+            snapshotService.reconcileIndex();
+            snapshotVersionService.bumpAll();
+        }
 
-                    // Keep the first one, delete the rest
-                    // Better to keep the one with the most recent update time or most
-                    // accounts/debt,
-                    // but for now just safely keeping one is prioritized to fix the 500 header
-                    // error.
-                    // We'll sort by updatedAt descending (if available) or just arbitrary.
+        long removed = removeDuplicates(RetirementSnapshot.class,
+                Sort.by(Sort.Direction.DESC, "updatedAt", "createdAt", "_id"));
+        if (removed > 0) {
+            // Duplicates were summed into the YTD aggregates
+            ytdAggregateService.rebuild();
+        }
+    }
 
-                    // Assuming getLastUpdated or just arbitrary for now since they are likely
-                    // identical or broken
-                    Snapshot toKeep = snapshots.get(0);
-                    System.out.println("Keeping snapshot ID: " + toKeep.getId());
+    private long removeDuplicates(Class<?> type, Sort newestFirst) {
+        // Only dates with more than one snapshot come back from the server, newest id first
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.sort(newestFirst),
+                Aggregation.group("snapshotDate").count().as("count").push("_id").as("ids"),
+                Aggregation.match(where("count").gt(1)))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build()); // The sort spans the collection
 
-                    for (int i = 1; i < snapshots.size(); i++) {
-                        Snapshot toDelete = snapshots.get(i);
-                        System.out.println("Deleting duplicate snapshot ID: " + toDelete.getId());
-                        mongoTemplate.remove(toDelete);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to clean duplicates: " + e.getMessage());
-            e.printStackTrace();
+        List<Object> toDelete = new ArrayList<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, type, Document.class)) {
+            List<Object> ids = group.getList("ids", Object.class);
+            log.info("Found {} {} documents for date {}, keeping {}", ids.size(), type.getSimpleName(),
+                    group.get("_id"), ids.get(0));
+            toDelete.addAll(ids.subList(1, ids.size()));
         }
-        System.out.println("----- DUPLICATE SNAPSHOT CLEANUP FINISHED -----");
+        if (toDelete.isEmpty()) {
+            return 0;
+        }
+
+        long removed = mongoTemplate.remove(new Query(where("_id").in(toDelete)), type).getDeletedCount();
+        log.info("Deleted {} duplicate {} documents", removed, type.getSimpleName());
+        return removed;
     }
 }
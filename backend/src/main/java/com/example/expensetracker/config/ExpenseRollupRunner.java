@@ -0,0 +1,27 @@
+package com.example.expensetracker.config;
+
+import com.example.expensetracker.service.ExpenseRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(45)
+@RequiredArgsConstructor
+public class ExpenseRollupRunner implements StartupTask {
+
+    private final ExpenseRollupService expenseRollupService;
+
+    @Override
+    public String getName() {
+        return "expense-rollups";
+    }
+
+    @Override
+    public void run() {
+        // Buckets with string amounts cannot take $inc; recompute them as Decimal128
+        if (expenseRollupService.hasLegacyBuckets()) {
+            expenseRollupService.rebuild();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.expensetracker.config;
+
+import com.example.expensetracker.model.RecurringExpense;
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.model.debt.Goal;
+import com.example.expensetracker.model.debt.Payment;
+import com.example.expensetracker.model.debt.Snapshot;
+import com.example.expensetracker.model.debt.Transaction;
+import com.example.expensetracker.model.retirement.RetirementSnapshot;
+import com.example.expensetracker.model.retirement.RetirementYtdAggregate;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The indexes the repository queries depend on, and one probe query per
+ * repository method so the diagnostics endpoint can explain() each of them.
+ * Indexes that are annotated on the documents themselves (expenses, rollups,
+ * ledger import keys on payments and transactions) are left to
+ * auto-index-creation.
+ */
+public final class MongoIndexDefinitions {
+
+    private MongoIndexDefinitions() {
+    }
+
+    public static final List<RequiredIndex> REQUIRED_INDEXES = List.of(
+            new RequiredIndex(Snapshot.class, new Index()
+                    .on("snapshotDate", Sort.Direction.ASC).unique().named("snapshotDate_unique")),
+            new RequiredIndex(RetirementSnapshot.class, new Index()
+                    .on("snapshotDate", Sort.Direction.ASC).unique().named("snapshotDate_unique")),
+            new RequiredIndex(Account.class, new Index()
+                    .on("snapshotDate", Sort.Direction.ASC).on("accountId", Sort.Direction.ASC)
+                    .named("snapshotDate_accountId")),
+            new RequiredIndex(Account.class, new Index()
+                    .on("accountId", Sort.Direction.ASC).named("accountId")),
+            new RequiredIndex(Account.class, new Index()
+                    .on("type", Sort.Direction.ASC).on("status", Sort.Direction.ASC).named("type_status")),
+            new RequiredIndex(Account.class, new Index()
+                    .on("status", Sort.Direction.ASC).on("apr", Sort.Direction.DESC).named("status_apr")),
+            new RequiredIndex(Payment.class, new Index()
+                    .on("accountId", Sort.Direction.ASC).on("paymentDate", Sort.Direction.DESC)
+                    .named("accountId_paymentDate")),
+            new RequiredIndex(Payment.class, new Index()
+                    .on("paymentDate", Sort.Direction.ASC).named("paymentDate")),
+            new RequiredIndex(Transaction.class, new Index()
+                    .on("accountId", Sort.Direction.ASC).on("transactionDate", Sort.Direction.DESC)
+                    .named("accountId_transactionDate")),
+            new RequiredIndex(Transaction.class, new Index()
+                    .on("transactionDate", Sort.Direction.ASC).named("transactionDate")),
+            new RequiredIndex(Transaction.class, new Index()
+                    .on("category", Sort.Direction.ASC).named("category")),
+            new RequiredIndex(Goal.class, new Index()
+                    .on("status", Sort.Direction.ASC).on("targetDate", Sort.Direction.ASC)
+                    .named("status_targetDate")),
+            new RequiredIndex(Goal.class, new Index()
+                    .on("accountId", Sort.Direction.ASC).named("accountId")),
+            new RequiredIndex(RecurringExpense.class, new Index()
+                    .on("active", Sort.Direction.ASC).on("lastGenerated", Sort.Direction.ASC)
+                    .named("active_lastGenerated")),
+            new RequiredIndex(RetirementYtdAggregate.class, new Index()
+                    .on("year", Sort.Direction.ASC).named("year")));
+
+    // Filters use stored BSON types: enums as strings, LocalDate as a UTC-midnight date
+    public static final List<QueryProbe> QUERY_PROBES = List.of(
+            new QueryProbe("SnapshotRepository.findBySnapshotDate", Snapshot.class,
+                    new Document("snapshotDate", sampleDate()), null),
+            new QueryProbe("SnapshotRepository.findAllByOrderBySnapshotDateDesc", Snapshot.class,
+                    new Document(), new Document("snapshotDate", -1)),
+            new QueryProbe("RetirementSnapshotRepository.findBySnapshotDate", RetirementSnapshot.class,
+                    new Document("snapshotDate", sampleDate()), null),
+            new QueryProbe("RetirementSnapshotRepository.findByYear", RetirementSnapshot.class,
+                    new Document("snapshotDate", new Document("$gte", sampleDate()).append("$lt", sampleDate())),
+                    null),
+            new QueryProbe("AccountRepository.findBySnapshotDate", Account.class,
+                    new Document("snapshotDate", sampleDate()), null),
+            new QueryProbe("AccountRepository.findByAccountId", Account.class,
+                    new Document("accountId", "probe"), null),
+            new QueryProbe("AccountRepository.findByTypeAndStatus", Account.class,
+                    new Document("type", "CREDIT_CARD").append("status", "ACTIVE"), null),
+            new QueryProbe("AccountRepository.findByStatusOrderByAprDesc", Account.class,
+                    new Document("status", "ACTIVE"), new Document("apr", -1)),
+            new QueryProbe("PaymentRepository.findByAccountIdAndPaymentDateBetween", Payment.class,
+                    new Document("accountId", "probe").append("paymentDate",
+                            new Document("$gt", sampleDate()).append("$lt", sampleDate())),
+                    null),
+            new QueryProbe("PaymentRepository.findByAccountIdOrderByPaymentDateDesc", Payment.class,
+                    new Document("accountId", "probe"), new Document("paymentDate", -1)),
+            new QueryProbe("TransactionRepository.findByAccountIdAndTransactionDateBetween", Transaction.class,
+                    new Document("accountId", "probe").append("transactionDate",
+                            new Document("$gt", sampleDate()).append("$lt", sampleDate())),
+                    null),
+            new QueryProbe("TransactionRepository.findByCategory", Transaction.class,
+                    new Document("category", "probe"), null),
+            new QueryProbe("GoalRepository.findByStatusOrderByTargetDateAsc", Goal.class,
+                    new Document("status", "ACTIVE"), new Document("targetDate", 1)),
+            new QueryProbe("RecurringExpenseRepository.findByActiveTrue", RecurringExpense.class,
+                    new Document("active", true), null),
+            new QueryProbe("RetirementYtdAggregateRepository.findByYear", RetirementYtdAggregate.class,
+                    new Document("year", LocalDate.now().getYear()), null));
+
+    private static Date sampleDate() {
+        return Date.from(LocalDate.now().withDayOfMonth(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+    }
+
+    public static final class RequiredIndex {
+        private final Class<?> entityClass;
+        private final Index index;
+
+        public RequiredIndex(Class<?> entityClass, Index index) {
+            this.entityClass = entityClass;
+            this.index = index;
+        }
+
+        public Class<?> getEntityClass() {
+            return entityClass;
+        }
+
+        public Index getIndex() {
+            return index;
+        }
+
+        public String getName() {
+            return (String) index.getIndexOptions().get("name");
+        }
+    }
+
+    public static final class QueryProbe {
+        private final String name;
+        private final Class<?> entityClass;
+        private final Document filter;
+        private final Document sort;
+
+        public QueryProbe(String name, Class<?> entityClass, Document filter, Document sort) {
+            this.name = name;
+            this.entityClass = entityClass;
+            this.filter = filter;
+            this.sort = sort;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Class<?> getEntityClass() {
+            return entityClass;
+        }
+
+        public Document getFilter() {
+            return filter;
+        }
+
+        public Document getSort() {
+            return sort;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.expensetracker.config;
+
+import com.example.expensetracker.service.MongoIndexService;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Ensures the required indexes after duplicate cleanup (the snapshot indexes
+ * are unique). Indexes still missing afterwards fail the task, which
+ * StartupTaskRunner reports on /api/startup/tasks and /api/startup/health;
+ * the application keeps serving. Skipped when Mongo is unreachable so the
+ * file-snapshot fallback keeps working.
+ */
+@Component
+@Order(15)
+public class MongoIndexTask implements StartupTask {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MongoIndexTask.class);
+
+    private final MongoIndexService mongoIndexService;
+
+    public MongoIndexTask(MongoIndexService mongoIndexService) {
+        this.mongoIndexService = mongoIndexService;
+    }
+
+    @Override
+    public String getName() {
+        return "mongo-indexes";
+    }
+
+    @Override
+    public void run() {
+        if (!mongoIndexService.isReachable()) {
+            log.warn("MongoDB not reachable, skipping index checks");
+            return;
+        }
+        mongoIndexService.ensureIndexes();
+
+        List<String> missing = mongoIndexService.findMissingIndexes();
+        if (!missing.isEmpty()) {
+            log.error("Required MongoDB indexes are missing: {}", missing);
+            throw new IllegalStateException("Missing indexes: " + missing);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.expensetracker.config;
+
+import com.example.expensetracker.service.RetirementYtdAggregateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(40)
+@RequiredArgsConstructor
+public class RetirementYtdAggregateRunner implements StartupTask {
+
+    private final RetirementYtdAggregateService ytdAggregateService;
+
+    @Override
+    public String getName() {
+        return "retirement-ytd-aggregates";
+    }
+
+    @Override
+    public void run() {
+        // Seed the YTD aggregates for snapshots written before the store existed
+        if (ytdAggregateService.isEmpty()) {
+            ytdAggregateService.rebuild();
+        }
+    }
+}
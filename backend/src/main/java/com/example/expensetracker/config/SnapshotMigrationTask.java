@@ -0,0 +1,24 @@
+package com.example.expensetracker.config;
+
+import com.example.expensetracker.service.debt.MigrationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(20)
+@RequiredArgsConstructor
+public class SnapshotMigrationTask implements StartupTask {
+
+    private final MigrationService migrationService;
+
+    @Override
+    public String getName() {
+        return "snapshot-migration";
+    }
+
+    @Override
+    public void run() {
+        migrationService.migrateData();
+    }
+}
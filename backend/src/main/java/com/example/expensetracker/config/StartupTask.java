@@ -0,0 +1,13 @@
+package com.example.expensetracker.config;
+
+/**
+ * Maintenance work that used to run as a CommandLineRunner or @PostConstruct.
+ * Tasks are run one after another by StartupTaskRunner once the application
+ * is ready, in @Order order, so none of them delays the first request.
+ */
+public interface StartupTask {
+
+    String getName();
+
+    void run() throws Exception;
+}
@@ -0,0 +1,98 @@
+package com.example.expensetracker.config;
+
+import com.example.expensetracker.dto.StartupTaskTiming;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every StartupTask on a background thread after ApplicationReadyEvent
+ * and keeps the timing of each run for /api/startup/tasks. A failed task is
+ * recorded rather than stopping the application; /api/startup/health reports it.
+ */
+@Component
+public class StartupTaskRunner {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(StartupTaskRunner.class);
+
+    private final List<StartupTask> tasks;
+    private final Map<String, StartupTaskTiming> timings = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "startup-tasks");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Spring injects the list already sorted by @Order
+    public StartupTaskRunner(List<StartupTask> tasks) {
+        this.tasks = tasks;
+        tasks.forEach(task -> timings.put(task.getName(), new StartupTaskTiming(task.getName())));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.submit(this::runAll);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public List<StartupTaskTiming> getTimings() {
+        List<StartupTaskTiming> ordered = new ArrayList<>();
+        for (StartupTask task : tasks) {
+            ordered.add(timings.get(task.getName()));
+        }
+        return ordered;
+    }
+
+    // Names of the tasks whose last run failed
+    public List<String> getFailedTasks() {
+        List<String> failed = new ArrayList<>();
+        for (StartupTaskTiming timing : getTimings()) {
+            if ("FAILED".equals(timing.getStatus())) {
+                failed.add(timing.getName());
+            }
+        }
+        return failed;
+    }
+
+    private void runAll() {
+        long start = System.nanoTime();
+        for (StartupTask task : tasks) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            runTask(task);
+        }
+        log.info("Startup tasks finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void runTask(StartupTask task) {
+        StartupTaskTiming timing = timings.get(task.getName());
+        timing.setStatus("RUNNING");
+        timing.setStartedAt(LocalDateTime.now());
+        long start = System.nanoTime();
+        try {
+            task.run();
+            timing.setStatus("SUCCEEDED");
+        } catch (Exception e) {
+            log.error("Startup task {} failed: {}", task.getName(), e.getMessage());
+            timing.setStatus("FAILED");
+            timing.setMessage(e.getMessage());
+        } finally {
+            timing.setDurationMs((System.nanoTime() - start) / 1_000_000);
+            log.info("Startup task {} {} in {} ms", task.getName(), timing.getStatus(), timing.getDurationMs());
+        }
+    }
+}
@@ -26,6 +26,9 @@ public class DebtAccountController {
     @Autowired
     private com.example.expensetracker.service.debt.SnapshotService snapshotService;
 
+    @Autowired
+    private com.example.expensetracker.service.DebtSummaryService debtSummaryService;
+
     @GetMapping
     public List<DebtAccount> getAllDebts() {
         return debtAccountRepository.findAll();
@@ -43,40 +46,17 @@ public class DebtAccountController {
     @GetMapping("/snapshot/{fileName}/summary")
     public DebtSummary getSnapshotSummary(@PathVariable String fileName) {
         try {
-            List<DebtAccount> accounts = snapshotLoaderService.loadSnapshotFromFile(fileName);
-            String snapshotDate = snapshotLoaderService.getSnapshotDate(fileName);
-
-            DebtSummary summary = new DebtSummary();
-            summary.setSnapshotDate(snapshotDate);
-
-            double total = accounts.stream()
-                    .filter(a -> a.getAccountType() != AccountType.UNKNOWN)
-                    .mapToDouble(DebtAccount::getCurrentBalance).sum();
-            summary.setTotalDebt(total);
-
-            double creditCards = accounts.stream()
-                    .filter(a -> a.getAccountType() == AccountType.CREDIT_CARD)
-                    .mapToDouble(DebtAccount::getCurrentBalance).sum();
-            summary.setCreditCardDebt(creditCards);
-
-            double personalLoans = accounts.stream()
-                    .filter(a -> a.getAccountType() == AccountType.PERSONAL_LOAN)
-                    .mapToDouble(DebtAccount::getCurrentBalance).sum();
-            summary.setPersonalLoanDebt(personalLoans);
-
-            double autoLoans = accounts.stream()
-                    .filter(a -> a.getAccountType() == AccountType.AUTO_LOAN)
-                    .mapToDouble(DebtAccount::getCurrentBalance).sum();
-            summary.setAutoLoanDebt(autoLoans);
-
-            summary.setTotalAccounts(accounts.size());
-
-            return summary;
+            return snapshotLoaderService.getSnapshotSummary(fileName);
         } catch (Exception e) {
             throw new RuntimeException("Failed to load snapshot summary: " + fileName, e);
         }
     }
 
+    @GetMapping("/snapshot-cache/stats")
+    public com.example.expensetracker.dto.SnapshotCacheStats getSnapshotCacheStats() {
+        return snapshotLoaderService.getCacheStats();
+    }
+
     @GetMapping("/{id}")
     public DebtAccount getDebtById(@PathVariable String id) {
         return debtAccountRepository.findById(id)
@@ -119,40 +99,8 @@ public class DebtAccountController {
 
     @GetMapping("/summary")
     public DebtSummary getDebtSummary() {
-        DebtSummary summary = new DebtSummary();
-
         // Set snapshot date (you can make this dynamic later)
-        summary.setSnapshotDate("2025-09-30");
-
-        List<DebtAccount> allAccounts = debtAccountRepository.findAll();
-
-        double total = allAccounts.stream()
-                .filter(a -> a.getAccountType() != AccountType.UNKNOWN)
-                .mapToDouble(DebtAccount::getCurrentBalance)
-                .sum();
-        summary.setTotalDebt(total);
-
-        double creditCards = allAccounts.stream()
-                .filter(a -> a.getAccountType() == AccountType.CREDIT_CARD)
-                .mapToDouble(DebtAccount::getCurrentBalance)
-                .sum();
-        summary.setCreditCardDebt(creditCards);
-
-        double personalLoans = allAccounts.stream()
-                .filter(a -> a.getAccountType() == AccountType.PERSONAL_LOAN)
-                .mapToDouble(DebtAccount::getCurrentBalance)
-                .sum();
-        summary.setPersonalLoanDebt(personalLoans);
-
-        double autoLoans = allAccounts.stream()
-                .filter(a -> a.getAccountType() == AccountType.AUTO_LOAN)
-                .mapToDouble(DebtAccount::getCurrentBalance)
-                .sum();
-        summary.setAutoLoanDebt(autoLoans);
-
-        summary.setTotalAccounts(allAccounts.size());
-
-        return summary;
+        return debtSummaryService.summarize("2025-09-30");
     }
 
     @GetMapping("/strategy")
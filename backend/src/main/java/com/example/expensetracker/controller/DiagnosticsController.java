@@ -0,0 +1,35 @@
+package com.example.expensetracker.controller;
+
+import com.example.expensetracker.dto.QueryPlanReport;
+import com.example.expensetracker.service.MongoIndexService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class DiagnosticsController {
+
+    private final MongoIndexService mongoIndexService;
+
+    public DiagnosticsController(MongoIndexService mongoIndexService) {
+        this.mongoIndexService = mongoIndexService;
+    }
+
+    // Query plans of the repository probes; collectionScans lists the ones not using an index
+    @GetMapping("/indexes")
+    public Map<String, Object> getIndexDiagnostics() {
+        List<QueryPlanReport> plans = mongoIndexService.explainProbes();
+        Map<String, Object> response = new HashMap<>();
+        response.put("missingIndexes", mongoIndexService.findMissingIndexes());
+        response.put("collectionScans", plans.stream()
+                .filter(QueryPlanReport::isCollectionScan)
+                .collect(Collectors.toList()));
+        response.put("plans", plans);
+        return response;
+    }
+}
@@ -1,38 +1,113 @@
 package com.example.expensetracker.controller;
 
+import com.example.expensetracker.dto.ExpensePage;
 import com.example.expensetracker.model.Expense;
 import com.example.expensetracker.repository.ExpenseRepository;
+import com.example.expensetracker.service.ExpenseQueryService;
+import com.example.expensetracker.service.ExpenseRollupService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/expenses")
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class ExpenseController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private ExpenseQueryService expenseQueryService;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Same JSON array as before, but written from a Mongo cursor instead of a materialized list
     @GetMapping
-    public List<Expense> getAllExpenses() {
-        return expenseRepository.findAll();
+    public ResponseEntity<StreamingResponseBody> getAllExpenses() {
+        StreamingResponseBody body = out -> {
+            try (Stream<Expense> expenses = expenseQueryService.streamAll();
+                    JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                for (Iterator<Expense> it = expenses.iterator(); it.hasNext();) {
+                    objectMapper.writeValue(generator, it.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<ExpensePage> getExpensePage(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(expenseQueryService.page(category, from, to, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamExpenses(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        StreamingResponseBody body = out -> {
+            try (Stream<Expense> expenses = expenseQueryService.stream(category, from, to)) {
+                for (Iterator<Expense> it = expenses.iterator(); it.hasNext();) {
+                    out.write(objectMapper.writeValueAsBytes(it.next()));
+                    out.write('\n');
+                }
+                out.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     @PostMapping
     public Expense createExpense(@RequestBody Expense expense) {
-        return expenseRepository.save(expense);
+        Expense saved = expenseRepository.save(expense);
+        expenseRollupService.onCreated(saved);
+        return saved;
     }
 
     @PutMapping("/{id}")
     public Expense updateExpense(@PathVariable String id, @RequestBody Expense expense) {
+        Expense before = expenseRepository.findById(id).orElse(null);
         expense.setId(id);
-        return expenseRepository.save(expense);
+        if (before != null && expense.getRecurringKey() == null) {
+            expense.setRecurringKey(before.getRecurringKey());
+        }
+        Expense saved = expenseRepository.save(expense);
+        expenseRollupService.onUpdated(before, saved);
+        return saved;
     }
 
     @DeleteMapping("/{id}")
     public void deleteExpense(@PathVariable String id) {
+        Optional<Expense> existing = expenseRepository.findById(id);
         expenseRepository.deleteById(id);
+        existing.ifPresent(expenseRollupService::onDeleted);
     }
 }
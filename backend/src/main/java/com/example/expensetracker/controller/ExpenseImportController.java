@@ -0,0 +1,76 @@
+package com.example.expensetracker.controller;
+
+import com.example.expensetracker.dto.ExpenseImportStatus;
+import com.example.expensetracker.service.ExpenseImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/expenses/import")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class ExpenseImportController {
+
+    @Autowired
+    private ExpenseImportService expenseImportService;
+
+    // Starts an import of an uploaded statement; poll GET /{jobId} for progress
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ExpenseImportStatus> upload(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) ExpenseImportService.Format format,
+            @RequestParam(required = false) String cardName,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "true") boolean expensesNegative) throws IOException {
+        ExpenseImportService.Format resolved = format != null ? format : formatOf(file.getOriginalFilename());
+        try (InputStream input = file.getInputStream()) {
+            ExpenseImportStatus status = expenseImportService.submit(input, file.getOriginalFilename(), resolved,
+                    new ExpenseImportService.Options(cardName, category, expensesNegative));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        }
+    }
+
+    // Same, with the statement as the raw request body (text/csv or application/x-ofx)
+    @PostMapping
+    public ResponseEntity<ExpenseImportStatus> importBody(
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            @RequestParam(required = false) ExpenseImportService.Format format,
+            @RequestParam(required = false) String cardName,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "true") boolean expensesNegative,
+            InputStream body) throws IOException {
+        ExpenseImportService.Format resolved = format != null ? format
+                : contentType != null && contentType.toLowerCase(Locale.ROOT).contains("ofx")
+                        ? ExpenseImportService.Format.OFX
+                        : ExpenseImportService.Format.CSV;
+        ExpenseImportStatus status = expenseImportService.submit(body, null, resolved,
+                new ExpenseImportService.Options(cardName, category, expensesNegative));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ExpenseImportStatus> getStatus(@PathVariable String jobId) {
+        return expenseImportService.getStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping
+    public List<ExpenseImportStatus> getRecent() {
+        return expenseImportService.getRecent();
+    }
+
+    private ExpenseImportService.Format formatOf(String fileName) {
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        return name.endsWith(".ofx") || name.endsWith(".qfx") ? ExpenseImportService.Format.OFX
+                : ExpenseImportService.Format.CSV;
+    }
+}
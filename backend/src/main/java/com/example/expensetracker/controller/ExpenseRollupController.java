@@ -0,0 +1,55 @@
+package com.example.expensetracker.controller;
+
+import com.example.expensetracker.dto.MonthlyExpenseTotal;
+import com.example.expensetracker.model.ExpenseRollup;
+import com.example.expensetracker.service.ExpenseRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/expenses/rollups")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class ExpenseRollupController {
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    // Month x category buckets; months are yyyy-MM and default to the current year
+    @GetMapping
+    public List<ExpenseRollup> getRollups(
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to,
+            @RequestParam(required = false) String category) {
+        return expenseRollupService.getRollups(fromOrDefault(from), toOrDefault(to), category);
+    }
+
+    @GetMapping("/monthly")
+    public List<MonthlyExpenseTotal> getMonthlyTotals(
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to) {
+        return expenseRollupService.getMonthlyTotals(fromOrDefault(from), toOrDefault(to));
+    }
+
+    @PostMapping("/rebuild")
+    public Map<String, Object> rebuild() {
+        int buckets = expenseRollupService.rebuild();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("buckets", buckets);
+        return response;
+    }
+
+    private YearMonth fromOrDefault(YearMonth from) {
+        return from != null ? from : YearMonth.now().withMonth(1);
+    }
+
+    private YearMonth toOrDefault(YearMonth to) {
+        return to != null ? to : YearMonth.now().withMonth(12);
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.expensetracker.controller;
 
+import com.example.expensetracker.dto.RecurringBackfillReport;
 import com.example.expensetracker.model.RecurringExpense;
+import com.example.expensetracker.service.RecurringBackfillService;
 import com.example.expensetracker.service.RecurringExpenseService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -15,6 +18,9 @@ public class RecurringExpenseController {
     @Autowired
     private RecurringExpenseService recurringExpenseService;
 
+    @Autowired
+    private RecurringBackfillService recurringBackfillService;
+
     @GetMapping
     public List<RecurringExpense> getAllRecurringExpenses() {
         return recurringExpenseService.getAllRecurringExpenses();
@@ -35,6 +41,12 @@ public class RecurringExpenseController {
         recurringExpenseService.processDueExpenses();
     }
 
+    // Generate every occurrence missed since lastGenerated; dryRun only reports
+    @PostMapping("/backfill")
+    public RecurringBackfillReport backfill(@RequestParam(defaultValue = "true") boolean dryRun) {
+        return recurringBackfillService.backfill(LocalDate.now(), dryRun);
+    }
+
     @PutMapping("/{id}")
     public RecurringExpense updateRecurringExpense(@PathVariable String id,
             @RequestBody RecurringExpense recurringExpense) {
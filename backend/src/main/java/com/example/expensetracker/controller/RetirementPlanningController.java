@@ -2,28 +2,49 @@ package com.example.expensetracker.controller;
 
 import com.example.expensetracker.dto.RetirementPlanRequest;
 import com.example.expensetracker.dto.RetirementPlanResponse;
+import com.example.expensetracker.dto.retirement.MonteCarloResult;
+import com.example.expensetracker.dto.retirement.RetirementTimeline;
+import com.example.expensetracker.dto.retirement.YtdConsistencyReport;
 import com.example.expensetracker.model.retirement.RetirementSnapshot;
 import com.example.expensetracker.repository.retirement.RetirementSnapshotRepository;
+import com.example.expensetracker.service.RetirementMonteCarloService;
 import com.example.expensetracker.service.RetirementPlanningService;
+import com.example.expensetracker.service.RetirementSnapshotService;
+import com.example.expensetracker.service.RetirementYtdAggregateService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/retirement")
 @CrossOrigin(origins = "*")
 public class RetirementPlanningController {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(RetirementPlanningController.class);
+
     private final RetirementPlanningService retirementPlanningService;
     private final RetirementSnapshotRepository snapshotRepository;
+    private final RetirementYtdAggregateService ytdAggregateService;
+    private final RetirementMonteCarloService monteCarloService;
+    private final RetirementSnapshotService retirementSnapshotService;
 
     public RetirementPlanningController(RetirementPlanningService retirementPlanningService,
-            RetirementSnapshotRepository snapshotRepository) {
+            RetirementSnapshotRepository snapshotRepository, RetirementYtdAggregateService ytdAggregateService,
+            RetirementMonteCarloService monteCarloService, RetirementSnapshotService retirementSnapshotService) {
         this.retirementPlanningService = retirementPlanningService;
         this.snapshotRepository = snapshotRepository;
+        this.ytdAggregateService = ytdAggregateService;
+        this.monteCarloService = monteCarloService;
+        this.retirementSnapshotService = retirementSnapshotService;
     }
 
     @PostMapping("/plan")
@@ -31,11 +52,40 @@ public class RetirementPlanningController {
         return retirementPlanningService.evaluatePlan(request);
     }
 
+    // Stochastic projection of the same request; returns are annual fractions (0.07 = 7%)
+    @PostMapping("/simulate")
+    public ResponseEntity<MonteCarloResult> simulate(@RequestBody RetirementPlanRequest request,
+            @RequestParam(defaultValue = "" + RetirementMonteCarloService.DEFAULT_PATHS) int paths,
+            @RequestParam(required = false) Double annualReturn,
+            @RequestParam(required = false) Double volatility,
+            @RequestParam(required = false) Long seed) {
+        try {
+            return ResponseEntity.ok(monteCarloService.simulate(request, paths, annualReturn, volatility, seed));
+        } catch (IllegalStateException e) {
+            log.warn("Simulation rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     @GetMapping("/history")
     public List<RetirementSnapshot> getAllSnapshots() {
         return snapshotRepository.findAllByOrderBySnapshotDateDesc();
     }
 
+    // Compact chart data; answers 304 when the client's If-None-Match still matches
+    @GetMapping("/timeline")
+    public ResponseEntity<RetirementTimeline> getTimeline(WebRequest webRequest) {
+        RetirementTimeline timeline = retirementSnapshotService.getTimeline();
+        String eTag = "\"" + timeline.getVersion() + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(timeline);
+    }
+
     @GetMapping("/snapshots/{year}")
     public List<RetirementSnapshot> getSnapshotsByYear(@PathVariable int year) {
         LocalDate yearStart = LocalDate.of(year, 1, 1);
@@ -47,11 +97,7 @@ public class RetirementPlanningController {
     public Optional<RetirementSnapshot> getSnapshotByMonth(@PathVariable String monthYear) {
         try {
             LocalDate monthStart = LocalDate.parse(monthYear + "-01", DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            LocalDate monthEnd = monthStart.plusMonths(1);
-            List<RetirementSnapshot> snapshots = snapshotRepository.findBySnapshotDateBetween(monthStart, monthEnd);
-            return snapshots.stream()
-                    .filter(this::hasNonZeroSnapshot)
-                    .max((a, b) -> a.getSnapshotDate().compareTo(b.getSnapshotDate()));
+            return retirementSnapshotService.findLatestNonZeroInMonth(monthStart);
         } catch (Exception e) {
             return Optional.empty();
         }
@@ -75,6 +121,8 @@ public class RetirementPlanningController {
             List<RetirementSnapshot> snapshots = snapshotRepository.findBySnapshotDateBetween(monthStart, monthEnd);
             if (!snapshots.isEmpty()) {
                 snapshotRepository.deleteAll(snapshots);
+                snapshots.forEach(ytdAggregateService::removeSnapshot);
+                retirementSnapshotService.invalidateTimeline();
             }
         } catch (Exception e) {
             // No-op on invalid date formats or missing snapshots.
@@ -83,116 +131,48 @@ public class RetirementPlanningController {
 
     @PostMapping("/snapshot/clone")
     public org.springframework.http.ResponseEntity<?> cloneSnapshot(@RequestBody CloneSnapshotRequest request) {
-        System.out.println("Clone snapshot request received: " + request);
         if (request == null || request.sourceMonthYear == null || request.targetMonthYear == null) {
             return org.springframework.http.ResponseEntity.badRequest().body("Invalid request: missing fields");
         }
         try {
-            System.out.println("Source: " + request.sourceMonthYear + ", Target: " + request.targetMonthYear);
             LocalDate sourceStart = LocalDate.parse(request.sourceMonthYear + "-01",
                     DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-
-            List<RetirementSnapshot> allSnapshots = snapshotRepository.findAllByOrderBySnapshotDateDesc();
-            System.out.println("Fetched " + allSnapshots.size() + " total snapshots");
-
-            RetirementSnapshot source = allSnapshots.stream()
-                    .filter(s -> s.getSnapshotDate() != null)
-                    .filter(s -> s.getSnapshotDate().getYear() == sourceStart.getYear() &&
-                            s.getSnapshotDate().getMonth() == sourceStart.getMonth())
-                    .filter(this::hasNonZeroSnapshot)
-                    .findFirst()
-                    .orElse(null);
-
-            if (source == null) {
-                return org.springframework.http.ResponseEntity.status(404)
-                        .body("No valid non-zero source snapshot found for " + request.sourceMonthYear
-                                + ". Available count: " + allSnapshots.size());
-            }
-            System.out.println("Selected source snapshot ID: " + source.getId());
-
             LocalDate targetStart = LocalDate.parse(request.targetMonthYear + "-01",
                     DateTimeFormatter.ofPattern("yyyy-MM-dd"));
 
-            List<RetirementSnapshot> targetSnapshots = snapshotRepository.findAllByOrderBySnapshotDateDesc().stream()
-                    .filter(s -> s.getSnapshotDate() != null)
-                    .filter(s -> s.getSnapshotDate().getYear() == targetStart.getYear() &&
-                            s.getSnapshotDate().getMonth() == targetStart.getMonth())
-                    .toList();
-
-            if (!targetSnapshots.isEmpty()) {
-                System.out.println("Deleting " + targetSnapshots.size() + " existing target snapshots");
-                snapshotRepository.deleteAll(targetSnapshots);
-            }
-
-            RetirementSnapshot target = new RetirementSnapshot();
-            target.setSnapshotDate(targetStart);
-            target.setCurrentAge(source.getCurrentAge());
-            target.setAccounts(cloneAccounts(source.getAccounts()));
-            target.setOneTimeAdditions(source.getOneTimeAdditions());
-            target.setTotalBalance(source.getTotalBalance());
-            target.setTargetPortfolioValue(source.getTargetPortfolioValue());
-            target.setTotalContributions(source.getTotalContributions());
-            target.setAfterTaxMode(source.getAfterTaxMode());
-            target.setFlatTaxRate(source.getFlatTaxRate());
-            target.setTaxFreeRate(source.getTaxFreeRate());
-            target.setTaxDeferredRate(source.getTaxDeferredRate());
-            target.setTaxableRate(source.getTaxableRate());
-
-            RetirementSnapshot saved = snapshotRepository.save(target);
-            System.out.println("Saved new target snapshot ID: " + saved.getId());
+            RetirementSnapshot saved = retirementSnapshotService.cloneMonth(sourceStart, targetStart);
             return org.springframework.http.ResponseEntity.ok("Snapshot cloned successfully. New ID: " + saved.getId());
+        } catch (IllegalArgumentException e) {
+            return org.springframework.http.ResponseEntity.status(404).body(e.getMessage());
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to clone retirement snapshot {} -> {}", request.sourceMonthYear,
+                    request.targetMonthYear, e);
             return org.springframework.http.ResponseEntity.internalServerError().body("Error: " + e.getMessage());
         }
     }
 
-    private List<com.example.expensetracker.model.retirement.AccountBalance> cloneAccounts(
-            List<com.example.expensetracker.model.retirement.AccountBalance> accounts) {
-        if (accounts == null) {
-            return null;
-        }
-        return accounts.stream().map(acc -> {
-            com.example.expensetracker.model.retirement.AccountBalance copy = new com.example.expensetracker.model.retirement.AccountBalance();
-            copy.setAccountType(acc.getAccountType());
-            copy.setGoalType(acc.getGoalType());
-            copy.setBalance(acc.getBalance());
-            copy.setContribution(acc.getContribution());
-            copy.setPreviousBalance(acc.getPreviousBalance());
-            return copy;
-        }).toList();
-    }
-
     public static class CloneSnapshotRequest {
         public String sourceMonthYear;
         public String targetMonthYear;
     }
 
-    @GetMapping("/latest")
-    public Optional<RetirementSnapshot> getLatestSnapshot() {
-        List<RetirementSnapshot> snapshots = snapshotRepository.findAllByOrderBySnapshotDateDesc();
-        for (RetirementSnapshot snapshot : snapshots) {
-            if (hasNonZeroSnapshot(snapshot)) {
-                return Optional.of(snapshot);
-            }
-        }
-        return Optional.empty();
+    @PostMapping("/ytd-aggregates/rebuild")
+    public Map<String, Object> rebuildYtdAggregates() {
+        int rebuilt = ytdAggregateService.rebuild();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("aggregates", rebuilt);
+        return response;
     }
 
-    private boolean hasNonZeroSnapshot(RetirementSnapshot snapshot) {
-        if (snapshot == null) {
-            return false;
-        }
-        if (snapshot.getTotalBalance() != null && snapshot.getTotalBalance() > 0) {
-            return true;
-        }
-        if (snapshot.getTotalContributions() != null && snapshot.getTotalContributions() > 0) {
-            return true;
-        }
-        if (snapshot.getAccounts() == null) {
-            return false;
-        }
-        return snapshot.getAccounts().stream()
-                .anyMatch(acc -> acc.getBalance() != null && acc.getBalance() > 0);
+    @GetMapping("/ytd-aggregates/verify/{year}")
+    public YtdConsistencyReport verifyYtdAggregates(@PathVariable int year) {
+        return ytdAggregateService.verify(year);
+    }
+
+    @GetMapping("/latest")
+    public Optional<RetirementSnapshot> getLatestSnapshot() {
+        return retirementSnapshotService.findLatestNonZero();
     }
 }
@@ -0,0 +1,38 @@
+package com.example.expensetracker.controller;
+
+import com.example.expensetracker.config.StartupTaskRunner;
+import com.example.expensetracker.dto.StartupTaskTiming;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/startup")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class StartupTaskController {
+
+    private final StartupTaskRunner startupTaskRunner;
+
+    public StartupTaskController(StartupTaskRunner startupTaskRunner) {
+        this.startupTaskRunner = startupTaskRunner;
+    }
+
+    @GetMapping("/tasks")
+    public List<StartupTaskTiming> getTasks() {
+        return startupTaskRunner.getTimings();
+    }
+
+    // 503 while any startup task has failed, e.g. required indexes that could not be created
+    @GetMapping("/health")
+    public ResponseEntity<Map<String, Object>> getHealth() {
+        List<String> failed = startupTaskRunner.getFailedTasks();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", failed.isEmpty() ? "UP" : "DEGRADED");
+        body.put("failedTasks", failed);
+        return ResponseEntity.status(failed.isEmpty() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+}
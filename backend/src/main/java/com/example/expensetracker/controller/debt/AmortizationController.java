@@ -0,0 +1,41 @@
+package com.example.expensetracker.controller.debt;
+
+import com.example.expensetracker.dto.AmortizationSchedule;
+import com.example.expensetracker.dto.MonthlyCashFlow;
+import com.example.expensetracker.service.AmortizationEngine;
+import com.example.expensetracker.service.debt.AccountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/debt/amortization")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class AmortizationController {
+
+    private final AccountService accountService;
+    private final AmortizationEngine amortizationEngine;
+
+    // Per-account schedules for the snapshot's active accounts, first row is the month after the snapshot
+    @GetMapping("/{date}")
+    public List<AmortizationSchedule> getSchedules(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "" + AmortizationEngine.DEFAULT_MONTHS) int months) {
+        AmortizationEngine.Schedule schedule = amortizationEngine.run(accountService.getAccountsBySnapshotDate(date),
+                months);
+        return amortizationEngine.toSchedules(schedule, date);
+    }
+
+    @GetMapping("/{date}/cash-flow")
+    public List<MonthlyCashFlow> getCashFlow(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "" + AmortizationEngine.DEFAULT_MONTHS) int months) {
+        AmortizationEngine.Schedule schedule = amortizationEngine.run(accountService.getAccountsBySnapshotDate(date),
+                months);
+        return amortizationEngine.toCashFlow(schedule, date);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.expensetracker.controller.debt;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET driven by a version tag from SnapshotVersionService. The tag
+ * must be read before the body is loaded: a write landing in between then
+ * changes the tag for the next request instead of pinning stale data to it.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    // Null tells Spring that checkNotModified already wrote the 304
+    static <T> ResponseEntity<T> respond(WebRequest request, String eTag, Supplier<T> body) {
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(body.get());
+    }
+}
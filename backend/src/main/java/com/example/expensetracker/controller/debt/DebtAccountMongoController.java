@@ -1,13 +1,16 @@
 package com.example.expensetracker.controller.debt;
 
+import com.example.expensetracker.dto.DebtTotal;
 import com.example.expensetracker.model.debt.Account;
 import com.example.expensetracker.model.debt.Account.AccountStatus;
 import com.example.expensetracker.model.debt.Account.AccountType;
 import com.example.expensetracker.service.debt.AccountService;
 import com.example.expensetracker.service.debt.SnapshotService;
+import com.example.expensetracker.service.debt.SnapshotVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -23,6 +26,7 @@ public class DebtAccountMongoController {
 
     private final AccountService accountService;
     private final SnapshotService snapshotService;
+    private final SnapshotVersionService snapshotVersionService;
     
     @GetMapping
     public List<Account> getAllAccounts() {
@@ -30,8 +34,10 @@ public class DebtAccountMongoController {
     }
 
     @GetMapping("/snapshot/{date}")
-    public List<Account> getAccountsBySnapshotDate(@PathVariable @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate date) {
-        return accountService.getAccountsBySnapshotDate(date);
+    public ResponseEntity<List<Account>> getAccountsBySnapshotDate(@PathVariable @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate date,
+            WebRequest request) {
+        return ConditionalGet.respond(request, snapshotVersionService.dateTag(date),
+                () -> accountService.getAccountsBySnapshotDate(date));
     }
     
     @GetMapping("/{id}")
@@ -100,6 +106,11 @@ public class DebtAccountMongoController {
         return accountService.getTotalDebtByType(type);
     }
 
+    @GetMapping("/totals")
+    public List<DebtTotal> getDebtTotals() {
+        return accountService.getDebtTotals();
+    }
+
     private void refreshSnapshot(LocalDate snapshotDate) {
         if (snapshotDate == null) {
             return;
@@ -0,0 +1,62 @@
+package com.example.expensetracker.controller.debt;
+
+import com.example.expensetracker.model.debt.Goal;
+import com.example.expensetracker.model.debt.Goal.GoalStatus;
+import com.example.expensetracker.service.debt.GoalProgressService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/debt/goals")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class GoalController {
+
+    private final GoalProgressService goalProgressService;
+
+    // Goals with progress as of the latest snapshot, optionally filtered by status
+    @GetMapping
+    public List<Goal> getGoals(@RequestParam(required = false) GoalStatus status) {
+        return goalProgressService.getGoals(status);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Goal> getGoal(@PathVariable String id) {
+        return goalProgressService.getGoal(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Goal createGoal(@RequestBody Goal goal) {
+        return goalProgressService.createGoal(goal);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Goal> updateGoal(@PathVariable String id, @RequestBody Goal goal) {
+        try {
+            return ResponseEntity.ok(goalProgressService.updateGoal(id, goal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteGoal(@PathVariable String id) {
+        goalProgressService.deleteGoal(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Rebuild the cached balances and recompute every active goal
+    @PostMapping("/recompute")
+    public Map<String, Object> recompute() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("trackedGoals", goalProgressService.recomputeAll());
+        return response;
+    }
+}
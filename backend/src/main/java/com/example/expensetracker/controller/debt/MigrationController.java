@@ -3,6 +3,8 @@ package com.example.expensetracker.controller.debt;
 import com.example.expensetracker.repository.debt.AccountRepository;
 import com.example.expensetracker.repository.debt.SnapshotRepository;
 import com.example.expensetracker.service.debt.MigrationService;
+import com.example.expensetracker.service.debt.SnapshotService;
+import com.example.expensetracker.service.debt.SnapshotVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +22,8 @@ public class MigrationController {
     private final AccountRepository accountRepository;
     private final SnapshotRepository snapshotRepository;
     private final MigrationService migrationService;
+    private final SnapshotVersionService snapshotVersionService;
+    private final SnapshotService snapshotService;
 
     @PostMapping("/clear-and-reload")
     public Map<String, String> clearAndReload() {
@@ -28,11 +32,14 @@ public class MigrationController {
         // Clear all data
         accountRepository.deleteAll();
         snapshotRepository.deleteAll();
+        migrationService.resetLedger();
+        snapshotVersionService.bumpAll();
 
         log.info("Triggering migration...");
 
         // Trigger migration
         migrationService.migrateData();
+        snapshotService.reconcileIndex(); // Also covers a reload that found no files
 
         Map<String, String> response = new HashMap<>();
         response.put("status", "success");
@@ -40,4 +47,12 @@ public class MigrationController {
 
         return response;
     }
+
+    @GetMapping("/status")
+    public Map<String, Object> getStatus() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("running", migrationService.isRunning());
+        response.put("files", migrationService.getLedger());
+        return response;
+    }
 }
@@ -0,0 +1,68 @@
+package com.example.expensetracker.controller.debt;
+
+import com.example.expensetracker.dto.LedgerImportReport;
+import com.example.expensetracker.service.debt.PaymentIngestionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/debt/ingest")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class PaymentIngestionController {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(PaymentIngestionController.class);
+
+    private final PaymentIngestionService paymentIngestionService;
+
+    // Raw body: text/csv, or application/x-ndjson for one JSON object per line
+    @PostMapping
+    public ResponseEntity<LedgerImportReport> ingest(
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            @RequestParam(required = false) PaymentIngestionService.Format format,
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            InputStream body) {
+        PaymentIngestionService.Format resolved = format != null ? format
+                : contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json")
+                        ? PaymentIngestionService.Format.NDJSON
+                        : PaymentIngestionService.Format.CSV;
+        return run(body, resolved, dryRun);
+    }
+
+    // Multipart upload of a bank export; .ndjson/.jsonl files are read as NDJSON, anything else as CSV
+    @PostMapping("/upload")
+    public ResponseEntity<LedgerImportReport> upload(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) PaymentIngestionService.Format format,
+            @RequestParam(defaultValue = "false") boolean dryRun) throws IOException {
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        PaymentIngestionService.Format resolved = format != null ? format
+                : name.endsWith(".ndjson") || name.endsWith(".jsonl")
+                        ? PaymentIngestionService.Format.NDJSON
+                        : PaymentIngestionService.Format.CSV;
+        try (InputStream input = file.getInputStream()) {
+            return run(input, resolved, dryRun);
+        }
+    }
+
+    private ResponseEntity<LedgerImportReport> run(InputStream input, PaymentIngestionService.Format format,
+            boolean dryRun) {
+        try {
+            return ResponseEntity.ok(paymentIngestionService.ingest(input, format, dryRun));
+        } catch (IOException e) {
+            LedgerImportReport report = new LedgerImportReport();
+            report.getErrors().add(new LedgerImportReport.RowError(null, "Unreadable input: " + e.getMessage()));
+            return ResponseEntity.badRequest().body(report);
+        } catch (IllegalStateException e) {
+            log.warn("Ledger import unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.expensetracker.controller.debt;
+
+import com.example.expensetracker.dto.PayoffSimulation;
+import com.example.expensetracker.model.debt.Goal;
+import com.example.expensetracker.service.DebtPayoffSimulator;
+import com.example.expensetracker.service.debt.AccountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/debt/payoff")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class PayoffSimulationController {
+
+    private final AccountService accountService;
+    private final DebtPayoffSimulator payoffSimulator;
+
+    // Compares strategies for the snapshot's accounts; defaults to avalanche, snowball and hybrid
+    @GetMapping("/{date}")
+    public PayoffSimulation simulate(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "0") double extra,
+            @RequestParam(defaultValue = "" + DebtPayoffSimulator.DEFAULT_POST_PROMO_APR) double postPromoApr,
+            @RequestParam(defaultValue = "" + DebtPayoffSimulator.DEFAULT_MONTHS) int months,
+            @RequestParam(required = false) List<Goal.PayoffStrategy> strategies) {
+        return payoffSimulator.compare(accountService.getAccountsBySnapshotDate(date), date, extra, postPromoApr,
+                months, strategies);
+    }
+}
@@ -2,10 +2,12 @@ package com.example.expensetracker.controller.debt;
 
 import com.example.expensetracker.model.debt.Snapshot;
 import com.example.expensetracker.service.debt.SnapshotService;
+import com.example.expensetracker.service.debt.SnapshotVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -18,10 +20,12 @@ import java.util.Map;
 public class SnapshotController {
 
     private final SnapshotService snapshotService;
+    private final SnapshotVersionService snapshotVersionService;
 
+    // List endpoints answer 304 from the in-memory version stamps while no snapshot has changed
     @GetMapping
-    public List<Snapshot> getAllSnapshots() {
-        return snapshotService.getAllSnapshots();
+    public ResponseEntity<List<Snapshot>> getAllSnapshots(WebRequest request) {
+        return ConditionalGet.respond(request, snapshotVersionService.allTag(), snapshotService::getAllSnapshots);
     }
 
     @GetMapping("/date/{date}")
@@ -33,17 +37,19 @@ public class SnapshotController {
     }
 
     @GetMapping("/grouped-by-year")
-    public Map<Integer, List<Snapshot>> getSnapshotsGroupedByYear() {
-        return snapshotService.getSnapshotsGroupedByYear();
+    public ResponseEntity<Map<Integer, List<Snapshot>>> getSnapshotsGroupedByYear(WebRequest request) {
+        return ConditionalGet.respond(request, snapshotVersionService.allTag(),
+                snapshotService::getSnapshotsGroupedByYear);
     }
     
     @GetMapping("/years")
-    public List<Integer> getAvailableYears() {
-        return snapshotService.getAvailableYears();
+    public ResponseEntity<List<Integer>> getAvailableYears(WebRequest request) {
+        return ConditionalGet.respond(request, snapshotVersionService.allTag(), snapshotService::getAvailableYears);
     }
     
     @GetMapping("/year/{year}")
-    public List<Snapshot> getSnapshotsForYear(@PathVariable int year) {
-        return snapshotService.getSnapshotsForYear(year);
+    public ResponseEntity<List<Snapshot>> getSnapshotsForYear(@PathVariable int year, WebRequest request) {
+        return ConditionalGet.respond(request, snapshotVersionService.yearTag(year),
+                () -> snapshotService.getSnapshotsForYear(year));
     }
 }
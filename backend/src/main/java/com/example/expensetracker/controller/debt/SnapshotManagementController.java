@@ -2,7 +2,9 @@ package com.example.expensetracker.controller.debt;
 
 import com.example.expensetracker.model.debt.Account;
 import com.example.expensetracker.model.debt.Snapshot;
+import com.example.expensetracker.service.debt.AccountBatchService;
 import com.example.expensetracker.service.debt.AccountService;
+import com.example.expensetracker.service.debt.GoalProgressService;
 import com.example.expensetracker.service.debt.SnapshotService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -20,8 +22,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SnapshotManagementController {
 
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(SnapshotManagementController.class);
+
     private final SnapshotService snapshotService;
     private final AccountService accountService;
+    private final AccountBatchService accountBatchService;
+    private final GoalProgressService goalProgressService;
 
     @PostMapping("/create")
     public ResponseEntity<SnapshotCreationResponse> createSnapshot(@RequestBody CreateSnapshotRequest request) {
@@ -37,11 +43,9 @@ public class SnapshotManagementController {
                         request.getCloneFromDate(),
                         request.getSnapshotDate());
 
-                // Save cloned accounts
-                accounts = accountService.batchCreateOrUpdate(accounts);
-
-                // Update snapshot with calculated totals
-                snapshot = snapshotService.updateSnapshotFromAccounts(request.getSnapshotDate(), accounts);
+                // Save cloned accounts and the snapshot totals in one unit of work
+                snapshot = accountBatchService.apply(request.getSnapshotDate(), accounts);
+                refreshGoals(request.getSnapshotDate(), accounts);
             }
 
             SnapshotCreationResponse response = new SnapshotCreationResponse();
@@ -72,14 +76,9 @@ public class SnapshotManagementController {
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestBody List<Account> accounts) {
         try {
-            // Ensure all accounts have the correct snapshot date
-            accounts.forEach(account -> account.setSnapshotDate(date));
-
-            // Save all accounts
-            accountService.batchCreateOrUpdate(accounts);
-
-            // Recalculate and update snapshot totals
-            Snapshot updatedSnapshot = snapshotService.updateSnapshotFromAccounts(date, accounts);
+            // Accounts, priorities and totals are computed first, then written as changed fields only
+            Snapshot updatedSnapshot = accountBatchService.apply(date, accounts);
+            refreshGoals(date, accounts);
 
             return ResponseEntity.ok(updatedSnapshot);
         } catch (IllegalArgumentException e) {
@@ -106,6 +105,7 @@ public class SnapshotManagementController {
     public ResponseEntity<Void> deleteSnapshot(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         snapshotService.deleteSnapshot(date);
+        goalProgressService.onSnapshotDeleted(date);
         return ResponseEntity.noContent().build();
     }
 
@@ -116,6 +116,14 @@ public class SnapshotManagementController {
         return ResponseEntity.ok(snapshotService.snapshotExists(date));
     }
 
+    private void refreshGoals(LocalDate snapshotDate, List<Account> accounts) {
+        try {
+            goalProgressService.onAccountsChanged(snapshotDate, accounts);
+        } catch (Exception ex) {
+            log.warn("Failed to update goal progress for snapshot {}: {}", snapshotDate, ex.getMessage());
+        }
+    }
+
     // DTOs
     public static class CreateSnapshotRequest {
         private LocalDate snapshotDate;
@@ -0,0 +1,161 @@
+package com.example.expensetracker.dto;
+
+import com.example.expensetracker.model.debt.Account;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AmortizationSchedule {
+    private String accountId;
+    private String name;
+    private Account.AccountType type;
+    private Double apr;
+    private Double monthlyPayment;
+    private Double startingBalance;
+    private Double totalInterest;
+    private Integer monthsLeft; // Null when not paid off within the horizon
+    private String payoffMonth; // yyyy-MM
+    private List<Row> rows = new ArrayList<>();
+
+    public AmortizationSchedule() {
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Account.AccountType getType() {
+        return type;
+    }
+
+    public void setType(Account.AccountType type) {
+        this.type = type;
+    }
+
+    public Double getApr() {
+        return apr;
+    }
+
+    public void setApr(Double apr) {
+        this.apr = apr;
+    }
+
+    public Double getMonthlyPayment() {
+        return monthlyPayment;
+    }
+
+    public void setMonthlyPayment(Double monthlyPayment) {
+        this.monthlyPayment = monthlyPayment;
+    }
+
+    public Double getStartingBalance() {
+        return startingBalance;
+    }
+
+    public void setStartingBalance(Double startingBalance) {
+        this.startingBalance = startingBalance;
+    }
+
+    public Double getTotalInterest() {
+        return totalInterest;
+    }
+
+    public void setTotalInterest(Double totalInterest) {
+        this.totalInterest = totalInterest;
+    }
+
+    public Integer getMonthsLeft() {
+        return monthsLeft;
+    }
+
+    public void setMonthsLeft(Integer monthsLeft) {
+        this.monthsLeft = monthsLeft;
+    }
+
+    public String getPayoffMonth() {
+        return payoffMonth;
+    }
+
+    public void setPayoffMonth(String payoffMonth) {
+        this.payoffMonth = payoffMonth;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<Row> rows) {
+        this.rows = rows;
+    }
+
+    public static class Row {
+        private String month; // yyyy-MM
+        private Double payment;
+        private Double interest;
+        private Double principal;
+        private Double balance;
+
+        public Row() {
+        }
+
+        public Row(String month, Double payment, Double interest, Double principal, Double balance) {
+            this.month = month;
+            this.payment = payment;
+            this.interest = interest;
+            this.principal = principal;
+            this.balance = balance;
+        }
+
+        public String getMonth() {
+            return month;
+        }
+
+        public void setMonth(String month) {
+            this.month = month;
+        }
+
+        public Double getPayment() {
+            return payment;
+        }
+
+        public void setPayment(Double payment) {
+            this.payment = payment;
+        }
+
+        public Double getInterest() {
+            return interest;
+        }
+
+        public void setInterest(Double interest) {
+            this.interest = interest;
+        }
+
+        public Double getPrincipal() {
+            return principal;
+        }
+
+        public void setPrincipal(Double principal) {
+            this.principal = principal;
+        }
+
+        public Double getBalance() {
+            return balance;
+        }
+
+        public void setBalance(Double balance) {
+            this.balance = balance;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.expensetracker.dto;
+
+public class DebtTotal {
+    private String type;
+    private String status;
+    private Integer accountCount;
+    private Double totalBalance;
+
+    public DebtTotal() {
+    }
+
+    public DebtTotal(String type, String status, Integer accountCount, Double totalBalance) {
+        this.type = type;
+        this.status = status;
+        this.accountCount = accountCount;
+        this.totalBalance = totalBalance;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getAccountCount() {
+        return accountCount;
+    }
+
+    public void setAccountCount(Integer accountCount) {
+        this.accountCount = accountCount;
+    }
+
+    public Double getTotalBalance() {
+        return totalBalance;
+    }
+
+    public void setTotalBalance(Double totalBalance) {
+        this.totalBalance = totalBalance;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.expensetracker.dto;
+
+import com.example.expensetracker.model.Expense;
+
+import java.util.List;
+
+public class ExpensePage {
+    private List<Expense> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public ExpensePage() {
+    }
+
+    public ExpensePage(List<Expense> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Expense> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Expense> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
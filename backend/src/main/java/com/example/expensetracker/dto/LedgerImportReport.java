@@ -0,0 +1,198 @@
+package com.example.expensetracker.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LedgerImportReport {
+    private Boolean dryRun;
+    private Integer rowsRead;
+    private Integer rowsAccepted;
+    private Integer rowsRejected;
+    private Integer duplicatesSkipped; // Accepted rows already imported by an earlier upload
+    private Integer paymentsInserted;
+    private Integer transactionsInserted;
+    private Integer accountsUpdated;
+    private List<SnapshotTotals> snapshots = new ArrayList<>();
+    private List<RowError> errors = new ArrayList<>(); // First errors only; rowsRejected has the full count
+    private Long elapsedMs;
+
+    public LedgerImportReport() {
+    }
+
+    public Boolean getDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(Boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public Integer getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(Integer rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public Integer getRowsAccepted() {
+        return rowsAccepted;
+    }
+
+    public void setRowsAccepted(Integer rowsAccepted) {
+        this.rowsAccepted = rowsAccepted;
+    }
+
+    public Integer getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(Integer rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public Integer getDuplicatesSkipped() {
+        return duplicatesSkipped;
+    }
+
+    public void setDuplicatesSkipped(Integer duplicatesSkipped) {
+        this.duplicatesSkipped = duplicatesSkipped;
+    }
+
+    public Integer getPaymentsInserted() {
+        return paymentsInserted;
+    }
+
+    public void setPaymentsInserted(Integer paymentsInserted) {
+        this.paymentsInserted = paymentsInserted;
+    }
+
+    public Integer getTransactionsInserted() {
+        return transactionsInserted;
+    }
+
+    public void setTransactionsInserted(Integer transactionsInserted) {
+        this.transactionsInserted = transactionsInserted;
+    }
+
+    public Integer getAccountsUpdated() {
+        return accountsUpdated;
+    }
+
+    public void setAccountsUpdated(Integer accountsUpdated) {
+        this.accountsUpdated = accountsUpdated;
+    }
+
+    public List<SnapshotTotals> getSnapshots() {
+        return snapshots;
+    }
+
+    public void setSnapshots(List<SnapshotTotals> snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    public Long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(Long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public static class SnapshotTotals {
+        private String snapshotDate;
+        private Integer payments;
+        private Double principalPaid;
+        private Double interestPaid;
+        private Double newCharges; // Charges and fees
+        private Double debtReduction; // Change in the touched accounts' balances, positive when debt went down
+
+        public SnapshotTotals() {
+        }
+
+        public String getSnapshotDate() {
+            return snapshotDate;
+        }
+
+        public void setSnapshotDate(String snapshotDate) {
+            this.snapshotDate = snapshotDate;
+        }
+
+        public Integer getPayments() {
+            return payments;
+        }
+
+        public void setPayments(Integer payments) {
+            this.payments = payments;
+        }
+
+        public Double getPrincipalPaid() {
+            return principalPaid;
+        }
+
+        public void setPrincipalPaid(Double principalPaid) {
+            this.principalPaid = principalPaid;
+        }
+
+        public Double getInterestPaid() {
+            return interestPaid;
+        }
+
+        public void setInterestPaid(Double interestPaid) {
+            this.interestPaid = interestPaid;
+        }
+
+        public Double getNewCharges() {
+            return newCharges;
+        }
+
+        public void setNewCharges(Double newCharges) {
+            this.newCharges = newCharges;
+        }
+
+        public Double getDebtReduction() {
+            return debtReduction;
+        }
+
+        public void setDebtReduction(Double debtReduction) {
+            this.debtReduction = debtReduction;
+        }
+    }
+
+    public static class RowError {
+        private Long line;
+        private String message;
+
+        public RowError() {
+        }
+
+        public RowError(Long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public Long getLine() {
+            return line;
+        }
+
+        public void setLine(Long line) {
+            this.line = line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.expensetracker.dto;
+
+public class MonthlyCashFlow {
+    private String month; // yyyy-MM
+    private Double payment;
+    private Double interest;
+    private Double principal;
+    private Double remainingBalance;
+
+    public MonthlyCashFlow() {
+    }
+
+    public MonthlyCashFlow(String month, Double payment, Double interest, Double principal, Double remainingBalance) {
+        this.month = month;
+        this.payment = payment;
+        this.interest = interest;
+        this.principal = principal;
+        this.remainingBalance = remainingBalance;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public Double getPayment() {
+        return payment;
+    }
+
+    public void setPayment(Double payment) {
+        this.payment = payment;
+    }
+
+    public Double getInterest() {
+        return interest;
+    }
+
+    public void setInterest(Double interest) {
+        this.interest = interest;
+    }
+
+    public Double getPrincipal() {
+        return principal;
+    }
+
+    public void setPrincipal(Double principal) {
+        this.principal = principal;
+    }
+
+    public Double getRemainingBalance() {
+        return remainingBalance;
+    }
+
+    public void setRemainingBalance(Double remainingBalance) {
+        this.remainingBalance = remainingBalance;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.expensetracker.dto;
+
+import java.math.BigDecimal;
+
+public class MonthlyExpenseTotal {
+    private String month;
+    private Long count;
+    private BigDecimal total;
+
+    public MonthlyExpenseTotal() {
+    }
+
+    public MonthlyExpenseTotal(String month, Long count, BigDecimal total) {
+        this.month = month;
+        this.count = count;
+        this.total = total;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+}
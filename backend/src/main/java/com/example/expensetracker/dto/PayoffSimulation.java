@@ -0,0 +1,213 @@
+package com.example.expensetracker.dto;
+
+import com.example.expensetracker.model.debt.Goal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PayoffSimulation {
+    private String snapshotDate;
+    private Double extraMonthlyPayment;
+    private Double monthlyBudget; // Sum of minimum payments plus the extra payment
+    private Double postPromoApr; // APR assumed once a promo rate expires
+    private Double minimumOnlyInterest; // Minimum payments only, freed payments not reused
+    private Integer minimumOnlyMonths; // Null when not debt free within the horizon
+    private Goal.PayoffStrategy bestStrategy; // Lowest total interest
+    private List<StrategyResult> strategies = new ArrayList<>();
+
+    public PayoffSimulation() {
+    }
+
+    public String getSnapshotDate() {
+        return snapshotDate;
+    }
+
+    public void setSnapshotDate(String snapshotDate) {
+        this.snapshotDate = snapshotDate;
+    }
+
+    public Double getExtraMonthlyPayment() {
+        return extraMonthlyPayment;
+    }
+
+    public void setExtraMonthlyPayment(Double extraMonthlyPayment) {
+        this.extraMonthlyPayment = extraMonthlyPayment;
+    }
+
+    public Double getMonthlyBudget() {
+        return monthlyBudget;
+    }
+
+    public void setMonthlyBudget(Double monthlyBudget) {
+        this.monthlyBudget = monthlyBudget;
+    }
+
+    public Double getPostPromoApr() {
+        return postPromoApr;
+    }
+
+    public void setPostPromoApr(Double postPromoApr) {
+        this.postPromoApr = postPromoApr;
+    }
+
+    public Double getMinimumOnlyInterest() {
+        return minimumOnlyInterest;
+    }
+
+    public void setMinimumOnlyInterest(Double minimumOnlyInterest) {
+        this.minimumOnlyInterest = minimumOnlyInterest;
+    }
+
+    public Integer getMinimumOnlyMonths() {
+        return minimumOnlyMonths;
+    }
+
+    public void setMinimumOnlyMonths(Integer minimumOnlyMonths) {
+        this.minimumOnlyMonths = minimumOnlyMonths;
+    }
+
+    public Goal.PayoffStrategy getBestStrategy() {
+        return bestStrategy;
+    }
+
+    public void setBestStrategy(Goal.PayoffStrategy bestStrategy) {
+        this.bestStrategy = bestStrategy;
+    }
+
+    public List<StrategyResult> getStrategies() {
+        return strategies;
+    }
+
+    public void setStrategies(List<StrategyResult> strategies) {
+        this.strategies = strategies;
+    }
+
+    public static class StrategyResult {
+        private Goal.PayoffStrategy strategy;
+        private Double totalInterest;
+        private Double totalPaid;
+        private Double interestSaved; // Compared with minimum payments only
+        private Integer monthsToDebtFree; // Null when not debt free within the horizon
+        private String debtFreeMonth; // yyyy-MM
+        private List<AccountPayoff> payoffOrder = new ArrayList<>();
+
+        public StrategyResult() {
+        }
+
+        public Goal.PayoffStrategy getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(Goal.PayoffStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        public Double getTotalInterest() {
+            return totalInterest;
+        }
+
+        public void setTotalInterest(Double totalInterest) {
+            this.totalInterest = totalInterest;
+        }
+
+        public Double getTotalPaid() {
+            return totalPaid;
+        }
+
+        public void setTotalPaid(Double totalPaid) {
+            this.totalPaid = totalPaid;
+        }
+
+        public Double getInterestSaved() {
+            return interestSaved;
+        }
+
+        public void setInterestSaved(Double interestSaved) {
+            this.interestSaved = interestSaved;
+        }
+
+        public Integer getMonthsToDebtFree() {
+            return monthsToDebtFree;
+        }
+
+        public void setMonthsToDebtFree(Integer monthsToDebtFree) {
+            this.monthsToDebtFree = monthsToDebtFree;
+        }
+
+        public String getDebtFreeMonth() {
+            return debtFreeMonth;
+        }
+
+        public void setDebtFreeMonth(String debtFreeMonth) {
+            this.debtFreeMonth = debtFreeMonth;
+        }
+
+        public List<AccountPayoff> getPayoffOrder() {
+            return payoffOrder;
+        }
+
+        public void setPayoffOrder(List<AccountPayoff> payoffOrder) {
+            this.payoffOrder = payoffOrder;
+        }
+    }
+
+    public static class AccountPayoff {
+        private String accountId;
+        private String name;
+        private Double startingBalance;
+        private Double interestPaid;
+        private Integer monthsToPayoff;
+        private String payoffMonth; // yyyy-MM
+
+        public AccountPayoff() {
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public void setAccountId(String accountId) {
+            this.accountId = accountId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Double getStartingBalance() {
+            return startingBalance;
+        }
+
+        public void setStartingBalance(Double startingBalance) {
+            this.startingBalance = startingBalance;
+        }
+
+        public Double getInterestPaid() {
+            return interestPaid;
+        }
+
+        public void setInterestPaid(Double interestPaid) {
+            this.interestPaid = interestPaid;
+        }
+
+        public Integer getMonthsToPayoff() {
+            return monthsToPayoff;
+        }
+
+        public void setMonthsToPayoff(Integer monthsToPayoff) {
+            this.monthsToPayoff = monthsToPayoff;
+        }
+
+        public String getPayoffMonth() {
+            return payoffMonth;
+        }
+
+        public void setPayoffMonth(String payoffMonth) {
+            this.payoffMonth = payoffMonth;
+        }
+    }
+}
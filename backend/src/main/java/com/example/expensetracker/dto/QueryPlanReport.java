@@ -0,0 +1,66 @@
+package com.example.expensetracker.dto;
+
+public class QueryPlanReport {
+    private String query;
+    private String collection;
+    private String winningStage; // e.g. IXSCAN, COLLSCAN
+    private String indexName;
+    private boolean collectionScan;
+    private String error;
+
+    public QueryPlanReport() {
+    }
+
+    public QueryPlanReport(String query, String collection) {
+        this.query = query;
+        this.collection = collection;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public String getWinningStage() {
+        return winningStage;
+    }
+
+    public void setWinningStage(String winningStage) {
+        this.winningStage = winningStage;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public void setIndexName(String indexName) {
+        this.indexName = indexName;
+    }
+
+    public boolean isCollectionScan() {
+        return collectionScan;
+    }
+
+    public void setCollectionScan(boolean collectionScan) {
+        this.collectionScan = collectionScan;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.expensetracker.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RecurringBackfillReport {
+    private boolean dryRun;
+    private Integer definitionsScanned;
+    private Integer occurrencesPlanned;
+    private Integer occurrencesInserted;
+    private Integer occurrencesAlreadyPresent;
+    private List<Item> items = new ArrayList<>();
+
+    public RecurringBackfillReport() {
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public Integer getDefinitionsScanned() {
+        return definitionsScanned;
+    }
+
+    public void setDefinitionsScanned(Integer definitionsScanned) {
+        this.definitionsScanned = definitionsScanned;
+    }
+
+    public Integer getOccurrencesPlanned() {
+        return occurrencesPlanned;
+    }
+
+    public void setOccurrencesPlanned(Integer occurrencesPlanned) {
+        this.occurrencesPlanned = occurrencesPlanned;
+    }
+
+    public Integer getOccurrencesInserted() {
+        return occurrencesInserted;
+    }
+
+    public void setOccurrencesInserted(Integer occurrencesInserted) {
+        this.occurrencesInserted = occurrencesInserted;
+    }
+
+    public Integer getOccurrencesAlreadyPresent() {
+        return occurrencesAlreadyPresent;
+    }
+
+    public void setOccurrencesAlreadyPresent(Integer occurrencesAlreadyPresent) {
+        this.occurrencesAlreadyPresent = occurrencesAlreadyPresent;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    public static class Item {
+        private String recurringExpenseId;
+        private String description;
+        private List<String> missedMonths;
+
+        public Item() {
+        }
+
+        public Item(String recurringExpenseId, String description, List<String> missedMonths) {
+            this.recurringExpenseId = recurringExpenseId;
+            this.description = description;
+            this.missedMonths = missedMonths;
+        }
+
+        public String getRecurringExpenseId() {
+            return recurringExpenseId;
+        }
+
+        public void setRecurringExpenseId(String recurringExpenseId) {
+            this.recurringExpenseId = recurringExpenseId;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+
+        public List<String> getMissedMonths() {
+            return missedMonths;
+        }
+
+        public void setMissedMonths(List<String> missedMonths) {
+            this.missedMonths = missedMonths;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.expensetracker.dto;
+
+public class SnapshotCacheStats {
+    private Integer entries;
+    private Long cachedBytes;
+    private Long hits;
+    private Long misses;
+    private Long evictions;
+
+    public SnapshotCacheStats() {
+    }
+
+    public Integer getEntries() {
+        return entries;
+    }
+
+    public void setEntries(Integer entries) {
+        this.entries = entries;
+    }
+
+    public Long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public void setCachedBytes(Long cachedBytes) {
+        this.cachedBytes = cachedBytes;
+    }
+
+    public Long getHits() {
+        return hits;
+    }
+
+    public void setHits(Long hits) {
+        this.hits = hits;
+    }
+
+    public Long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(Long misses) {
+        this.misses = misses;
+    }
+
+    public Long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(Long evictions) {
+        this.evictions = evictions;
+    }
+}
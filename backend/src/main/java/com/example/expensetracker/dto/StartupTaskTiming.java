@@ -0,0 +1,59 @@
+package com.example.expensetracker.dto;
+
+import java.time.LocalDateTime;
+
+public class StartupTaskTiming {
+    private String name;
+    private String status; // PENDING, RUNNING, SUCCEEDED, FAILED
+    private LocalDateTime startedAt;
+    private Long durationMs;
+    private String message;
+
+    public StartupTaskTiming() {
+    }
+
+    public StartupTaskTiming(String name) {
+        this.name = name;
+        this.status = "PENDING";
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
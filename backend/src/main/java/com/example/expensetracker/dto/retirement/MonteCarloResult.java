@@ -0,0 +1,229 @@
+package com.example.expensetracker.dto.retirement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MonteCarloResult {
+    private Integer paths;
+    private Integer years;
+    private Long seed;
+    private Double annualReturn;
+    private Double volatility;
+    private Double targetPortfolioValue;
+    private Double probabilityOfReachingTarget; // 0-100, on the pre-tax total
+    private Double probabilityOfReachingTargetAfterTax; // 0-100
+    private List<PercentileBand> bands = new ArrayList<>(); // One per year, pre-tax total
+    private PercentileBand finalAfterTax;
+    private List<AccountOutcome> accounts = new ArrayList<>();
+    private Long elapsedMs;
+
+    public MonteCarloResult() {
+    }
+
+    public Integer getPaths() {
+        return paths;
+    }
+
+    public void setPaths(Integer paths) {
+        this.paths = paths;
+    }
+
+    public Integer getYears() {
+        return years;
+    }
+
+    public void setYears(Integer years) {
+        this.years = years;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public Double getAnnualReturn() {
+        return annualReturn;
+    }
+
+    public void setAnnualReturn(Double annualReturn) {
+        this.annualReturn = annualReturn;
+    }
+
+    public Double getVolatility() {
+        return volatility;
+    }
+
+    public void setVolatility(Double volatility) {
+        this.volatility = volatility;
+    }
+
+    public Double getTargetPortfolioValue() {
+        return targetPortfolioValue;
+    }
+
+    public void setTargetPortfolioValue(Double targetPortfolioValue) {
+        this.targetPortfolioValue = targetPortfolioValue;
+    }
+
+    public Double getProbabilityOfReachingTarget() {
+        return probabilityOfReachingTarget;
+    }
+
+    public void setProbabilityOfReachingTarget(Double probabilityOfReachingTarget) {
+        this.probabilityOfReachingTarget = probabilityOfReachingTarget;
+    }
+
+    public Double getProbabilityOfReachingTargetAfterTax() {
+        return probabilityOfReachingTargetAfterTax;
+    }
+
+    public void setProbabilityOfReachingTargetAfterTax(Double probabilityOfReachingTargetAfterTax) {
+        this.probabilityOfReachingTargetAfterTax = probabilityOfReachingTargetAfterTax;
+    }
+
+    public List<PercentileBand> getBands() {
+        return bands;
+    }
+
+    public void setBands(List<PercentileBand> bands) {
+        this.bands = bands;
+    }
+
+    public PercentileBand getFinalAfterTax() {
+        return finalAfterTax;
+    }
+
+    public void setFinalAfterTax(PercentileBand finalAfterTax) {
+        this.finalAfterTax = finalAfterTax;
+    }
+
+    public List<AccountOutcome> getAccounts() {
+        return accounts;
+    }
+
+    public void setAccounts(List<AccountOutcome> accounts) {
+        this.accounts = accounts;
+    }
+
+    public Long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(Long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public static class PercentileBand {
+        private Integer year;
+        private Double age;
+        private Double p10;
+        private Double p25;
+        private Double p50;
+        private Double p75;
+        private Double p90;
+
+        public PercentileBand() {
+        }
+
+        public Integer getYear() {
+            return year;
+        }
+
+        public void setYear(Integer year) {
+            this.year = year;
+        }
+
+        public Double getAge() {
+            return age;
+        }
+
+        public void setAge(Double age) {
+            this.age = age;
+        }
+
+        public Double getP10() {
+            return p10;
+        }
+
+        public void setP10(Double p10) {
+            this.p10 = p10;
+        }
+
+        public Double getP25() {
+            return p25;
+        }
+
+        public void setP25(Double p25) {
+            this.p25 = p25;
+        }
+
+        public Double getP50() {
+            return p50;
+        }
+
+        public void setP50(Double p50) {
+            this.p50 = p50;
+        }
+
+        public Double getP75() {
+            return p75;
+        }
+
+        public void setP75(Double p75) {
+            this.p75 = p75;
+        }
+
+        public Double getP90() {
+            return p90;
+        }
+
+        public void setP90(Double p90) {
+            this.p90 = p90;
+        }
+    }
+
+    public static class AccountOutcome {
+        private String accountType;
+        private String taxBucket; // TAX_FREE, TAX_DEFERRED, TAXABLE
+        private Double taxRate; // Percent applied when computing the after-tax value
+        private PercentileBand finalBalance;
+
+        public AccountOutcome() {
+        }
+
+        public String getAccountType() {
+            return accountType;
+        }
+
+        public void setAccountType(String accountType) {
+            this.accountType = accountType;
+        }
+
+        public String getTaxBucket() {
+            return taxBucket;
+        }
+
+        public void setTaxBucket(String taxBucket) {
+            this.taxBucket = taxBucket;
+        }
+
+        public Double getTaxRate() {
+            return taxRate;
+        }
+
+        public void setTaxRate(Double taxRate) {
+            this.taxRate = taxRate;
+        }
+
+        public PercentileBand getFinalBalance() {
+            return finalBalance;
+        }
+
+        public void setFinalBalance(PercentileBand finalBalance) {
+            this.finalBalance = finalBalance;
+        }
+    }
+}
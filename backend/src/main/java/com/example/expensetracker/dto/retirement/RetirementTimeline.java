@@ -0,0 +1,51 @@
+package com.example.expensetracker.dto.retirement;
+
+// Column-oriented history: index i of every array describes the same snapshot
+public class RetirementTimeline {
+    private String[] dates;
+    private double[] totals;
+    private double[] contributions;
+    private String version;
+
+    public RetirementTimeline() {
+    }
+
+    public RetirementTimeline(String[] dates, double[] totals, double[] contributions, String version) {
+        this.dates = dates;
+        this.totals = totals;
+        this.contributions = contributions;
+        this.version = version;
+    }
+
+    public String[] getDates() {
+        return dates;
+    }
+
+    public void setDates(String[] dates) {
+        this.dates = dates;
+    }
+
+    public double[] getTotals() {
+        return totals;
+    }
+
+    public void setTotals(double[] totals) {
+        this.totals = totals;
+    }
+
+    public double[] getContributions() {
+        return contributions;
+    }
+
+    public void setContributions(double[] contributions) {
+        this.contributions = contributions;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.expensetracker.dto.retirement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class YtdConsistencyReport {
+    private Integer year;
+    private Integer accountTypesChecked;
+    private List<String> mismatches = new ArrayList<>();
+
+    public YtdConsistencyReport() {
+    }
+
+    public YtdConsistencyReport(Integer year) {
+        this.year = year;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public Integer getAccountTypesChecked() {
+        return accountTypesChecked;
+    }
+
+    public void setAccountTypesChecked(Integer accountTypesChecked) {
+        this.accountTypesChecked = accountTypesChecked;
+    }
+
+    public List<String> getMismatches() {
+        return mismatches;
+    }
+
+    public void setMismatches(List<String> mismatches) {
+        this.mismatches = mismatches;
+    }
+
+    public boolean isConsistent() {
+        return mismatches.isEmpty();
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.expensetracker.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -8,6 +11,11 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Document(collection = "expenses")
+@CompoundIndexes({
+        // Keyset pagination / streaming order: (date desc, id desc)
+        @CompoundIndex(name = "date_id", def = "{'date': -1, '_id': -1}"),
+        @CompoundIndex(name = "category_date_id", def = "{'category': 1, 'date': -1, '_id': -1}")
+})
 public class Expense {
     @Id
     private String id;
@@ -24,6 +32,16 @@ public class Expense {
     @Field("is_recurring")
     private Boolean isRecurring = false;
 
+    // "<recurringExpenseId>:<yyyy-MM>" for generated rows, so reruns cannot insert a month twice
+    @Field("recurring_key")
+    @Indexed(unique = true, sparse = true)
+    private String recurringKey;
+
+    // Hash of date, amount, normalized description and occurrence for rows loaded by the statement import
+    @Field("import_key")
+    @Indexed(unique = true, sparse = true)
+    private String importKey;
+
     // Getters and Setters
     public String getId() {
         return id;
@@ -80,4 +98,20 @@ public class Expense {
     public void setIsRecurring(Boolean isRecurring) {
         this.isRecurring = isRecurring;
     }
+
+    public String getRecurringKey() {
+        return recurringKey;
+    }
+
+    public void setRecurringKey(String recurringKey) {
+        this.recurringKey = recurringKey;
+    }
+
+    public String getImportKey() {
+        return importKey;
+    }
+
+    public void setImportKey(String importKey) {
+        this.importKey = importKey;
+    }
 }
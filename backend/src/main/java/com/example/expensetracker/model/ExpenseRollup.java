@@ -0,0 +1,109 @@
+package com.example.expensetracker.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals for one month and category of expenses, kept in step with
+ * expense writes so spend charts read buckets instead of scanning expenses.
+ */
+@Document(collection = "expense_rollups")
+@CompoundIndex(name = "month_category", def = "{'month': 1, 'category': 1}")
+public class ExpenseRollup {
+    @Id
+    private String id; // "<yyyy-MM>:<category>"
+    private String month; // yyyy-MM
+    private String category;
+    private Long count = 0L;
+    // Stored as Decimal128 (not the default string) so buckets can be updated with $inc, $min and $max
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal sum = BigDecimal.ZERO;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal min;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal max;
+    private LocalDateTime updatedAt;
+
+    public ExpenseRollup() {
+    }
+
+    public ExpenseRollup(String month, String category) {
+        this.id = idFor(month, category);
+        this.month = month;
+        this.category = category;
+    }
+
+    public static String idFor(String month, String category) {
+        return month + ":" + category;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getSum() {
+        return sum;
+    }
+
+    public void setSum(BigDecimal sum) {
+        this.sum = sum;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public void setMin(BigDecimal min) {
+        this.min = min;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    public void setMax(BigDecimal max) {
+        this.max = max;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -2,12 +2,14 @@ package com.example.expensetracker.model.debt;
 
 import com.fasterxml.jackson.annotation.JsonEnumDefaultValue;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.format.annotation.DateTimeFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Document(collection = "accounts")
 public class Account {
@@ -47,6 +49,12 @@ public class Account {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @JsonIgnore
+    private List<String> ledgerImports; // Ledger import batches already added to currentBalance
+
+    @JsonIgnore
+    private LedgerInterest ledgerInterest; // Interest state left by the last ledger import into this month
+
     public enum AccountType {
         @JsonEnumDefaultValue
         UNKNOWN,
@@ -61,6 +69,51 @@ public class Account {
         CLOSED
     }
 
+    /**
+     * The month's interest as ledger imports have split it so far. The
+     * estimate is taken once, from the balance before the month's first
+     * import, so later uploads for the same month continue from here instead
+     * of accruing it again.
+     */
+    public static class LedgerInterest {
+        private Double accrued; // Estimated interest not yet on the balance
+        private Double posted; // Interest on the balance not yet covered by a payment
+        private Boolean statementPosted; // A posted INTEREST row replaced the estimate
+
+        public LedgerInterest() {
+        }
+
+        public LedgerInterest(Double accrued, Double posted, Boolean statementPosted) {
+            this.accrued = accrued;
+            this.posted = posted;
+            this.statementPosted = statementPosted;
+        }
+
+        public Double getAccrued() {
+            return accrued;
+        }
+
+        public void setAccrued(Double accrued) {
+            this.accrued = accrued;
+        }
+
+        public Double getPosted() {
+            return posted;
+        }
+
+        public void setPosted(Double posted) {
+            this.posted = posted;
+        }
+
+        public Boolean getStatementPosted() {
+            return statementPosted;
+        }
+
+        public void setStatementPosted(Boolean statementPosted) {
+            this.statementPosted = statementPosted;
+        }
+    }
+
     public Account() {
     }
 
@@ -233,4 +286,20 @@ public class Account {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public List<String> getLedgerImports() {
+        return ledgerImports;
+    }
+
+    public void setLedgerImports(List<String> ledgerImports) {
+        this.ledgerImports = ledgerImports;
+    }
+
+    public LedgerInterest getLedgerInterest() {
+        return ledgerInterest;
+    }
+
+    public void setLedgerInterest(LedgerInterest ledgerInterest) {
+        this.ledgerInterest = ledgerInterest;
+    }
 }
@@ -21,6 +21,7 @@ public class Goal {
     private Double monthlyPayment;
     private GoalStatus status;
     private Double progress; // Percentage (0-100)
+    private Double startingBalance; // Debt when tracking started, the 0% point for payoff goals
     private String notes;
     
     private LocalDateTime createdAt;
@@ -36,6 +37,7 @@ public class Goal {
     public enum PayoffStrategy {
         AVALANCHE, // Highest interest first
         SNOWBALL,  // Lowest balance first
+        HYBRID,    // Balances the extra payment clears quickly first, then highest interest
         CUSTOM
     }
     
@@ -0,0 +1,33 @@
+package com.example.expensetracker.model.debt;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row per snapshot file seen by the migration; a file whose content hash
+ * matches its ledger row is not parsed again.
+ */
+@Data
+@Document(collection = "migration_ledger")
+public class MigrationLedgerEntry {
+
+    @Id
+    private String fileName;
+
+    private String contentHash;
+    private LocalDate snapshotDate;
+    private LedgerStatus status;
+    private Integer accountsImported;
+    private String message;
+    private LocalDateTime processedAt;
+
+    public enum LedgerStatus {
+        IMPORTED,
+        SKIPPED_EXISTING, // Snapshot date already in Mongo; user edits are preserved
+        FAILED
+    }
+}
@@ -2,7 +2,9 @@ package com.example.expensetracker.model.debt;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -22,6 +24,11 @@ public class Payment {
     private Double balanceAfter;
     private String notes;
     
+    // Same key as the ledger import's PAYMENT transaction for this row
+    @Field("import_key")
+    @Indexed(unique = true, sparse = true)
+    private String importKey;
+    
     private LocalDateTime createdAt;
     
     public enum PaymentType {
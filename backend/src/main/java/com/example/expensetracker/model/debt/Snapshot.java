@@ -1,9 +1,12 @@
 package com.example.expensetracker.model.debt;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Document(collection = "snapshots")
 public class Snapshot {
@@ -28,6 +31,9 @@ public class Snapshot {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @JsonIgnore
+    private List<String> ledgerImports; // Ledger import batches already added to metadata
+
     public static class SnapshotMetadata {
         private Double debtReduction;
         private Integer paymentsThisMonth;
@@ -77,11 +83,43 @@ public class Snapshot {
         public void setInterestPaid(Double interestPaid) {
             this.interestPaid = interestPaid;
         }
+
+        public SnapshotMetadata copy() {
+            SnapshotMetadata copy = new SnapshotMetadata();
+            copy.debtReduction = debtReduction;
+            copy.paymentsThisMonth = paymentsThisMonth;
+            copy.newCharges = newCharges;
+            copy.principalPaid = principalPaid;
+            copy.interestPaid = interestPaid;
+            return copy;
+        }
     }
 
     public Snapshot() {
     }
 
+    // Deep copy, for caches that hand snapshots out to callers
+    public Snapshot copy() {
+        Snapshot copy = new Snapshot();
+        copy.id = id;
+        copy.snapshotDate = snapshotDate;
+        copy.totalDebt = totalDebt;
+        copy.creditCardDebt = creditCardDebt;
+        copy.personalLoanDebt = personalLoanDebt;
+        copy.autoLoanDebt = autoLoanDebt;
+        copy.totalAccounts = totalAccounts;
+        copy.activeAccounts = activeAccounts;
+        copy.paidOffAccounts = paidOffAccounts;
+        copy.totalMonthlyPayment = totalMonthlyPayment;
+        copy.totalMonthlyInterest = totalMonthlyInterest;
+        copy.performanceScore = performanceScore;
+        copy.metadata = metadata != null ? metadata.copy() : null;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.ledgerImports = ledgerImports != null ? new ArrayList<>(ledgerImports) : null;
+        return copy;
+    }
+
     public String getId() {
         return id;
     }
@@ -201,4 +239,12 @@ public class Snapshot {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public List<String> getLedgerImports() {
+        return ledgerImports;
+    }
+
+    public void setLedgerImports(List<String> ledgerImports) {
+        this.ledgerImports = ledgerImports;
+    }
 }
@@ -2,7 +2,9 @@ package com.example.expensetracker.model.debt;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -21,6 +23,12 @@ public class Transaction {
     private String category; // Optional categorization
     private Double balanceAfter;
     
+    // Hash of account, date, type, amount, normalized description and occurrence for ledger imports
+    @Field("import_key")
+    @Indexed(unique = true, sparse = true)
+    private String importKey;
+    private Boolean balanceApplied; // False until the import has added this row to the account balance
+    
     private LocalDateTime createdAt;
     
     public enum TransactionType {
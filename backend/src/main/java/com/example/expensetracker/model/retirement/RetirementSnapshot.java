@@ -25,9 +25,11 @@ public class RetirementSnapshot {
     private Double taxDeferredRate;
     private Double taxableRate;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt; // Absent on snapshots saved before it was tracked
 
     public RetirementSnapshot() {
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = createdAt;
     }
 
     public String getId() {
@@ -141,4 +143,12 @@ public class RetirementSnapshot {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
@@ -0,0 +1,142 @@
+package com.example.expensetracker.model.retirement;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Materialized year-to-date totals for one account type, maintained whenever a
+ * retirement snapshot is written. Per-date entries are kept (keyed by ISO date)
+ * so evaluations for an earlier month of the year can still be answered.
+ */
+@Document(collection = "retirement_ytd_aggregates")
+public class RetirementYtdAggregate {
+
+    @Id
+    private String id; // "<year>:<accountType>"
+
+    private Integer year;
+    private String accountType;
+    private Map<String, Double> contributions = new HashMap<>(); // snapshotDate -> contribution
+    private Map<String, Double> balances = new HashMap<>(); // snapshotDate -> balance
+    private Double totalContributions;
+    private LocalDate yearStartDate;
+    private Double yearStartBalance;
+    private LocalDate lastSnapshotDate;
+    private Double lastBalance;
+    private LocalDateTime updatedAt;
+    private Long revision; // Incremented by every per-date write; guards the derived-field refresh
+
+    public RetirementYtdAggregate() {
+    }
+
+    public RetirementYtdAggregate(int year, String accountType) {
+        this.id = idFor(year, accountType);
+        this.year = year;
+        this.accountType = accountType;
+    }
+
+    public static String idFor(int year, String accountType) {
+        return year + ":" + accountType;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public String getAccountType() {
+        return accountType;
+    }
+
+    public void setAccountType(String accountType) {
+        this.accountType = accountType;
+    }
+
+    public Map<String, Double> getContributions() {
+        return contributions;
+    }
+
+    public void setContributions(Map<String, Double> contributions) {
+        this.contributions = contributions;
+    }
+
+    public Map<String, Double> getBalances() {
+        return balances;
+    }
+
+    public void setBalances(Map<String, Double> balances) {
+        this.balances = balances;
+    }
+
+    public Double getTotalContributions() {
+        return totalContributions;
+    }
+
+    public void setTotalContributions(Double totalContributions) {
+        this.totalContributions = totalContributions;
+    }
+
+    public LocalDate getYearStartDate() {
+        return yearStartDate;
+    }
+
+    public void setYearStartDate(LocalDate yearStartDate) {
+        this.yearStartDate = yearStartDate;
+    }
+
+    public Double getYearStartBalance() {
+        return yearStartBalance;
+    }
+
+    public void setYearStartBalance(Double yearStartBalance) {
+        this.yearStartBalance = yearStartBalance;
+    }
+
+    public LocalDate getLastSnapshotDate() {
+        return lastSnapshotDate;
+    }
+
+    public void setLastSnapshotDate(LocalDate lastSnapshotDate) {
+        this.lastSnapshotDate = lastSnapshotDate;
+    }
+
+    public Double getLastBalance() {
+        return lastBalance;
+    }
+
+    public void setLastBalance(Double lastBalance) {
+        this.lastBalance = lastBalance;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+}
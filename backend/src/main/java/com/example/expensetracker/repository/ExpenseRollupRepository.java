@@ -0,0 +1,18 @@
+package com.example.expensetracker.repository;
+
+import com.example.expensetracker.model.ExpenseRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ExpenseRollupRepository extends MongoRepository<ExpenseRollup, String> {
+
+    @Query(value = "{ 'month': { $gte: ?0, $lte: ?1 } }", sort = "{ 'month': 1, 'category': 1 }")
+    List<ExpenseRollup> findByMonthRange(String fromMonth, String toMonth);
+
+    @Query(value = "{ 'category': ?0, 'month': { $gte: ?1, $lte: ?2 } }", sort = "{ 'month': 1 }")
+    List<ExpenseRollup> findByCategoryAndMonthRange(String category, String fromMonth, String toMonth);
+}
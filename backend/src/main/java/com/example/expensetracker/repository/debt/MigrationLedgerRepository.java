@@ -0,0 +1,9 @@
+package com.example.expensetracker.repository.debt;
+
+import com.example.expensetracker.model.debt.MigrationLedgerEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MigrationLedgerRepository extends MongoRepository<MigrationLedgerEntry, String> {
+}
@@ -0,0 +1,13 @@
+package com.example.expensetracker.repository.retirement;
+
+import com.example.expensetracker.model.retirement.RetirementYtdAggregate;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RetirementYtdAggregateRepository extends MongoRepository<RetirementYtdAggregate, String> {
+
+    List<RetirementYtdAggregate> findByYear(Integer year);
+}
@@ -0,0 +1,219 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.AmortizationSchedule;
+import com.example.expensetracker.dto.MonthlyCashFlow;
+import com.example.expensetracker.model.debt.Account;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Month-by-month amortization for every account of a snapshot. Accounts are
+ * copied into parallel primitive arrays and each month is one pass over them,
+ * so the per-month results sit next to each other in memory and nothing is
+ * boxed until the DTOs are built. A first pass over the balances alone finds
+ * when the last account is paid off, so the arrays hold only those months
+ * rather than the whole requested horizon.
+ */
+@Service
+public class AmortizationEngine {
+
+    public static final int DEFAULT_MONTHS = 360;
+    public static final int MAX_MONTHS = 600;
+
+    // Results in month-major order: index = month * accountCount + account
+    public static final class Schedule {
+        private final List<Account> accounts;
+        private final int accountCount;
+        // Months until the last payoff or the horizon; the arrays are sized to it
+        private final int months;
+        private final double[] payment;
+        private final double[] interest;
+        private final double[] principal;
+        private final double[] balance;
+        // Month index of the final payment, or -1 if not paid off within the horizon
+        private final int[] payoffMonth;
+        private final double[] totalInterest;
+
+        private Schedule(List<Account> accounts, int months) {
+            this.accounts = accounts;
+            this.accountCount = accounts.size();
+            this.months = months;
+            this.payment = new double[months * accountCount];
+            this.interest = new double[months * accountCount];
+            this.principal = new double[months * accountCount];
+            this.balance = new double[months * accountCount];
+            this.payoffMonth = new int[accountCount];
+            this.totalInterest = new double[accountCount];
+        }
+
+        public int getAccountCount() {
+            return accountCount;
+        }
+
+        public int getMonths() {
+            return months;
+        }
+
+        public double payment(int account, int month) {
+            return payment[month * accountCount + account];
+        }
+
+        public double interest(int account, int month) {
+            return interest[month * accountCount + account];
+        }
+
+        public double principal(int account, int month) {
+            return principal[month * accountCount + account];
+        }
+
+        public double balance(int account, int month) {
+            return balance[month * accountCount + account];
+        }
+
+        public int payoffMonth(int account) {
+            return payoffMonth[account];
+        }
+
+        public double totalInterest(int account) {
+            return totalInterest[account];
+        }
+    }
+
+    // Active accounts with a positive balance, run until all are paid off or maxMonths is reached
+    public Schedule run(List<Account> accounts, int maxMonths) {
+        List<Account> active = new ArrayList<>();
+        for (Account account : accounts) {
+            if (account.getStatus() != Account.AccountStatus.PAID_OFF
+                    && account.getCurrentBalance() != null && account.getCurrentBalance() > 0) {
+                active.add(account);
+            }
+        }
+        int n = active.size();
+        int horizon = Math.max(1, Math.min(MAX_MONTHS, maxMonths));
+
+        double[] balances = new double[n];
+        double[] rates = new double[n];
+        double[] payments = new double[n];
+        for (int a = 0; a < n; a++) {
+            Account account = active.get(a);
+            balances[a] = account.getCurrentBalance();
+            rates[a] = (account.getApr() != null ? account.getApr() : 0.0) / 100.0 / 12.0;
+            payments[a] = account.getMonthlyPayment() != null ? account.getMonthlyPayment() : 0.0;
+        }
+
+        Schedule schedule = new Schedule(active, monthsToPayoff(balances, rates, payments, horizon));
+        Arrays.fill(schedule.payoffMonth, -1);
+        for (int m = 0; m < schedule.months; m++) {
+            int row = m * n;
+            for (int a = 0; a < n; a++) {
+                double bal = balances[a];
+                if (bal <= 0) {
+                    continue;
+                }
+                double interest = bal * rates[a];
+                double pay = Math.min(payments[a], bal + interest);
+                double principal = pay - interest; // Negative when the payment does not cover interest
+                bal -= principal;
+                if (bal < 0.005) {
+                    bal = 0;
+                    schedule.payoffMonth[a] = m;
+                }
+                balances[a] = bal;
+                schedule.payment[row + a] = pay;
+                schedule.interest[row + a] = interest;
+                schedule.principal[row + a] = principal;
+                schedule.balance[row + a] = bal;
+                schedule.totalInterest[a] += interest;
+            }
+        }
+        return schedule;
+    }
+
+    // Same month step as run without recording it; 0 when there are no accounts
+    private static int monthsToPayoff(double[] balances, double[] rates, double[] payments, int horizon) {
+        double[] remainingBalance = balances.clone();
+        int remaining = remainingBalance.length;
+        int months = 0;
+        while (months < horizon && remaining > 0) {
+            for (int a = 0; a < remainingBalance.length; a++) {
+                double bal = remainingBalance[a];
+                if (bal <= 0) {
+                    continue;
+                }
+                double interest = bal * rates[a];
+                bal -= Math.min(payments[a], bal + interest) - interest;
+                if (bal < 0.005) {
+                    bal = 0;
+                    remaining--;
+                }
+                remainingBalance[a] = bal;
+            }
+            months++;
+        }
+        return months;
+    }
+
+    public List<AmortizationSchedule> toSchedules(Schedule schedule, LocalDate snapshotDate) {
+        YearMonth start = YearMonth.from(snapshotDate != null ? snapshotDate : LocalDate.now());
+        List<AmortizationSchedule> result = new ArrayList<>(schedule.accountCount);
+        for (int a = 0; a < schedule.accountCount; a++) {
+            Account account = schedule.accounts.get(a);
+            AmortizationSchedule dto = new AmortizationSchedule();
+            dto.setAccountId(account.getAccountId());
+            dto.setName(account.getName());
+            dto.setType(account.getType());
+            dto.setApr(account.getApr());
+            dto.setMonthlyPayment(account.getMonthlyPayment());
+            dto.setStartingBalance(account.getCurrentBalance());
+            dto.setTotalInterest(round(schedule.totalInterest[a]));
+
+            int payoff = schedule.payoffMonth[a];
+            int last = payoff >= 0 ? payoff : schedule.months - 1;
+            if (payoff >= 0) {
+                dto.setMonthsLeft(payoff + 1);
+                dto.setPayoffMonth(start.plusMonths(payoff + 1L).toString());
+            }
+            List<AmortizationSchedule.Row> rows = new ArrayList<>(last + 1);
+            for (int m = 0; m <= last; m++) {
+                rows.add(new AmortizationSchedule.Row(start.plusMonths(m + 1L).toString(),
+                        round(schedule.payment(a, m)), round(schedule.interest(a, m)),
+                        round(schedule.principal(a, m)), round(schedule.balance(a, m))));
+            }
+            dto.setRows(rows);
+            result.add(dto);
+        }
+        return result;
+    }
+
+    // Sums across accounts for each month
+    public List<MonthlyCashFlow> toCashFlow(Schedule schedule, LocalDate snapshotDate) {
+        YearMonth start = YearMonth.from(snapshotDate != null ? snapshotDate : LocalDate.now());
+        int n = schedule.accountCount;
+        List<MonthlyCashFlow> result = new ArrayList<>(schedule.months);
+        for (int m = 0; m < schedule.months; m++) {
+            int row = m * n;
+            double payment = 0;
+            double interest = 0;
+            double principal = 0;
+            double balance = 0;
+            for (int a = 0; a < n; a++) {
+                payment += schedule.payment[row + a];
+                interest += schedule.interest[row + a];
+                principal += schedule.principal[row + a];
+                balance += schedule.balance[row + a];
+            }
+            result.add(new MonthlyCashFlow(start.plusMonths(m + 1L).toString(), round(payment), round(interest),
+                    round(principal), round(balance)));
+        }
+        return result;
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.expensetracker.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unordered bulk inserts for writers that rely on a unique index to make
+ * reruns idempotent: rows the index rejects were written by an earlier or
+ * concurrent run and are skipped instead of failing the batch.
+ */
+final class BulkInserts {
+
+    static final int DUPLICATE_KEY = 11000;
+
+    private BulkInserts() {
+    }
+
+    // Returns the rows that were inserted
+    static <T> List<T> insertSkippingDuplicates(MongoTemplate mongoTemplate, Class<T> type, List<T> rows) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type)
+                    .insert(rows)
+                    .execute();
+            return rows;
+        } catch (BulkOperationException e) {
+            return withoutDuplicates(rows, e);
+        }
+    }
+
+    // The rows a failed unordered insert still wrote; rethrows unless every error is a duplicate key
+    static <T> List<T> withoutDuplicates(List<T> rows, BulkOperationException e) {
+        Set<Integer> rejected = new HashSet<>();
+        for (BulkWriteError error : e.getErrors()) {
+            if (error.getCode() != DUPLICATE_KEY) {
+                throw e;
+            }
+            rejected.add(error.getIndex());
+        }
+        List<T> inserted = new ArrayList<>(rows.size() - rejected.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (!rejected.contains(i)) {
+                inserted.add(rows.get(i));
+            }
+        }
+        return inserted;
+    }
+}
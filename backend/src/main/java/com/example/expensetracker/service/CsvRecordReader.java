@@ -0,0 +1,142 @@
+package com.example.expensetracker.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams RFC 4180 style CSV one record at a time: quoted fields may contain
+ * commas, doubled quotes and line breaks. The first record is taken as the
+ * header and looked up case-insensitively, ignoring spaces and underscores,
+ * so "Account ID", "account_id" and "accountId" name the same column.
+ */
+public class CsvRecordReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> header = new HashMap<>();
+    private List<String> current;
+    private long lineNumber;
+    private long recordLine;
+
+    public CsvRecordReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        List<String> names = readRecord();
+        if (names == null) {
+            throw new IOException("CSV input is empty");
+        }
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1); // Byte order mark written by spreadsheet exports
+            }
+            header.putIfAbsent(normalize(name), i);
+        }
+    }
+
+    // Advances to the next non-blank record; false at end of input
+    public boolean next() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+        } while (record != null && record.size() == 1 && record.get(0).isBlank());
+        current = record;
+        return record != null;
+    }
+
+    public boolean hasColumn(String name) {
+        return header.containsKey(normalize(name));
+    }
+
+    // Trimmed value of the column in the current record, or null when absent or blank
+    public String get(String name) {
+        Integer index = header.get(normalize(name));
+        if (index == null || current == null || index >= current.size()) {
+            return null;
+        }
+        String value = current.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // First of the given columns that has a value
+    public String first(String... names) {
+        for (String name : names) {
+            String value = get(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    // 1-based line on which the current record starts
+    public long getLineNumber() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        recordLine = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                // Line break inside a quoted field
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().replace(" ", "").replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
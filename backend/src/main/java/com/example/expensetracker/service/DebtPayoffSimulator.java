@@ -0,0 +1,293 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.PayoffSimulation;
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.model.debt.Goal.PayoffStrategy;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Steps a snapshot's accounts month by month under a payoff strategy. Every
+ * account gets its minimum payment; whatever is left of the monthly budget
+ * (the extra payment plus minimums freed by accounts already paid off) goes
+ * to the strategy's current target. Promo APRs switch to the post-promo APR
+ * after promoExpires. State lives in primitive arrays so a run is cheap
+ * enough to repeat on every change of the extra-payment amount.
+ */
+@Service
+public class DebtPayoffSimulator {
+
+    public static final int DEFAULT_MONTHS = 360;
+    public static final int MAX_MONTHS = 600;
+    public static final double DEFAULT_POST_PROMO_APR = 24.99;
+    // Hybrid clears any balance the leftover budget pays off within this many months before going by APR
+    private static final int HYBRID_QUICK_WIN_MONTHS = 3;
+    private static final double PAID_OFF_THRESHOLD = 0.005;
+    private static final List<PayoffStrategy> DEFAULT_STRATEGIES = List.of(PayoffStrategy.AVALANCHE,
+            PayoffStrategy.SNOWBALL, PayoffStrategy.HYBRID);
+
+    public PayoffSimulation compare(List<Account> accounts, LocalDate snapshotDate, double extraPayment,
+            double postPromoApr, int maxMonths, List<PayoffStrategy> strategies) {
+        Portfolio portfolio = new Portfolio(accounts, snapshotDate, postPromoApr);
+        int horizon = Math.max(1, Math.min(MAX_MONTHS, maxMonths));
+        double extra = Math.max(0, extraPayment);
+
+        PayoffSimulation simulation = new PayoffSimulation();
+        simulation.setSnapshotDate(portfolio.start.atDay(1).toString());
+        simulation.setExtraMonthlyPayment(round(extra));
+        simulation.setMonthlyBudget(round(portfolio.minimumTotal + extra));
+        simulation.setPostPromoApr(postPromoApr);
+
+        PayoffSimulation.StrategyResult minimumOnly = run(portfolio, null, 0, horizon);
+        simulation.setMinimumOnlyInterest(minimumOnly.getTotalInterest());
+        simulation.setMinimumOnlyMonths(minimumOnly.getMonthsToDebtFree());
+
+        PayoffSimulation.StrategyResult best = null;
+        for (PayoffStrategy strategy : strategies == null || strategies.isEmpty() ? DEFAULT_STRATEGIES : strategies) {
+            PayoffSimulation.StrategyResult result = run(portfolio, strategy, extra, horizon);
+            result.setInterestSaved(round(minimumOnly.getTotalInterest() - result.getTotalInterest()));
+            simulation.getStrategies().add(result);
+            if (best == null || isBetter(result, best)) {
+                best = result;
+            }
+        }
+        simulation.setBestStrategy(best != null ? best.getStrategy() : null);
+        return simulation;
+    }
+
+    public PayoffSimulation.StrategyResult simulate(List<Account> accounts, LocalDate snapshotDate,
+            double extraPayment, double postPromoApr, int maxMonths, PayoffStrategy strategy) {
+        return run(new Portfolio(accounts, snapshotDate, postPromoApr), strategy, Math.max(0, extraPayment),
+                Math.max(1, Math.min(MAX_MONTHS, maxMonths)));
+    }
+
+    // A null strategy pays minimums only and lets freed payments go unused
+    private PayoffSimulation.StrategyResult run(Portfolio p, PayoffStrategy strategy, double extra, int horizon) {
+        int n = p.size;
+        double[] balances = p.balances.clone();
+        double[] interestPaid = new double[n];
+        int[] payoffMonth = new int[n];
+        Arrays.fill(payoffMonth, -1);
+        double budget = p.minimumTotal + extra;
+        double totalInterest = 0;
+        double totalPaid = 0;
+        int remaining = n;
+
+        int month = 0;
+        for (; month < horizon && remaining > 0; month++) {
+            double available = budget;
+            for (int a = 0; a < n; a++) {
+                double balance = balances[a];
+                if (balance <= 0) {
+                    continue;
+                }
+                double interest = balance * p.rate(a, month);
+                balance += interest;
+                double pay = Math.min(p.minimums[a], balance);
+                balances[a] = balance - pay;
+                interestPaid[a] += interest;
+                totalInterest += interest;
+                totalPaid += pay;
+                available -= pay;
+            }
+
+            if (strategy != null) {
+                while (available > PAID_OFF_THRESHOLD) {
+                    int target = target(p, strategy, balances, month, available);
+                    if (target < 0) {
+                        break;
+                    }
+                    double pay = Math.min(available, balances[target]);
+                    balances[target] -= pay;
+                    totalPaid += pay;
+                    available -= pay;
+                    if (balances[target] < PAID_OFF_THRESHOLD) {
+                        balances[target] = 0; // Let the loop move on to the next target
+                    }
+                }
+            }
+
+            for (int a = 0; a < n; a++) {
+                if (payoffMonth[a] < 0 && balances[a] < PAID_OFF_THRESHOLD) {
+                    balances[a] = 0;
+                    payoffMonth[a] = month;
+                    remaining--;
+                }
+            }
+        }
+
+        PayoffSimulation.StrategyResult result = new PayoffSimulation.StrategyResult();
+        result.setStrategy(strategy);
+        result.setTotalInterest(round(totalInterest));
+        result.setTotalPaid(round(totalPaid));
+        if (remaining == 0) {
+            result.setMonthsToDebtFree(month);
+            result.setDebtFreeMonth(p.label(month - 1));
+        }
+
+        List<PayoffSimulation.AccountPayoff> payoffs = new ArrayList<>(n);
+        for (int a = 0; a < n; a++) {
+            Account account = p.accounts.get(a);
+            PayoffSimulation.AccountPayoff payoff = new PayoffSimulation.AccountPayoff();
+            payoff.setAccountId(account.getAccountId());
+            payoff.setName(account.getName());
+            payoff.setStartingBalance(round(p.balances[a]));
+            payoff.setInterestPaid(round(interestPaid[a]));
+            if (payoffMonth[a] >= 0) {
+                payoff.setMonthsToPayoff(payoffMonth[a] + 1);
+                payoff.setPayoffMonth(p.label(payoffMonth[a]));
+            }
+            payoffs.add(payoff);
+        }
+        payoffs.sort(Comparator.comparing(PayoffSimulation.AccountPayoff::getMonthsToPayoff,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        result.setPayoffOrder(payoffs);
+        return result;
+    }
+
+    // Account that receives the leftover budget this month, or -1 when everything is paid off
+    private int target(Portfolio p, PayoffStrategy strategy, double[] balances, int month, double available) {
+        switch (strategy) {
+            case SNOWBALL:
+                return smallestBalance(p, balances, month, Double.MAX_VALUE);
+            case HYBRID:
+                int quickWin = smallestBalance(p, balances, month, available * HYBRID_QUICK_WIN_MONTHS);
+                return quickWin >= 0 ? quickWin : highestRate(p, balances, month);
+            case CUSTOM:
+                for (int a : p.priorityOrder) {
+                    if (balances[a] > 0) {
+                        return a;
+                    }
+                }
+                return -1;
+            case AVALANCHE:
+            default:
+                return highestRate(p, balances, month);
+        }
+    }
+
+    // Ties go to the smaller balance so the freed payment rolls over sooner
+    private int highestRate(Portfolio p, double[] balances, int month) {
+        int best = -1;
+        double bestRate = -1;
+        for (int a = 0; a < p.size; a++) {
+            if (balances[a] <= 0) {
+                continue;
+            }
+            double rate = p.rate(a, month);
+            if (rate > bestRate || (rate == bestRate && balances[a] < balances[best])) {
+                best = a;
+                bestRate = rate;
+            }
+        }
+        return best;
+    }
+
+    // Smallest balance not above the limit; ties go to the higher rate
+    private int smallestBalance(Portfolio p, double[] balances, int month, double limit) {
+        int best = -1;
+        for (int a = 0; a < p.size; a++) {
+            double balance = balances[a];
+            if (balance <= 0 || balance > limit) {
+                continue;
+            }
+            if (best < 0 || balance < balances[best]
+                    || (balance == balances[best] && p.rate(a, month) > p.rate(best, month))) {
+                best = a;
+            }
+        }
+        return best;
+    }
+
+    private boolean isBetter(PayoffSimulation.StrategyResult candidate, PayoffSimulation.StrategyResult current) {
+        int byInterest = Double.compare(candidate.getTotalInterest(), current.getTotalInterest());
+        if (byInterest != 0) {
+            return byInterest < 0;
+        }
+        Integer candidateMonths = candidate.getMonthsToDebtFree();
+        Integer currentMonths = current.getMonthsToDebtFree();
+        return candidateMonths != null && (currentMonths == null || candidateMonths < currentMonths);
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    // Per-account inputs copied out of the Account objects once and shared by every strategy run
+    private static final class Portfolio {
+        private final List<Account> accounts;
+        private final int size;
+        private final YearMonth start;
+        private final double[] balances;
+        private final double[] minimums;
+        private final double[] rates;
+        private final double[] postPromoRates;
+        // First simulated month at the post-promo rate; Integer.MAX_VALUE when there is no promo
+        private final int[] promoEndMonth;
+        private final int[] priorityOrder;
+        private final double minimumTotal;
+
+        private Portfolio(List<Account> source, LocalDate snapshotDate, double postPromoApr) {
+            List<Account> active = new ArrayList<>();
+            for (Account account : source) {
+                if (account.getStatus() != Account.AccountStatus.PAID_OFF
+                        && account.getCurrentBalance() != null && account.getCurrentBalance() > 0) {
+                    active.add(account);
+                }
+            }
+            this.accounts = active;
+            this.size = active.size();
+            this.start = YearMonth.from(snapshotDate != null ? snapshotDate : LocalDate.now());
+            this.balances = new double[size];
+            this.minimums = new double[size];
+            this.rates = new double[size];
+            this.postPromoRates = new double[size];
+            this.promoEndMonth = new int[size];
+
+            double total = 0;
+            for (int a = 0; a < size; a++) {
+                Account account = active.get(a);
+                double apr = account.getApr() != null ? account.getApr() : 0.0;
+                balances[a] = account.getCurrentBalance();
+                minimums[a] = account.getMonthlyPayment() != null ? Math.max(0, account.getMonthlyPayment()) : 0.0;
+                rates[a] = apr / 100.0 / 12.0;
+                postPromoRates[a] = Math.max(apr, postPromoApr) / 100.0 / 12.0;
+                // A promo that already ended is assumed to be reflected in the stored APR
+                long months = account.getPromoExpires() != null
+                        ? ChronoUnit.MONTHS.between(start, YearMonth.from(account.getPromoExpires()))
+                        : -1;
+                // Month m is labelled start + m + 1, so the promo rate still applies in the expiry month
+                promoEndMonth[a] = months >= 0 ? (int) Math.min(Integer.MAX_VALUE, months) : Integer.MAX_VALUE;
+                total += minimums[a];
+            }
+            this.minimumTotal = total;
+
+            // CUSTOM follows the stored priority, unranked accounts last in their original order
+            Integer[] order = new Integer[size];
+            for (int a = 0; a < size; a++) {
+                order[a] = a;
+            }
+            Arrays.sort(order, Comparator.comparing((Integer a) -> active.get(a).getPriority(),
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+            this.priorityOrder = new int[size];
+            for (int a = 0; a < size; a++) {
+                priorityOrder[a] = order[a];
+            }
+        }
+
+        private double rate(int account, int month) {
+            return month >= promoEndMonth[account] ? postPromoRates[account] : rates[account];
+        }
+
+        private String label(int month) {
+            return start.plusMonths(month + 1L).toString();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.DebtSummary;
+import com.example.expensetracker.model.AccountType;
+import com.example.expensetracker.model.DebtAccount;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Totals for the legacy debt_accounts collection, grouped by type inside Mongo
+ * so the summary endpoint never loads the account documents themselves. Type
+ * strings the reading converter does not recognise are grouped as UNKNOWN on
+ * the server, so they count as accounts but never add to the debt totals.
+ */
+@Service
+public class DebtSummaryService {
+
+    // Stored type names that read back as a real type rather than UNKNOWN
+    private static final List<String> KNOWN_TYPES = Arrays.stream(AccountType.values())
+            .filter(type -> type != AccountType.UNKNOWN)
+            .map(Enum::name)
+            .toList();
+
+    private final MongoTemplate mongoTemplate;
+
+    public DebtSummaryService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public DebtSummary summarize(String snapshotDate) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.project("currentBalance")
+                        .and(ConditionalOperators.when(Criteria.where("accountType").in(KNOWN_TYPES))
+                                .thenValueOf("accountType")
+                                .otherwise(AccountType.UNKNOWN.name()))
+                        .as("accountType"),
+                Aggregation.group("accountType")
+                        .count().as("accountCount")
+                        .sum("currentBalance").as("totalBalance"));
+
+        double total = 0.0;
+        double creditCards = 0.0;
+        double personalLoans = 0.0;
+        double autoLoans = 0.0;
+        int accounts = 0;
+
+        for (Document row : mongoTemplate.aggregate(aggregation, DebtAccount.class, Document.class)) {
+            String type = row.getString("_id");
+            Number count = row.get("accountCount", Number.class);
+            Number sum = row.get("totalBalance", Number.class);
+            double balance = sum != null ? sum.doubleValue() : 0.0;
+
+            accounts += count != null ? count.intValue() : 0;
+            if (!AccountType.UNKNOWN.name().equals(type)) {
+                total += balance;
+            }
+            if (AccountType.CREDIT_CARD.name().equals(type)) {
+                creditCards += balance;
+            } else if (AccountType.PERSONAL_LOAN.name().equals(type)) {
+                personalLoans += balance;
+            } else if (AccountType.AUTO_LOAN.name().equals(type)) {
+                autoLoans += balance;
+            }
+        }
+
+        DebtSummary summary = new DebtSummary();
+        summary.setSnapshotDate(snapshotDate);
+        summary.setTotalDebt(total);
+        summary.setCreditCardDebt(creditCards);
+        summary.setPersonalLoanDebt(personalLoans);
+        summary.setAutoLoanDebt(autoLoans);
+        summary.setTotalAccounts(accounts);
+        return summary;
+    }
+}
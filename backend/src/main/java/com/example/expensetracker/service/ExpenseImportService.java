@@ -0,0 +1,515 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.ExpenseImportStatus;
+import com.example.expensetracker.model.Expense;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Imports bank statements (CSV or OFX) as expenses in the background. The
+ * upload is spooled to a temp file and parsed row by row on a worker; rows
+ * are deduplicated against existing expenses and inserted with unordered
+ * bulk inserts, and the job's counters can be polled while it runs.
+ *
+ * A row's identity is a hash of its date, amount, normalized description
+ * and how many identical rows came before it in the same statement, stored
+ * in the unique import_key index. Two identical purchases on one day stay
+ * two rows, while re-importing the statement (or an overlapping one) skips
+ * both. Rows entered by hand have no key, so each day's existing expenses
+ * are loaded once and their keys computed the same way.
+ */
+@Service
+public class ExpenseImportService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ExpenseImportService.class);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 50;
+    private static final int MAX_RETAINED_JOBS = 20;
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("M/d/yyyy"), DateTimeFormatter.ofPattern("M/d/yy"),
+            DateTimeFormatter.BASIC_ISO_DATE);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Card terminal and trace numbers vary between exports of the same transaction
+    private static final Pattern REFERENCE_NUMBER = Pattern.compile("[#*]?\\d{6,}");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^A-Z0-9&]+");
+
+    private final MongoTemplate mongoTemplate;
+    private final ExpenseRollupService expenseRollupService;
+    private final ExecutorService executor;
+    private final Map<String, Job> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+            return size() > MAX_RETAINED_JOBS;
+        }
+    });
+
+    public ExpenseImportService(MongoTemplate mongoTemplate, ExpenseRollupService expenseRollupService) {
+        this.mongoTemplate = mongoTemplate;
+        this.expenseRollupService = expenseRollupService;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "expense-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public enum Format {
+        CSV,
+        OFX
+    }
+
+    // How a statement row becomes an expense; only money going out is imported
+    public static class Options {
+        private final String cardName;
+        private final String defaultCategory;
+        private final boolean expensesNegative; // Single amount column: debits are negative (most bank exports)
+
+        public Options(String cardName, String defaultCategory, boolean expensesNegative) {
+            this.cardName = cardName;
+            this.defaultCategory = defaultCategory;
+            this.expensesNegative = expensesNegative;
+        }
+    }
+
+    public ExpenseImportStatus submit(InputStream input, String fileName, Format format, Options options)
+            throws IOException {
+        Path file = Files.createTempFile("expense-import-", ".tmp");
+        try {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        Job job = new Job(UUID.randomUUID().toString(), fileName, format);
+        jobs.put(job.id, job);
+        executor.submit(() -> run(job, file, options));
+        return job.toStatus();
+    }
+
+    public Optional<ExpenseImportStatus> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::toStatus);
+    }
+
+    // Most recent first
+    public List<ExpenseImportStatus> getRecent() {
+        List<ExpenseImportStatus> statuses = new ArrayList<>();
+        synchronized (jobs) {
+            jobs.values().forEach(job -> statuses.add(job.toStatus()));
+        }
+        Collections.reverse(statuses);
+        return statuses;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job, Path file, Options options) {
+        job.status = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+        try (InputStream input = Files.newInputStream(file)) {
+            Importer importer = new Importer(job, options);
+            if (job.format == Format.OFX) {
+                readOfx(input, importer);
+            } else {
+                readCsv(input, importer, options);
+            }
+            importer.flush();
+            job.status = "SUCCEEDED";
+        } catch (Exception e) {
+            log.error("Expense import {} failed", job.id, e);
+            job.message = e.getMessage();
+            job.status = "FAILED";
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("Could not delete {}", file, e);
+            }
+            log.info("Expense import {} ({}): {} rows, {} inserted, {} duplicates, {} skipped, {} rejected",
+                    job.id, job.status, job.rowsRead.get(), job.inserted.get(), job.duplicates.get(),
+                    job.skipped.get(), job.rejected.get());
+        }
+    }
+
+    private void readCsv(InputStream input, Importer importer, Options options) throws IOException {
+        try (CsvRecordReader csv = new CsvRecordReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            boolean debitCredit = csv.hasColumn("debit") || csv.hasColumn("withdrawal");
+            while (csv.next()) {
+                long line = csv.getLineNumber();
+                importer.job.rowsRead.incrementAndGet();
+                String dateText = csv.first("date", "transactionDate", "postedDate", "postingDate", "transDate");
+                LocalDate date = parseDate(dateText);
+                if (date == null) {
+                    importer.reject(line, dateText == null ? "Missing date" : "Invalid date " + dateText);
+                    continue;
+                }
+
+                BigDecimal outflow;
+                if (debitCredit) {
+                    String debit = csv.first("debit", "withdrawal", "withdrawals");
+                    String credit = csv.first("credit", "deposit", "deposits");
+                    BigDecimal debitAmount = parseAmount(debit);
+                    BigDecimal creditAmount = parseAmount(credit);
+                    if ((debit != null && debitAmount == null) || (credit != null && creditAmount == null)) {
+                        importer.reject(line, "Invalid amount " + (debit != null ? debit : credit));
+                        continue;
+                    }
+                    outflow = debitAmount != null ? debitAmount.abs()
+                            : creditAmount != null ? creditAmount.abs().negate() : BigDecimal.ZERO;
+                } else {
+                    String amountText = csv.get("amount");
+                    BigDecimal amount = parseAmount(amountText);
+                    if (amount == null) {
+                        importer.reject(line, amountText == null ? "Missing amount" : "Invalid amount " + amountText);
+                        continue;
+                    }
+                    outflow = options.expensesNegative ? amount.negate() : amount;
+                }
+
+                importer.accept(line, date, outflow,
+                        csv.first("description", "payee", "name", "memo", "details"),
+                        csv.get("category"), csv.first("card", "cardName"));
+            }
+        }
+    }
+
+    // Pulls STMTTRN blocks out of OFX 1.x (SGML, unclosed tags) or 2.x (XML) without building a tree
+    private void readOfx(InputStream input, Importer importer) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, String> transaction = null;
+            String element = null;
+            StringBuilder text = new StringBuilder();
+            StringBuilder tag = new StringBuilder();
+            long count = 0;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c != '<') {
+                    text.append((char) c);
+                    continue;
+                }
+                if (transaction != null && element != null && !text.toString().isBlank()) {
+                    transaction.putIfAbsent(element, text.toString().trim());
+                }
+                text.setLength(0);
+                tag.setLength(0);
+                while ((c = reader.read()) != -1 && c != '>') {
+                    tag.append((char) c);
+                }
+                String name = tag.toString().trim().toUpperCase(Locale.ROOT);
+                if (name.equals("STMTTRN")) {
+                    transaction = new HashMap<>();
+                    element = null;
+                } else if (name.equals("/STMTTRN")) {
+                    if (transaction != null) {
+                        importer.job.rowsRead.incrementAndGet();
+                        acceptOfx(++count, transaction, importer);
+                    }
+                    transaction = null;
+                    element = null;
+                } else {
+                    element = name.startsWith("/") ? null : name;
+                }
+            }
+        }
+    }
+
+    private void acceptOfx(long index, Map<String, String> transaction, Importer importer) {
+        String posted = transaction.get("DTPOSTED");
+        LocalDate date = posted != null && posted.length() >= 8 ? parseDate(posted.substring(0, 8)) : null;
+        if (date == null) {
+            importer.reject(index, posted == null ? "Missing DTPOSTED" : "Invalid DTPOSTED " + posted);
+            return;
+        }
+        BigDecimal amount = parseAmount(transaction.get("TRNAMT"));
+        if (amount == null) {
+            importer.reject(index, "Invalid TRNAMT " + transaction.get("TRNAMT"));
+            return;
+        }
+        String description = transaction.get("NAME") != null ? transaction.get("NAME") : transaction.get("MEMO");
+        // OFX always signs debits negative
+        importer.accept(index, date, amount.negate(), description, null, null);
+    }
+
+    private LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (DateTimeParseException ignored) {
+                // Try the next format
+            }
+        }
+        return null;
+    }
+
+    // Accepts "1,234.56", "$12.00" and accounting negatives like "(12.00)"
+    private BigDecimal parseAmount(String value) {
+        if (value == null) {
+            return null;
+        }
+        String cleaned = value.replace(",", "").replace("$", "").trim();
+        boolean negative = cleaned.startsWith("(") && cleaned.endsWith(")");
+        if (negative) {
+            cleaned = cleaned.substring(1, cleaned.length() - 1);
+        }
+        try {
+            BigDecimal amount = new BigDecimal(cleaned);
+            return negative ? amount.negate() : amount;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Display form: single spaces, trimmed
+    static String cleanDescription(String description) {
+        return description == null ? "" : WHITESPACE.matcher(description).replaceAll(" ").trim();
+    }
+
+    // Matching form: upper case, reference numbers and punctuation removed
+    static String normalizeDescription(String description) {
+        String upper = cleanDescription(description).toUpperCase(Locale.ROOT);
+        String withoutReferences = REFERENCE_NUMBER.matcher(upper).replaceAll(" ");
+        return NON_ALPHANUMERIC.matcher(withoutReferences).replaceAll(" ").trim();
+    }
+
+    // Parses happen on the job's worker thread; flushes dedupe and insert one batch at a time
+    private final class Importer {
+        private final Job job;
+        private final Options options;
+        private final ImportKeys keys = new ImportKeys();
+        private final List<PendingRow> pending = new ArrayList<>(BATCH_SIZE);
+        private final Set<LocalDate> loadedDates = new HashSet<>();
+
+        private Importer(Job job, Options options) {
+            this.job = job;
+            this.options = options;
+        }
+
+        private void accept(long line, LocalDate date, BigDecimal outflow, String description, String category,
+                String cardName) {
+            if (outflow.signum() <= 0) {
+                job.skipped.incrementAndGet();
+                return;
+            }
+            String cleaned = cleanDescription(description);
+            if (cleaned.isEmpty()) {
+                reject(line, "Missing description");
+                return;
+            }
+            PendingRow row = new PendingRow();
+            row.date = date;
+            row.amount = outflow.setScale(2, RoundingMode.HALF_UP);
+            row.description = cleaned;
+            row.category = category != null ? category : options.defaultCategory;
+            row.cardName = cardName != null ? cardName : options.cardName;
+            pending.add(row);
+            if (pending.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void reject(long line, String message) {
+            job.rejected.incrementAndGet();
+            synchronized (job.errors) {
+                if (job.errors.size() < MAX_REPORTED_ERRORS) {
+                    job.errors.add("Line " + line + ": " + message);
+                }
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            loadExisting(pending);
+
+            List<Expense> batch = new ArrayList<>(pending.size());
+            for (PendingRow row : pending) {
+                String key = keys.claim(row.date, row.amount, row.description);
+                if (key == null) {
+                    job.duplicates.incrementAndGet();
+                    continue;
+                }
+                Expense expense = new Expense();
+                expense.setDate(row.date);
+                expense.setAmount(row.amount);
+                expense.setDescription(row.description);
+                expense.setCategory(row.category);
+                expense.setCardName(row.cardName);
+                expense.setImportKey(key);
+                batch.add(expense);
+            }
+            pending.clear();
+            insert(batch);
+        }
+
+        // Keys of every expense already stored on dates this batch touches, each date read once per job
+        private void loadExisting(List<PendingRow> rows) {
+            Set<LocalDate> dates = new HashSet<>();
+            for (PendingRow row : rows) {
+                if (loadedDates.add(row.date)) {
+                    dates.add(row.date);
+                }
+            }
+            if (dates.isEmpty()) {
+                return;
+            }
+            Query query = new Query(Criteria.where("date").in(dates)).with(Sort.by("_id"));
+            query.fields().include("date").include("amount").include("description").include("importKey");
+            mongoTemplate.find(query, Expense.class).forEach(keys::addExisting);
+        }
+
+        private void insert(List<Expense> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Expense> inserted = BulkInserts.insertSkippingDuplicates(mongoTemplate, Expense.class, batch);
+            job.inserted.addAndGet(inserted.size());
+            job.duplicates.addAndGet(batch.size() - inserted.size()); // A concurrent import won the unique index
+            expenseRollupService.onCreated(inserted);
+        }
+    }
+
+    /**
+     * Import keys already taken. A row's key hashes its date, amount and
+     * normalized description with its occurrence among equal rows, so a
+     * statement listing the same purchase twice keeps both while a re-import
+     * matches each row to the key it got the first time. Stored rows without
+     * a key (entered by hand) are keyed the same way, in _id order.
+     */
+    static final class ImportKeys {
+        private final MessageDigest digest;
+        private final Set<String> taken = new HashSet<>();
+        // Occurrences so far of each date|amount|description, within this statement and among hand-entered rows
+        private final Map<String, Integer> statementOccurrences = new HashMap<>();
+        private final Map<String, Integer> existingOccurrences = new HashMap<>();
+
+        ImportKeys() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        void addExisting(Expense expense) {
+            if (expense.getImportKey() != null) {
+                taken.add(expense.getImportKey());
+            } else if (expense.getDate() != null && expense.getAmount() != null) {
+                String identity = identity(expense.getDate(),
+                        expense.getAmount().setScale(2, RoundingMode.HALF_UP), expense.getDescription());
+                int occurrence = existingOccurrences.merge(identity, 1, Integer::sum) - 1;
+                taken.add(importKey(identity, occurrence));
+            }
+        }
+
+        // Key for the next statement row, or null when that row is already stored
+        String claim(LocalDate date, BigDecimal amount, String description) {
+            String identity = identity(date, amount, description);
+            int occurrence = statementOccurrences.merge(identity, 1, Integer::sum) - 1;
+            String key = importKey(identity, occurrence);
+            return taken.add(key) ? key : null;
+        }
+
+        private String identity(LocalDate date, BigDecimal amount, String description) {
+            return date + "|" + amount.toPlainString() + "|" + normalizeDescription(description);
+        }
+
+        private String importKey(String identity, int occurrence) {
+            byte[] hash = digest.digest((identity + "#" + occurrence).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        }
+    }
+
+    private static final class PendingRow {
+        private LocalDate date;
+        private BigDecimal amount;
+        private String description;
+        private String category;
+        private String cardName;
+    }
+
+    // Live counters of one import, read by status requests while the worker updates them
+    private static final class Job {
+        private final String id;
+        private final String fileName;
+        private final Format format;
+        private volatile String status = "QUEUED";
+        private volatile String message;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong inserted = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<String> errors = new ArrayList<>();
+
+        private Job(String id, String fileName, Format format) {
+            this.id = id;
+            this.fileName = fileName;
+            this.format = format;
+        }
+
+        private ExpenseImportStatus toStatus() {
+            ExpenseImportStatus status = new ExpenseImportStatus();
+            status.setJobId(id);
+            status.setFileName(fileName);
+            status.setFormat(format.name());
+            status.setStatus(this.status);
+            status.setMessage(message);
+            status.setRowsRead(rowsRead.get());
+            status.setInserted(inserted.get());
+            status.setDuplicates(duplicates.get());
+            status.setSkipped(skipped.get());
+            status.setRejected(rejected.get());
+            synchronized (errors) {
+                status.setErrors(new ArrayList<>(errors));
+            }
+            LocalDateTime started = startedAt;
+            LocalDateTime finished = finishedAt;
+            status.setStartedAt(started);
+            status.setFinishedAt(finished);
+            if (started != null) {
+                status.setElapsedMs(
+                        Duration.between(started, finished != null ? finished : LocalDateTime.now()).toMillis());
+            }
+            return status;
+        }
+    }
+}
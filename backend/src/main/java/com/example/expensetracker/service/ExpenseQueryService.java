@@ -0,0 +1,124 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.ExpensePage;
+import com.example.expensetracker.model.Expense;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-paginated and cursor-streamed reads over expenses, newest first.
+ * Pages are ordered by (date desc, id desc) so each page is an index range
+ * scan starting after the last row of the previous page.
+ */
+@Service
+public class ExpenseQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final Sort ORDER = Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"));
+
+    private final MongoTemplate mongoTemplate;
+
+    public ExpenseQueryService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public ExpensePage page(String category, LocalDate from, LocalDate to, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        Query query = filterQuery(category, from, to);
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(afterCursor(cursor));
+        }
+        query.with(ORDER).limit(pageSize + 1);
+
+        List<Expense> rows = new ArrayList<>(mongoTemplate.find(query, Expense.class));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? encodeCursor(rows.get(rows.size() - 1)) : null;
+        return new ExpensePage(rows, nextCursor, hasMore);
+    }
+
+    // Caller must close the stream; it holds an open Mongo cursor
+    public Stream<Expense> stream(String category, LocalDate from, LocalDate to) {
+        Query query = filterQuery(category, from, to).with(ORDER);
+        return mongoTemplate.stream(query, Expense.class);
+    }
+
+    // Natural order, matching the legacy findAll() listing
+    public Stream<Expense> streamAll() {
+        return mongoTemplate.stream(new Query(), Expense.class);
+    }
+
+    private Query filterQuery(String category, LocalDate from, LocalDate to) {
+        Query query = new Query();
+        if (category != null && !category.isBlank()) {
+            query.addCriteria(Criteria.where("category").is(category));
+        }
+        if (from != null || to != null) {
+            Criteria date = Criteria.where("date");
+            if (from != null) {
+                date = date.gte(from);
+            }
+            if (to != null) {
+                date = date.lte(to);
+            }
+            query.addCriteria(date);
+        }
+        return query;
+    }
+
+    static Criteria afterCursor(String cursor) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        int separator = decoded.indexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        Object id = idValue(decoded.substring(separator + 1));
+        if (separator == 0) {
+            // Undated expenses sort after every dated one
+            return new Criteria().andOperator(Criteria.where("date").is(null), Criteria.where("id").lt(id));
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.parse(decoded.substring(0, separator));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+
+        return new Criteria().orOperator(
+                Criteria.where("date").lt(date),
+                new Criteria().andOperator(Criteria.where("date").is(date), Criteria.where("id").lt(id)),
+                Criteria.where("date").is(null));
+    }
+
+    // The mapper only converts ids to ObjectId for equality; $lt against a string would match no stored id
+    private static Object idValue(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    static String encodeCursor(Expense last) {
+        String raw = (last.getDate() != null ? last.getDate().toString() : "") + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
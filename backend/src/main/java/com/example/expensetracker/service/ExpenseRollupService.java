@@ -0,0 +1,219 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.MonthlyExpenseTotal;
+import com.example.expensetracker.model.Expense;
+import com.example.expensetracker.model.ExpenseRollup;
+import com.example.expensetracker.repository.ExpenseRollupRepository;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Maintains month x category expense buckets (count, sum, min, max).
+ * Writes are single atomic upserts ($inc on count and sum, $min/$max on the
+ * extremes); min and max are only recomputed from the bucket's own expenses
+ * when a deleted amount was one of the extremes.
+ */
+@Service
+public class ExpenseRollupService {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ExpenseRollupService.class);
+
+    public static final String UNCATEGORIZED = "Uncategorized";
+
+    private final ExpenseRollupRepository rollupRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public ExpenseRollupService(ExpenseRollupRepository rollupRepository, MongoTemplate mongoTemplate) {
+        this.rollupRepository = rollupRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public void onCreated(Expense expense) {
+        if (!isBucketable(expense)) {
+            return;
+        }
+        ExpenseRollup delta = new ExpenseRollup(monthOf(expense), categoryOf(expense));
+        add(delta, expense.getAmount());
+        mongoTemplate.upsert(byId(delta.getId()), merge(delta, LocalDateTime.now()), ExpenseRollup.class);
+    }
+
+    public void onCreated(Collection<Expense> expenses) {
+        // Fold the batch per bucket first so each bucket gets one upsert
+        Map<String, ExpenseRollup> deltas = new HashMap<>();
+        for (Expense expense : expenses) {
+            if (!isBucketable(expense)) {
+                continue;
+            }
+            String id = ExpenseRollup.idFor(monthOf(expense), categoryOf(expense));
+            ExpenseRollup delta = deltas.computeIfAbsent(id,
+                    key -> new ExpenseRollup(monthOf(expense), categoryOf(expense)));
+            add(delta, expense.getAmount());
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ExpenseRollup.class);
+        deltas.values().forEach(delta -> bulk.upsert(byId(delta.getId()), merge(delta, now)));
+        bulk.execute();
+    }
+
+    public void onUpdated(Expense before, Expense after) {
+        if (before != null) {
+            onDeleted(before);
+        }
+        onCreated(after);
+    }
+
+    public void onDeleted(Expense expense) {
+        if (!isBucketable(expense)) {
+            return;
+        }
+        String month = monthOf(expense);
+        String category = categoryOf(expense);
+        String id = ExpenseRollup.idFor(month, category);
+        BigDecimal amount = expense.getAmount();
+
+        Update update = new Update()
+                .inc("count", -1)
+                .inc("sum", new Decimal128(amount.negate()))
+                .set("updatedAt", LocalDateTime.now());
+        ExpenseRollup rollup = mongoTemplate.findAndModify(byId(id), update,
+                FindAndModifyOptions.options().returnNew(true), ExpenseRollup.class);
+        if (rollup == null) {
+            return;
+        }
+        if (rollup.getCount() <= 0) {
+            // Guarded on count so an expense added since the decrement keeps its bucket
+            mongoTemplate.remove(byId(id).addCriteria(Criteria.where("count").lte(0)), ExpenseRollup.class);
+            return;
+        }
+        boolean wasExtreme = (rollup.getMin() != null && amount.compareTo(rollup.getMin()) <= 0)
+                || (rollup.getMax() != null && amount.compareTo(rollup.getMax()) >= 0);
+        if (wasExtreme) {
+            recomputeExtremes(id, month, category);
+        }
+    }
+
+    public List<ExpenseRollup> getRollups(YearMonth from, YearMonth to, String category) {
+        if (category != null && !category.isBlank()) {
+            return rollupRepository.findByCategoryAndMonthRange(category, from.toString(), to.toString());
+        }
+        return rollupRepository.findByMonthRange(from.toString(), to.toString());
+    }
+
+    public List<MonthlyExpenseTotal> getMonthlyTotals(YearMonth from, YearMonth to) {
+        Map<String, MonthlyExpenseTotal> byMonth = new TreeMap<>();
+        for (ExpenseRollup rollup : rollupRepository.findByMonthRange(from.toString(), to.toString())) {
+            MonthlyExpenseTotal total = byMonth.computeIfAbsent(rollup.getMonth(),
+                    month -> new MonthlyExpenseTotal(month, 0L, BigDecimal.ZERO));
+            total.setCount(total.getCount() + rollup.getCount());
+            total.setTotal(total.getTotal().add(rollup.getSum()));
+        }
+        return new ArrayList<>(byMonth.values());
+    }
+
+    // Drop every bucket and recompute from the expenses collection
+    public synchronized int rebuild() {
+        Map<String, ExpenseRollup> buckets = new HashMap<>();
+        try (Stream<Expense> expenses = mongoTemplate.stream(new Query(), Expense.class)) {
+            expenses.filter(this::isBucketable).forEach(expense -> {
+                String id = ExpenseRollup.idFor(monthOf(expense), categoryOf(expense));
+                ExpenseRollup rollup = buckets.computeIfAbsent(id,
+                        key -> new ExpenseRollup(monthOf(expense), categoryOf(expense)));
+                add(rollup, expense.getAmount());
+            });
+        }
+        LocalDateTime now = LocalDateTime.now();
+        buckets.values().forEach(rollup -> rollup.setUpdatedAt(now));
+        rollupRepository.deleteAll();
+        rollupRepository.saveAll(buckets.values());
+        log.info("Rebuilt {} expense rollup buckets", buckets.size());
+        return buckets.size();
+    }
+
+    private void recomputeExtremes(String id, String month, String category) {
+        YearMonth yearMonth = YearMonth.parse(month);
+        Criteria categoryCriteria = UNCATEGORIZED.equals(category)
+                ? Criteria.where("category").in(null, "", UNCATEGORIZED)
+                : Criteria.where("category").is(category);
+        Query query = new Query(categoryCriteria)
+                .addCriteria(Criteria.where("date").gte(yearMonth.atDay(1)).lte(yearMonth.atEndOfMonth()));
+        query.fields().include("amount");
+
+        BigDecimal min = null;
+        BigDecimal max = null;
+        for (Expense expense : mongoTemplate.find(query, Expense.class)) {
+            BigDecimal amount = expense.getAmount();
+            if (amount == null) {
+                continue;
+            }
+            min = min == null || amount.compareTo(min) < 0 ? amount : min;
+            max = max == null || amount.compareTo(max) > 0 ? amount : max;
+        }
+        Update update = new Update()
+                .set("min", min != null ? new Decimal128(min) : null)
+                .set("max", max != null ? new Decimal128(max) : null);
+        mongoTemplate.updateFirst(byId(id), update, ExpenseRollup.class);
+    }
+
+    // True when buckets written before sum/min/max were stored as Decimal128 are still present
+    public boolean hasLegacyBuckets() {
+        return mongoTemplate.exists(new Query(Criteria.where("sum").type(JsonSchemaObject.Type.STRING)),
+                ExpenseRollup.class);
+    }
+
+    private Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+
+    // Adds a bucket's worth of expenses to the stored bucket, creating it if needed
+    private Update merge(ExpenseRollup delta, LocalDateTime now) {
+        return new Update()
+                .setOnInsert("month", delta.getMonth())
+                .setOnInsert("category", delta.getCategory())
+                .inc("count", delta.getCount())
+                .inc("sum", new Decimal128(delta.getSum()))
+                .min("min", new Decimal128(delta.getMin()))
+                .max("max", new Decimal128(delta.getMax()))
+                .set("updatedAt", now);
+    }
+
+    private void add(ExpenseRollup rollup, BigDecimal amount) {
+        rollup.setCount(rollup.getCount() + 1);
+        rollup.setSum(rollup.getSum().add(amount));
+        if (rollup.getMin() == null || amount.compareTo(rollup.getMin()) < 0) {
+            rollup.setMin(amount);
+        }
+        if (rollup.getMax() == null || amount.compareTo(rollup.getMax()) > 0) {
+            rollup.setMax(amount);
+        }
+    }
+
+    private boolean isBucketable(Expense expense) {
+        return expense != null && expense.getDate() != null && expense.getAmount() != null;
+    }
+
+    private String monthOf(Expense expense) {
+        LocalDate date = expense.getDate();
+        return YearMonth.from(date).toString();
+    }
+
+    private String categoryOf(Expense expense) {
+        String category = expense.getCategory();
+        return category == null || category.isBlank() ? UNCATEGORIZED : category;
+    }
+}
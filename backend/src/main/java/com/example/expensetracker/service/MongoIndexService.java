@@ -0,0 +1,131 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.config.MongoIndexDefinitions;
+import com.example.expensetracker.config.MongoIndexDefinitions.QueryProbe;
+import com.example.expensetracker.config.MongoIndexDefinitions.RequiredIndex;
+import com.example.expensetracker.dto.QueryPlanReport;
+import com.mongodb.client.FindIterable;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates the indexes listed in MongoIndexDefinitions and checks the query
+ * plans of the repository probes.
+ */
+@Service
+public class MongoIndexService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MongoIndexService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public boolean isReachable() {
+        try {
+            mongoTemplate.getDb().runCommand(new Document("ping", 1));
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // ensureIndex is a no-op for an index that already exists with the same spec
+    public void ensureIndexes() {
+        for (RequiredIndex required : MongoIndexDefinitions.REQUIRED_INDEXES) {
+            try {
+                mongoTemplate.indexOps(required.getEntityClass()).ensureIndex(required.getIndex());
+            } catch (Exception e) {
+                log.error("Could not create index {} on {}: {}", required.getName(),
+                        mongoTemplate.getCollectionName(required.getEntityClass()), e.getMessage());
+            }
+        }
+    }
+
+    // Names of required indexes not present, as collection.indexName
+    public List<String> findMissingIndexes() {
+        List<String> missing = new ArrayList<>();
+        for (RequiredIndex required : MongoIndexDefinitions.REQUIRED_INDEXES) {
+            Set<String> existing = new HashSet<>();
+            for (IndexInfo info : mongoTemplate.indexOps(required.getEntityClass()).getIndexInfo()) {
+                existing.add(info.getName());
+            }
+            if (!existing.contains(required.getName())) {
+                missing.add(mongoTemplate.getCollectionName(required.getEntityClass()) + "." + required.getName());
+            }
+        }
+        return missing;
+    }
+
+    public List<QueryPlanReport> explainProbes() {
+        List<QueryPlanReport> reports = new ArrayList<>();
+        for (QueryProbe probe : MongoIndexDefinitions.QUERY_PROBES) {
+            String collection = mongoTemplate.getCollectionName(probe.getEntityClass());
+            QueryPlanReport report = new QueryPlanReport(probe.getName(), collection);
+            try {
+                FindIterable<Document> find = mongoTemplate.getCollection(collection).find(probe.getFilter());
+                if (probe.getSort() != null) {
+                    find = find.sort(probe.getSort());
+                }
+                Document plan = find.explain().get("queryPlanner", Document.class).get("winningPlan", Document.class);
+                report.setWinningStage(plan.getString("stage"));
+                report.setIndexName(findIndexName(plan));
+                report.setCollectionScan(hasStage(plan, "COLLSCAN"));
+            } catch (Exception e) {
+                report.setError(e.getMessage());
+            }
+            reports.add(report);
+        }
+        return reports;
+    }
+
+    private boolean hasStage(Document plan, String stage) {
+        if (stage.equals(plan.getString("stage"))) {
+            return true;
+        }
+        for (Document child : children(plan)) {
+            if (hasStage(child, stage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String findIndexName(Document plan) {
+        if (plan.getString("indexName") != null) {
+            return plan.getString("indexName");
+        }
+        for (Document child : children(plan)) {
+            String name = findIndexName(child);
+            if (name != null) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    // Newer servers wrap the classic plan in queryPlan; stages nest under inputStage(s)
+    private List<Document> children(Document plan) {
+        List<Document> children = new ArrayList<>();
+        for (String key : List.of("queryPlan", "inputStage")) {
+            Document child = plan.get(key, Document.class);
+            if (child != null) {
+                children.add(child);
+            }
+        }
+        List<Document> inputStages = plan.getList("inputStages", Document.class);
+        if (inputStages != null) {
+            children.addAll(inputStages);
+        }
+        return children;
+    }
+}
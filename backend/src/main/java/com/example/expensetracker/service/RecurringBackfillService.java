@@ -0,0 +1,173 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.RecurringBackfillReport;
+import com.example.expensetracker.model.Expense;
+import com.example.expensetracker.model.RecurringExpense;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Generates every occurrence a recurring expense missed between its
+ * lastGenerated month and today, e.g. after the service was down across a
+ * month boundary. Definitions are paged by id and each page is processed on
+ * a worker thread with one bulk insert and one bulk lastGenerated update;
+ * the recurring_key unique index keeps overlapping runs from duplicating rows.
+ */
+@Service
+public class RecurringBackfillService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(RecurringBackfillService.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_BACKFILL_MONTHS = 120;
+    private static final int PARALLELISM = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    @Autowired
+    private RecurringExpenseService recurringExpenseService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public RecurringBackfillReport backfill(LocalDate today, boolean dryRun) {
+        AtomicInteger scanned = new AtomicInteger();
+        AtomicInteger planned = new AtomicInteger();
+        AtomicInteger inserted = new AtomicInteger();
+        AtomicInteger alreadyPresent = new AtomicInteger();
+        Queue<RecurringBackfillReport.Item> items = new ConcurrentLinkedQueue<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM);
+        Deque<Future<?>> inFlight = new ArrayDeque<>();
+        try {
+            String lastId = null;
+            while (true) {
+                List<RecurringExpense> page = mongoTemplate.find(candidateQuery(today, lastId), RecurringExpense.class);
+                if (page.isEmpty()) {
+                    break;
+                }
+                inFlight.add(executor.submit(() -> {
+                    scanned.addAndGet(page.size());
+                    processPage(page, today, dryRun, planned, inserted, alreadyPresent, items);
+                }));
+                // Bound the number of pages held in memory at once
+                while (inFlight.size() >= PARALLELISM * 2) {
+                    await(inFlight.poll());
+                }
+                if (page.size() < BATCH_SIZE) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).getId();
+            }
+            while (!inFlight.isEmpty()) {
+                await(inFlight.poll());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        RecurringBackfillReport report = new RecurringBackfillReport();
+        report.setDryRun(dryRun);
+        report.setDefinitionsScanned(scanned.get());
+        report.setOccurrencesPlanned(planned.get());
+        report.setOccurrencesInserted(inserted.get());
+        report.setOccurrencesAlreadyPresent(alreadyPresent.get());
+        report.setItems(new ArrayList<>(items));
+        log.info("Recurring backfill (dryRun={}): {} definitions, {} planned, {} inserted, {} already present",
+                dryRun, scanned.get(), planned.get(), inserted.get(), alreadyPresent.get());
+        return report;
+    }
+
+    private void processPage(List<RecurringExpense> page, LocalDate today, boolean dryRun, AtomicInteger planned,
+            AtomicInteger inserted, AtomicInteger alreadyPresent, Queue<RecurringBackfillReport.Item> items) {
+        List<Expense> expenses = new ArrayList<>();
+        for (RecurringExpense recurring : page) {
+            List<YearMonth> months = missedMonths(recurring, today);
+            if (months.isEmpty()) {
+                continue;
+            }
+            for (YearMonth month : months) {
+                expenses.add(recurringExpenseService.buildExpense(recurring, month));
+            }
+            items.add(new RecurringBackfillReport.Item(recurring.getId(), recurring.getDescription(),
+                    months.stream().map(YearMonth::toString).collect(Collectors.toList())));
+        }
+        if (expenses.isEmpty()) {
+            return;
+        }
+        planned.addAndGet(expenses.size());
+
+        if (dryRun) {
+            alreadyPresent.addAndGet(existingKeys(expenses).size());
+            return;
+        }
+        int written = recurringExpenseService.insertGenerated(expenses);
+        inserted.addAndGet(written);
+        alreadyPresent.addAndGet(expenses.size() - written);
+        recurringExpenseService.advanceLastGenerated(expenses);
+    }
+
+    // Months after lastGenerated up to the current month if its due day has passed;
+    // a definition that was never generated only gets the current month
+    List<YearMonth> missedMonths(RecurringExpense recurring, LocalDate today) {
+        YearMonth current = YearMonth.from(today);
+        int dueDay = recurring.getDayOfMonth() != null ? recurring.getDayOfMonth() : current.lengthOfMonth();
+        boolean dueThisMonth = today.getDayOfMonth() >= dueDay || today.getDayOfMonth() == current.lengthOfMonth();
+        YearMonth end = dueThisMonth ? current : current.minusMonths(1);
+
+        YearMonth start = recurring.getLastGenerated() != null
+                ? YearMonth.from(recurring.getLastGenerated()).plusMonths(1)
+                : current;
+        if (start.isBefore(end.minusMonths(MAX_BACKFILL_MONTHS - 1))) {
+            start = end.minusMonths(MAX_BACKFILL_MONTHS - 1);
+        }
+
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = start; !month.isAfter(end); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    private Query candidateQuery(LocalDate today, String afterId) {
+        Query query = new Query(Criteria.where("active").is(true))
+                .addCriteria(new Criteria().orOperator(
+                        Criteria.where("lastGenerated").is(null),
+                        Criteria.where("lastGenerated").lt(YearMonth.from(today).atDay(1))));
+        if (afterId != null) {
+            // As an ObjectId: the mapper leaves a string in $gt, which matches no stored id
+            query.addCriteria(Criteria.where("id").gt(ObjectId.isValid(afterId) ? new ObjectId(afterId) : afterId));
+        }
+        return query.with(Sort.by("id")).limit(BATCH_SIZE);
+    }
+
+    private Set<String> existingKeys(List<Expense> expenses) {
+        List<String> keys = expenses.stream().map(Expense::getRecurringKey).collect(Collectors.toList());
+        Query query = new Query(Criteria.where("recurringKey").in(keys));
+        query.fields().include("recurringKey");
+        return mongoTemplate.find(query, Expense.class).stream()
+                .map(Expense::getRecurringKey)
+                .collect(Collectors.toSet());
+    }
+
+    private void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Recurring backfill interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Recurring backfill failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -4,22 +4,41 @@ import com.example.expensetracker.model.Expense;
 import com.example.expensetracker.model.RecurringExpense;
 import com.example.expensetracker.repository.ExpenseRepository;
 import com.example.expensetracker.repository.RecurringExpenseRepository;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class RecurringExpenseService {
 
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(RecurringExpenseService.class);
+
+    // Definitions are read and written in pages of this size to keep memory bounded
+    private static final int BATCH_SIZE = 1000;
+
     @Autowired
     private RecurringExpenseRepository recurringExpenseRepository;
 
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     public List<RecurringExpense> getAllRecurringExpenses() {
         return recurringExpenseRepository.findAll();
     }
@@ -46,25 +65,11 @@ public class RecurringExpenseService {
                     }
                 }
 
-                // Construct date for this month
-                int day = Math.min(recurring.getDayOfMonth(), YearMonth.from(dateContext).lengthOfMonth());
-                LocalDate transactionDate = LocalDate.of(dateContext.getYear(), dateContext.getMonth(), day);
-
-                // If scheduled run, only process if today matches or passed the day (and not
-                // generated yet)
-                // For manual "processNow", we might want to force it if due.
-
-                Expense expense = new Expense();
-                expense.setDescription(recurring.getDescription());
-                expense.setAmount(recurring.getAmount());
-                expense.setCategory(recurring.getCategory());
-                expense.setDate(transactionDate);
-                expense.setIsRecurring(true);
-
-                expenseRepository.save(expense);
+                Expense expense = buildExpense(recurring, YearMonth.from(dateContext));
+                expenseRollupService.onCreated(expenseRepository.save(expense));
 
                 // Update last generated
-                recurring.setLastGenerated(transactionDate);
+                recurring.setLastGenerated(expense.getDate());
                 recurringExpenseRepository.save(recurring);
 
             } catch (Exception e) {
@@ -76,18 +81,104 @@ public class RecurringExpenseService {
 
     @org.springframework.scheduling.annotation.Scheduled(cron = "0 0 2 * * ?") // 2 AM Daily
     public void processDueExpenses() {
-        LocalDate today = LocalDate.now();
-        List<RecurringExpense> all = recurringExpenseRepository.findAll();
-
-        for (RecurringExpense expense : all) {
-            if (Boolean.TRUE.equals(expense.getActive())) {
-                // Check if due day has passed in this month and not generated
-                int dueDay = expense.getDayOfMonth();
-                if (today.getDayOfMonth() >= dueDay) {
-                    createTransactionForMonth(expense, today);
-                }
+        int generated = generateDueExpenses(LocalDate.now());
+        log.info("Recurring expense run generated {} transactions", generated);
+    }
+
+    /**
+     * Generates this month's transaction for every active definition whose due day
+     * has passed and that has not been generated yet. Definitions are paged by id;
+     * each page is one bulk insert plus one bulk lastGenerated update.
+     */
+    public int generateDueExpenses(LocalDate today) {
+        YearMonth month = YearMonth.from(today);
+        int generated = 0;
+        String lastId = null;
+
+        while (true) {
+            Query query = dueQuery(today, lastId).with(Sort.by("id")).limit(BATCH_SIZE);
+            List<RecurringExpense> batch = mongoTemplate.find(query, RecurringExpense.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Expense> expenses = new ArrayList<>(batch.size());
+            for (RecurringExpense recurring : batch) {
+                expenses.add(buildExpense(recurring, month));
+            }
+            generated += insertGenerated(expenses);
+            advanceLastGenerated(expenses);
+
+            if (batch.size() < BATCH_SIZE) {
+                break;
             }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        return generated;
+    }
+
+    // Active, not yet generated this month, and due on or before today
+    private Query dueQuery(LocalDate today, String afterId) {
+        YearMonth month = YearMonth.from(today);
+        Query query = new Query(Criteria.where("active").is(true))
+                .addCriteria(new Criteria().orOperator(
+                        Criteria.where("lastGenerated").is(null),
+                        Criteria.where("lastGenerated").lt(month.atDay(1))));
+        // On the last day of the month, days past the month's length (e.g. 31 in April) are due too
+        if (today.getDayOfMonth() < month.lengthOfMonth()) {
+            query.addCriteria(Criteria.where("dayOfMonth").lte(today.getDayOfMonth()));
+        }
+        if (afterId != null) {
+            // As an ObjectId: the mapper leaves a string in $gt, which matches no stored id
+            query.addCriteria(Criteria.where("id").gt(ObjectId.isValid(afterId) ? new ObjectId(afterId) : afterId));
+        }
+        return query;
+    }
+
+    Expense buildExpense(RecurringExpense recurring, YearMonth month) {
+        int dueDay = recurring.getDayOfMonth() != null ? recurring.getDayOfMonth() : month.lengthOfMonth();
+        int day = Math.min(dueDay, month.lengthOfMonth());
+
+        Expense expense = new Expense();
+        expense.setDescription(recurring.getDescription());
+        expense.setAmount(recurring.getAmount());
+        expense.setCategory(recurring.getCategory());
+        expense.setDate(month.atDay(day));
+        expense.setIsRecurring(true);
+        expense.setRecurringKey(recurringKey(recurring.getId(), month));
+        return expense;
+    }
+
+    static String recurringKey(String recurringExpenseId, YearMonth month) {
+        return recurringExpenseId + ":" + month;
+    }
+
+    /**
+     * Unordered bulk insert. Rows rejected by the unique recurring key were
+     * generated by an earlier run and are skipped; returns the rows inserted.
+     */
+    int insertGenerated(List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return 0;
+        }
+        List<Expense> inserted = BulkInserts.insertSkippingDuplicates(mongoTemplate, Expense.class, expenses);
+        expenseRollupService.onCreated(inserted);
+        return inserted.size();
+    }
+
+    // Moves lastGenerated forward only, so an older occurrence never rewinds it
+    void advanceLastGenerated(List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return;
+        }
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RecurringExpense.class);
+        for (Expense expense : expenses) {
+            String recurringId = expense.getRecurringKey().substring(0, expense.getRecurringKey().lastIndexOf(':'));
+            Query query = new Query(Criteria.where("id").is(recurringId).orOperator(
+                    Criteria.where("lastGenerated").is(null),
+                    Criteria.where("lastGenerated").lt(expense.getDate())));
+            updates.updateOne(query, Update.update("lastGenerated", expense.getDate()));
         }
+        updates.execute();
     }
 
     public RecurringExpense updateRecurringExpense(String id, RecurringExpense updated) {
@@ -0,0 +1,355 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.RetirementPlanRequest;
+import com.example.expensetracker.dto.retirement.AccountBalanceDTO;
+import com.example.expensetracker.dto.retirement.MonteCarloResult;
+import com.example.expensetracker.dto.retirement.MonteCarloResult.AccountOutcome;
+import com.example.expensetracker.dto.retirement.MonteCarloResult.PercentileBand;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Stochastic counterpart to the deterministic glide path in
+ * RetirementPlanningService. Each path draws one lognormal annual return per
+ * account type from a shared market shock plus an account-specific shock,
+ * adds the year's contributions, and records the pre-tax total. The
+ * simulation advances all paths one year at a time, in fixed-size chunks on
+ * the common pool, each chunk with its own SplittableRandom split from the
+ * seed, so results are reproducible for a given seed regardless of
+ * scheduling. Only the current year's totals are held; that year's
+ * percentiles are selected before the next year is simulated.
+ */
+@Service
+public class RetirementMonteCarloService {
+
+    public static final int DEFAULT_PATHS = 10_000;
+    public static final int MAX_PATHS = 100_000;
+    public static final double DEFAULT_VOLATILITY = 0.15;
+
+    private static final int MAX_YEARS = 60;
+    private static final int CHUNK_SIZE = 4096;
+    // Each run already uses the whole common pool, so more concurrent runs only add memory
+    private static final int MAX_CONCURRENT_RUNS = 2;
+    private static final long PERMIT_WAIT_MS = 2_000;
+    // Correlation of each account's return with the shared market shock
+    private static final double MARKET_CORRELATION = 0.9;
+
+    // Defaults match the retirement tracker's tax settings, in percent
+    private static final double DEFAULT_FLAT_TAX_RATE = 20.0;
+    private static final double DEFAULT_TAX_FREE_RATE = 0.0;
+    private static final double DEFAULT_TAX_DEFERRED_RATE = 22.0;
+    private static final double DEFAULT_TAXABLE_RATE = 15.0;
+
+    static final String TAX_FREE = "TAX_FREE";
+    static final String TAX_DEFERRED = "TAX_DEFERRED";
+    static final String TAXABLE = "TAXABLE";
+
+    private final Semaphore runs = new Semaphore(MAX_CONCURRENT_RUNS);
+
+    // Throws IllegalStateException when MAX_CONCURRENT_RUNS simulations are already running
+    public MonteCarloResult simulate(RetirementPlanRequest request, int requestedPaths, Double annualReturn,
+            Double volatility, Long seed) {
+        try {
+            if (!runs.tryAcquire(PERMIT_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Too many simulations running; try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a simulation slot", e);
+        }
+        try {
+            return run(request, requestedPaths, annualReturn, volatility, seed);
+        } finally {
+            runs.release();
+        }
+    }
+
+    private MonteCarloResult run(RetirementPlanRequest request, int requestedPaths, Double annualReturn,
+            Double volatility, Long seed) {
+        long started = System.nanoTime();
+        int paths = Math.max(1, Math.min(MAX_PATHS, requestedPaths));
+        double mean = annualReturn != null ? annualReturn : RetirementPlanningService.ANNUAL_RETURN;
+        double sigma = volatility != null ? Math.max(0.0, volatility) : DEFAULT_VOLATILITY;
+        long rootSeed = seed != null ? seed : System.nanoTime();
+
+        double currentAge = request.getCurrentAge() != null ? request.getCurrentAge()
+                : RetirementPlanningService.START_AGE;
+        double targetAge = request.getTargetRetirementAge() != null ? request.getTargetRetirementAge()
+                : RetirementPlanningService.TARGET_RETIREMENT_AGE;
+        int years = Math.max(1, Math.min(MAX_YEARS, (int) Math.ceil(targetAge - currentAge)));
+        double target = request.getTargetPortfolioValue() != null ? request.getTargetPortfolioValue()
+                : RetirementPlanningService.TARGET_PORTFOLIO_VALUE;
+
+        List<SimAccount> accounts = buildAccounts(request);
+        int accountCount = accounts.size();
+        double[] startBalances = new double[accountCount];
+        double[] annualContributions = new double[accountCount];
+        double[] taxRates = new double[accountCount];
+        boolean[] taxOnGainsOnly = new boolean[accountCount];
+        for (int a = 0; a < accountCount; a++) {
+            SimAccount account = accounts.get(a);
+            startBalances[a] = account.balance;
+            annualContributions[a] = account.monthlyContribution * 12.0;
+            taxRates[a] = account.taxRate / 100.0;
+            taxOnGainsOnly[a] = TAXABLE.equals(account.taxBucket);
+        }
+
+        // Lognormal drift so the arithmetic mean annual return equals mean
+        double logDrift = Math.log1p(mean) - 0.5 * sigma * sigma;
+        double idiosyncratic = Math.sqrt(1.0 - MARKET_CORRELATION * MARKET_CORRELATION);
+
+        // balances[a][p] is account a of path p; only the current year's totals are kept, one row at a time
+        double[][] balances = new double[accountCount][paths];
+        double[] yearTotals = new double[paths];
+        double[] finalAfterTax = new double[paths];
+        for (int a = 0; a < accountCount; a++) {
+            Arrays.fill(balances[a], startBalances[a]);
+        }
+
+        int chunks = (paths + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom root = new SplittableRandom(rootSeed);
+        SplittableRandom[] chunkRandoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            chunkRandoms[c] = root.split();
+        }
+
+        PercentileBand[] bands = new PercentileBand[years + 1];
+        double startTotal = Arrays.stream(startBalances).sum();
+        Arrays.fill(yearTotals, startTotal);
+        bands[0] = band(yearTotals, 0, currentAge);
+        double probabilityOfTarget = 0.0;
+        for (int y = 1; y <= years; y++) {
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                SplittableRandom random = chunkRandoms[c];
+                int end = Math.min(paths, (c + 1) * CHUNK_SIZE);
+                for (int p = c * CHUNK_SIZE; p < end; p++) {
+                    double market = random.nextGaussian();
+                    double total = 0.0;
+                    for (int a = 0; a < accountCount; a++) {
+                        double shock = MARKET_CORRELATION * market + idiosyncratic * random.nextGaussian();
+                        balances[a][p] = balances[a][p] * Math.exp(logDrift + sigma * shock)
+                                + annualContributions[a];
+                        total += balances[a][p];
+                    }
+                    yearTotals[p] = total;
+                }
+            });
+            if (y == years) {
+                // Percentile selection reorders the row, so the probability is taken first
+                probabilityOfTarget = probabilityAtLeast(yearTotals, target);
+            }
+            // The row is rewritten in path order next year, so reordering it here is harmless
+            bands[y] = band(yearTotals, y, currentAge + y);
+        }
+
+        for (int p = 0; p < paths; p++) {
+            double afterTax = 0.0;
+            for (int a = 0; a < accountCount; a++) {
+                double balance = balances[a][p];
+                double taxed = balance;
+                if (taxOnGainsOnly[a]) {
+                    // Only growth above what was put in is taxed in a brokerage account
+                    taxed = Math.max(0.0, balance - (startBalances[a] + annualContributions[a] * years));
+                }
+                afterTax += balance - taxed * taxRates[a];
+            }
+            finalAfterTax[p] = afterTax;
+        }
+
+        MonteCarloResult result = new MonteCarloResult();
+        result.setPaths(paths);
+        result.setYears(years);
+        result.setSeed(rootSeed);
+        result.setAnnualReturn(mean);
+        result.setVolatility(sigma);
+        result.setTargetPortfolioValue(target);
+        result.setProbabilityOfReachingTarget(probabilityOfTarget);
+        result.setProbabilityOfReachingTargetAfterTax(probabilityAtLeast(finalAfterTax, target));
+        result.setBands(new ArrayList<>(Arrays.asList(bands)));
+
+        result.setFinalAfterTax(band(finalAfterTax, years, currentAge + years));
+
+        for (int a = 0; a < accountCount; a++) {
+            SimAccount account = accounts.get(a);
+            AccountOutcome outcome = new AccountOutcome();
+            outcome.setAccountType(account.accountType);
+            outcome.setTaxBucket(account.taxBucket);
+            outcome.setTaxRate(account.taxRate);
+            outcome.setFinalBalance(band(balances[a], years, currentAge + years));
+            result.getAccounts().add(outcome);
+        }
+
+        result.setElapsedMs((System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    // Retirement accounts from the request, or one portfolio-level account for legacy requests
+    private List<SimAccount> buildAccounts(RetirementPlanRequest request) {
+        boolean flat = "flat".equalsIgnoreCase(request.getAfterTaxMode());
+        double flatRate = orDefault(request.getFlatTaxRate(), DEFAULT_FLAT_TAX_RATE);
+
+        List<SimAccount> accounts = new ArrayList<>();
+        if (request.getAccounts() != null && !request.getAccounts().isEmpty()) {
+            for (AccountBalanceDTO dto : request.getAccounts()) {
+                // Education accounts are not part of the retirement total
+                if ("EDUCATION".equalsIgnoreCase(dto.getGoalType())) {
+                    continue;
+                }
+                String bucket = taxBucket(dto.getAccountType());
+                accounts.add(new SimAccount(dto.getAccountType(), bucket,
+                        orDefault(dto.getBalance(), 0.0),
+                        orDefault(dto.getContribution(), 0.0),
+                        flat ? flatRate : bucketRate(request, bucket)));
+            }
+        }
+        if (accounts.isEmpty()) {
+            double balance = orDefault(request.getCurrentTotalInvestedBalance(), 0.0);
+            double contribution = orDefault(request.getActualMonthlyContribution(),
+                    RetirementPlanningService.BASE_MONTHLY_CONTRIBUTION);
+            accounts.add(new SimAccount("Portfolio", TAX_DEFERRED, balance, contribution,
+                    flat ? flatRate : bucketRate(request, TAX_DEFERRED)));
+        }
+        return accounts;
+    }
+
+    static String taxBucket(String accountType) {
+        String type = accountType != null ? accountType.toLowerCase() : "";
+        if (type.contains("roth") || type.contains("hsa") || type.contains("529")) {
+            return TAX_FREE;
+        }
+        if (type.contains("brokerage") || type.contains("taxable")) {
+            return TAXABLE;
+        }
+        // 401k, 403b, traditional IRA and anything unrecognised
+        return TAX_DEFERRED;
+    }
+
+    private double bucketRate(RetirementPlanRequest request, String bucket) {
+        return switch (bucket) {
+            case TAX_FREE -> orDefault(request.getTaxFreeRate(), DEFAULT_TAX_FREE_RATE);
+            case TAXABLE -> orDefault(request.getTaxableRate(), DEFAULT_TAXABLE_RATE);
+            default -> orDefault(request.getTaxDeferredRate(), DEFAULT_TAX_DEFERRED_RATE);
+        };
+    }
+
+    private double probabilityAtLeast(double[] values, double target) {
+        int hits = 0;
+        for (double value : values) {
+            if (value >= target) {
+                hits++;
+            }
+        }
+        return roundPercent(hits * 100.0 / values.length);
+    }
+
+    // Quickselect the quantiles instead of sorting; narrower ranges are reused from the median outwards
+    private PercentileBand band(double[] values, int year, double age) {
+        int last = values.length - 1;
+        int i10 = quantileIndex(0.10, last);
+        int i25 = quantileIndex(0.25, last);
+        int i50 = quantileIndex(0.50, last);
+        int i75 = quantileIndex(0.75, last);
+        int i90 = quantileIndex(0.90, last);
+        select(values, 0, last, i50);
+        select(values, 0, i50, i25);
+        select(values, 0, i25, i10);
+        select(values, i50, last, i75);
+        select(values, i75, last, i90);
+
+        PercentileBand band = new PercentileBand();
+        band.setYear(year);
+        band.setAge(age);
+        band.setP10(roundCurrency(values[i10]));
+        band.setP25(roundCurrency(values[i25]));
+        band.setP50(roundCurrency(values[i50]));
+        band.setP75(roundCurrency(values[i75]));
+        band.setP90(roundCurrency(values[i90]));
+        return band;
+    }
+
+    private int quantileIndex(double quantile, int last) {
+        return (int) Math.round(quantile * last);
+    }
+
+    // Rearranges values[lo..hi] so values[k] holds the element that would be there if the range were sorted
+    static void select(double[] values, int lo, int hi, int k) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            // Median of three as pivot, guarding against already-ordered input
+            if (values[mid] < values[lo]) {
+                swap(values, lo, mid);
+            }
+            if (values[hi] < values[lo]) {
+                swap(values, lo, hi);
+            }
+            if (values[hi] < values[mid]) {
+                swap(values, mid, hi);
+            }
+            double pivot = values[mid];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+
+    private double orDefault(Double value, double fallback) {
+        return value != null ? value : fallback;
+    }
+
+    private double roundCurrency(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private double roundPercent(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static final class SimAccount {
+        private final String accountType;
+        private final String taxBucket;
+        private final double balance;
+        private final double monthlyContribution;
+        private final double taxRate;
+
+        private SimAccount(String accountType, String taxBucket, double balance, double monthlyContribution,
+                double taxRate) {
+            this.accountType = accountType;
+            this.taxBucket = taxBucket;
+            this.balance = balance;
+            this.monthlyContribution = monthlyContribution;
+            this.taxRate = taxRate;
+        }
+    }
+}
@@ -8,28 +8,35 @@ import com.example.expensetracker.dto.retirement.GrowthAttribution;
 import com.example.expensetracker.dto.retirement.YTDSummary;
 import com.example.expensetracker.model.retirement.AccountBalance;
 import com.example.expensetracker.model.retirement.RetirementSnapshot;
+import com.example.expensetracker.model.retirement.RetirementYtdAggregate;
 import com.example.expensetracker.repository.retirement.RetirementSnapshotRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class RetirementPlanningService {
-    private static final double START_AGE = 33.0;
-    private static final double TARGET_RETIREMENT_AGE = 50.0;
+    static final double START_AGE = 33.0;
+    static final double TARGET_RETIREMENT_AGE = 50.0;
     private static final double STARTING_BALANCE = 94000.0;
-    private static final double BASE_MONTHLY_CONTRIBUTION = 2600.0;
-    private static final double TARGET_PORTFOLIO_VALUE = 1_270_000.0;
-    private static final double ANNUAL_RETURN = 0.07;
+    static final double BASE_MONTHLY_CONTRIBUTION = 2600.0;
+    static final double TARGET_PORTFOLIO_VALUE = 1_270_000.0;
+    static final double ANNUAL_RETURN = 0.07;
     private static final double MONTHLY_RATE = ANNUAL_RETURN / 12.0;
 
     private final RetirementSnapshotRepository snapshotRepository;
+    private final RetirementYtdAggregateService ytdAggregateService;
+    private final RetirementSnapshotService retirementSnapshotService;
 
-    public RetirementPlanningService(RetirementSnapshotRepository snapshotRepository) {
+    public RetirementPlanningService(RetirementSnapshotRepository snapshotRepository,
+            RetirementYtdAggregateService ytdAggregateService, RetirementSnapshotService retirementSnapshotService) {
         this.snapshotRepository = snapshotRepository;
+        this.ytdAggregateService = ytdAggregateService;
+        this.retirementSnapshotService = retirementSnapshotService;
     }
 
     public RetirementPlanResponse evaluatePlan(RetirementPlanRequest request) {
@@ -92,13 +99,11 @@ public class RetirementPlanningService {
 
     private void processAccountLevelAnalysis(RetirementPlanRequest request, RetirementPlanResponse response) {
         LocalDate snapshotDate = parseSnapshotDate(request.getMonthYear());
-        LocalDate yearStart = LocalDate.of(snapshotDate.getYear(), 1, 1);
 
-        // Get YTD snapshots
-        List<RetirementSnapshot> ytdSnapshots = snapshotRepository.findByYear(yearStart, snapshotDate.plusDays(1));
-        ytdSnapshots.sort(Comparator.comparing(RetirementSnapshot::getSnapshotDate));
-        boolean hasPriorYtd = ytdSnapshots.stream()
-                .anyMatch(snapshot -> snapshot.getSnapshotDate().isBefore(snapshotDate));
+        // Get YTD aggregates (one document per account type for the year)
+        Map<String, RetirementYtdAggregate> ytdAggregates = ytdAggregateService
+                .getYearAggregates(snapshotDate.getYear());
+        boolean hasPriorYtd = ytdAggregateService.hasSnapshotBefore(ytdAggregates.values(), snapshotDate);
 
         // Get previous snapshot for growth calculation (relative to current snapshot)
         LocalDate previousMonthDate = snapshotDate.minusMonths(1);
@@ -118,8 +123,9 @@ public class RetirementPlanningService {
             double marketGrowth = accountDTO.getBalance() - previousBalance - accountDTO.getContribution();
 
             // Calculate YTD metrics
-            double ytdContributions = calculateYTDContributions(ytdSnapshots, accountDTO.getAccountType());
-            double ytdStartBalance = findYearStartBalance(ytdSnapshots, accountDTO.getAccountType(), previousBalance);
+            RetirementYtdAggregate ytdAggregate = ytdAggregates.get(accountDTO.getAccountType());
+            double ytdContributions = ytdAggregateService.contributionsThrough(ytdAggregate, snapshotDate);
+            double ytdStartBalance = ytdAggregateService.yearStartBalance(ytdAggregate, snapshotDate, previousBalance);
             if (!hasPriorYtd && previousBalance > 0) {
                 // No earlier YTD baseline: fall back to last month's snapshot.
                 ytdContributions = 0.0;
@@ -194,53 +200,6 @@ public class RetirementPlanningService {
                 .orElse(0.0);
     }
 
-    private double calculateYTDContributions(List<RetirementSnapshot> ytdSnapshots, String accountType) {
-        return ytdSnapshots.stream()
-                .flatMap(snapshot -> snapshot.getAccounts().stream())
-                .filter(acc -> acc.getAccountType().equals(accountType))
-                .mapToDouble(acc -> acc.getContribution() != null ? acc.getContribution() : 0.0)
-                .sum();
-    }
-
-    private double calculateYTDGrowth(List<RetirementSnapshot> ytdSnapshots, String accountType,
-            double startingBalance) {
-        if (ytdSnapshots.isEmpty()) {
-            return 0.0;
-        }
-
-        double totalContributions = calculateYTDContributions(ytdSnapshots, accountType);
-        double currentBalance = ytdSnapshots.get(ytdSnapshots.size() - 1).getAccounts().stream()
-                .filter(acc -> acc.getAccountType().equals(accountType))
-                .findFirst()
-                .map(AccountBalance::getBalance)
-                .orElse(0.0);
-
-        return currentBalance - startingBalance - totalContributions;
-    }
-
-    private double findYearStartBalance(List<RetirementSnapshot> ytdSnapshots, String accountType,
-            double fallbackBalance) {
-        if (ytdSnapshots.isEmpty()) {
-            return fallbackBalance;
-        }
-
-        for (RetirementSnapshot snapshot : ytdSnapshots) {
-            if (snapshot.getAccounts() == null) {
-                continue;
-            }
-            Optional<AccountBalance> match = snapshot.getAccounts().stream()
-                    .filter(acc -> acc.getAccountType().equals(accountType))
-                    .findFirst();
-            if (match.isPresent()) {
-                Double balance = match.get().getBalance();
-                if (balance != null) {
-                    return balance;
-                }
-            }
-        }
-        return fallbackBalance;
-    }
-
     private String classifyAccountStatus(double accountGrowthPercent, double portfolioAvgGrowth) {
         if (accountGrowthPercent > portfolioAvgGrowth + 2.0) {
             return "Leading";
@@ -301,20 +260,23 @@ public class RetirementPlanningService {
         if (existing.isPresent()) {
             // Update existing snapshot
             RetirementSnapshot snapshot = existing.get();
+            ytdAggregateService.removeSnapshot(snapshot);
             updateSnapshot(snapshot, request);
-            snapshotRepository.save(snapshot);
+            ytdAggregateService.recordSnapshot(snapshotRepository.save(snapshot));
         } else {
             // Create new snapshot
             RetirementSnapshot snapshot = new RetirementSnapshot();
             snapshot.setSnapshotDate(snapshotDate);
             updateSnapshot(snapshot, request);
-            snapshotRepository.save(snapshot);
+            ytdAggregateService.recordSnapshot(snapshotRepository.save(snapshot));
         }
+        retirementSnapshotService.invalidateTimeline();
     }
 
     private void updateSnapshot(RetirementSnapshot snapshot, RetirementPlanRequest request) {
         snapshot.setCurrentAge(request.getCurrentAge());
         snapshot.setOneTimeAdditions(request.getOneTimeAdditions());
+        snapshot.setUpdatedAt(LocalDateTime.now());
 
         List<AccountBalance> accounts = request.getAccounts().stream()
                 .map(dto -> {
@@ -0,0 +1,227 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.retirement.RetirementTimeline;
+import com.example.expensetracker.model.retirement.AccountBalance;
+import com.example.expensetracker.model.retirement.RetirementSnapshot;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Month-level lookups and cloning for retirement snapshots. Every query is
+ * bounded by the snapshotDate index and the "has a non-zero balance" test runs
+ * inside Mongo, so neither depends on how many years of history are stored.
+ * The chart timeline is built from a three-field projection and cached until
+ * the next snapshot write.
+ */
+@Service
+public class RetirementSnapshotService {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(RetirementSnapshotService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final RetirementYtdAggregateService ytdAggregateService;
+
+    private volatile RetirementTimeline timeline;
+    private final AtomicLong timelineGeneration = new AtomicLong(); // Bumped on every invalidation
+
+    public RetirementSnapshotService(MongoTemplate mongoTemplate, RetirementYtdAggregateService ytdAggregateService) {
+        this.mongoTemplate = mongoTemplate;
+        this.ytdAggregateService = ytdAggregateService;
+    }
+
+    // Newest snapshot with any money in it
+    public Optional<RetirementSnapshot> findLatestNonZero() {
+        Query query = Query.query(nonZero())
+                .with(Sort.by(Sort.Direction.DESC, "snapshotDate"))
+                .limit(1);
+        return Optional.ofNullable(mongoTemplate.findOne(query, RetirementSnapshot.class));
+    }
+
+    // Newest non-zero snapshot dated within the month starting at monthStart
+    public Optional<RetirementSnapshot> findLatestNonZeroInMonth(LocalDate monthStart) {
+        return Optional.ofNullable(mongoTemplate.findOne(latestNonZeroInMonth(monthStart), RetirementSnapshot.class));
+    }
+
+    public RetirementTimeline getTimeline() {
+        RetirementTimeline cached = timeline;
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (this) {
+            if (timeline != null) {
+                return timeline;
+            }
+            long generation = timelineGeneration.get();
+            RetirementTimeline loaded = loadTimeline();
+            // A write that landed while loading may not be in the result; serve it but do not cache it
+            if (generation == timelineGeneration.get()) {
+                timeline = loaded;
+            }
+            return loaded;
+        }
+    }
+
+    // Must be called after any retirement snapshot is written or removed
+    public void invalidateTimeline() {
+        timelineGeneration.incrementAndGet();
+        timeline = null;
+    }
+
+    /**
+     * Copies the newest non-zero snapshot of the source month onto the first
+     * day of the target month. The target document is written with a single
+     * upsert keyed on the unique snapshotDate; other snapshots dated later in
+     * the target month are removed so the month keeps one snapshot.
+     */
+    public RetirementSnapshot cloneMonth(LocalDate sourceStart, LocalDate targetStart) {
+        Query sourceQuery = latestNonZeroInMonth(sourceStart);
+        sourceQuery.fields().exclude("_id").exclude("createdAt");
+        RetirementSnapshot source = mongoTemplate.findOne(sourceQuery, RetirementSnapshot.class);
+        if (source == null) {
+            throw new IllegalArgumentException("No valid non-zero source snapshot found for "
+                    + sourceStart.getYear() + "-" + String.format("%02d", sourceStart.getMonthValue()));
+        }
+
+        RetirementSnapshot target = new RetirementSnapshot();
+        target.setSnapshotDate(targetStart);
+        target.setCurrentAge(source.getCurrentAge());
+        target.setAccounts(cloneAccounts(source.getAccounts()));
+        target.setOneTimeAdditions(source.getOneTimeAdditions());
+        target.setTotalBalance(source.getTotalBalance());
+        target.setTargetPortfolioValue(source.getTargetPortfolioValue());
+        target.setTotalContributions(source.getTotalContributions());
+        target.setAfterTaxMode(source.getAfterTaxMode());
+        target.setFlatTaxRate(source.getFlatTaxRate());
+        target.setTaxFreeRate(source.getTaxFreeRate());
+        target.setTaxDeferredRate(source.getTaxDeferredRate());
+        target.setTaxableRate(source.getTaxableRate());
+        target.setCreatedAt(LocalDateTime.now());
+        target.setUpdatedAt(target.getCreatedAt());
+
+        // The id is chosen here so an insert does not need a read-back to report it
+        ObjectId newId = new ObjectId();
+        Update update = new Update()
+                .set("currentAge", target.getCurrentAge())
+                .set("accounts", target.getAccounts())
+                .set("oneTimeAdditions", target.getOneTimeAdditions())
+                .set("totalBalance", target.getTotalBalance())
+                .set("targetPortfolioValue", target.getTargetPortfolioValue())
+                .set("totalContributions", target.getTotalContributions())
+                .set("afterTaxMode", target.getAfterTaxMode())
+                .set("flatTaxRate", target.getFlatTaxRate())
+                .set("taxFreeRate", target.getTaxFreeRate())
+                .set("taxDeferredRate", target.getTaxDeferredRate())
+                .set("taxableRate", target.getTaxableRate())
+                .set("createdAt", target.getCreatedAt())
+                .set("updatedAt", target.getUpdatedAt())
+                .setOnInsert("_id", newId);
+        RetirementSnapshot previous = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("snapshotDate").is(targetStart)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(false), RetirementSnapshot.class);
+        target.setId(previous != null ? previous.getId() : newId.toHexString());
+
+        List<RetirementSnapshot> stale = mongoTemplate.findAllAndRemove(Query.query(
+                Criteria.where("snapshotDate").gt(targetStart).lt(targetStart.plusMonths(1))),
+                RetirementSnapshot.class);
+
+        if (previous != null) {
+            ytdAggregateService.removeSnapshot(previous);
+        }
+        stale.forEach(ytdAggregateService::removeSnapshot);
+        ytdAggregateService.recordSnapshot(target);
+        invalidateTimeline();
+
+        log.info("Cloned retirement snapshot {} onto {} ({}, {} stale removed)", source.getSnapshotDate(),
+                targetStart, previous != null ? "replaced" : "inserted", stale.size());
+        return target;
+    }
+
+    private RetirementTimeline loadTimeline() {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "snapshotDate"));
+        query.fields().include("snapshotDate").include("totalBalance").include("totalContributions").exclude("_id");
+        List<RetirementSnapshot> rows = mongoTemplate.find(query, RetirementSnapshot.class);
+
+        int n = 0;
+        String[] dates = new String[rows.size()];
+        double[] totals = new double[rows.size()];
+        double[] contributions = new double[rows.size()];
+        for (RetirementSnapshot row : rows) {
+            if (row.getSnapshotDate() == null) {
+                continue;
+            }
+            dates[n] = row.getSnapshotDate().toString();
+            totals[n] = row.getTotalBalance() != null ? row.getTotalBalance() : 0.0;
+            contributions[n] = row.getTotalContributions() != null ? row.getTotalContributions() : 0.0;
+            n++;
+        }
+        if (n < rows.size()) {
+            dates = Arrays.copyOf(dates, n);
+            totals = Arrays.copyOf(totals, n);
+            contributions = Arrays.copyOf(contributions, n);
+        }
+        log.debug("Loaded retirement timeline with {} points", n);
+        return new RetirementTimeline(dates, totals, contributions, versionOf(dates, totals, contributions));
+    }
+
+    // Content hash, so the version is stable across restarts and instances
+    private static String versionOf(String[] dates, double[] totals, double[] contributions) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (int i = 0; i < dates.length; i++) {
+            digest.update((dates[i] + "|" + totals[i] + "|" + contributions[i] + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 8);
+    }
+
+    private Query latestNonZeroInMonth(LocalDate monthStart) {
+        return Query.query(new Criteria().andOperator(
+                        Criteria.where("snapshotDate").gte(monthStart).lt(monthStart.plusMonths(1)),
+                        nonZero()))
+                .with(Sort.by(Sort.Direction.DESC, "snapshotDate"))
+                .limit(1);
+    }
+
+    // Mirrors the old in-memory check: a positive total, positive contributions or any positive account
+    private static Criteria nonZero() {
+        return new Criteria().orOperator(
+                Criteria.where("totalBalance").gt(0),
+                Criteria.where("totalContributions").gt(0),
+                Criteria.where("accounts.balance").gt(0));
+    }
+
+    private static List<AccountBalance> cloneAccounts(List<AccountBalance> accounts) {
+        if (accounts == null) {
+            return null;
+        }
+        return accounts.stream().map(acc -> {
+            AccountBalance copy = new AccountBalance();
+            copy.setAccountType(acc.getAccountType());
+            copy.setGoalType(acc.getGoalType());
+            copy.setBalance(acc.getBalance());
+            copy.setContribution(acc.getContribution());
+            copy.setPreviousBalance(acc.getPreviousBalance());
+            return copy;
+        }).toList();
+    }
+}
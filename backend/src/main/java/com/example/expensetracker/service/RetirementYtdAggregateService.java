@@ -0,0 +1,305 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.retirement.YtdConsistencyReport;
+import com.example.expensetracker.model.retirement.AccountBalance;
+import com.example.expensetracker.model.retirement.RetirementSnapshot;
+import com.example.expensetracker.model.retirement.RetirementYtdAggregate;
+import com.example.expensetracker.repository.retirement.RetirementSnapshotRepository;
+import com.example.expensetracker.repository.retirement.RetirementYtdAggregateRepository;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the per-year, per-account-type YTD aggregates in step with retirement
+ * snapshot writes so plan evaluation does not have to scan the whole year.
+ */
+@Service
+public class RetirementYtdAggregateService {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(RetirementYtdAggregateService.class);
+
+    private static final double TOLERANCE = 0.005;
+
+    private final RetirementYtdAggregateRepository aggregateRepository;
+    private final RetirementSnapshotRepository snapshotRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public RetirementYtdAggregateService(RetirementYtdAggregateRepository aggregateRepository,
+            RetirementSnapshotRepository snapshotRepository, MongoTemplate mongoTemplate) {
+        this.aggregateRepository = aggregateRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public Map<String, RetirementYtdAggregate> getYearAggregates(int year) {
+        Map<String, RetirementYtdAggregate> byType = new HashMap<>();
+        for (RetirementYtdAggregate aggregate : aggregateRepository.findByYear(year)) {
+            byType.put(aggregate.getAccountType(), aggregate);
+        }
+        return byType;
+    }
+
+    public boolean isEmpty() {
+        return aggregateRepository.count() == 0;
+    }
+
+    /**
+     * Apply a saved snapshot to the aggregates of its year. Each account type's
+     * entry for the date is replaced with an atomic upsert, so concurrent
+     * writes for other dates are never lost; the derived totals are then
+     * refreshed from the document the write returned.
+     */
+    public void recordSnapshot(RetirementSnapshot snapshot) {
+        if (snapshot == null || snapshot.getSnapshotDate() == null || snapshot.getAccounts() == null) {
+            return;
+        }
+        int year = snapshot.getSnapshotDate().getYear();
+        String dateKey = snapshot.getSnapshotDate().toString();
+
+        // Same folding as applyAccount: contributions add up, the first balance of a type wins
+        Map<String, RetirementYtdAggregate> byType = new LinkedHashMap<>();
+        for (AccountBalance account : snapshot.getAccounts()) {
+            if (account.getAccountType() != null) {
+                applyAccount(byType.computeIfAbsent(account.getAccountType(),
+                        type -> new RetirementYtdAggregate(year, type)), dateKey, account);
+            }
+        }
+
+        for (RetirementYtdAggregate entry : byType.values()) {
+            Update update = new Update()
+                    .set("contributions." + dateKey, entry.getContributions().get(dateKey))
+                    .inc("revision", 1)
+                    .setOnInsert("year", year)
+                    .setOnInsert("accountType", entry.getAccountType());
+            Double balance = entry.getBalances().get(dateKey);
+            if (balance != null) {
+                update.set("balances." + dateKey, balance);
+            } else {
+                update.unset("balances." + dateKey);
+            }
+            RetirementYtdAggregate written = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(entry.getId())), update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), RetirementYtdAggregate.class);
+            saveDerivedFields(written);
+        }
+    }
+
+    // Withdraw a snapshot that is about to be replaced or has been deleted
+    public void removeSnapshot(RetirementSnapshot snapshot) {
+        if (snapshot == null || snapshot.getSnapshotDate() == null || snapshot.getAccounts() == null) {
+            return;
+        }
+        int year = snapshot.getSnapshotDate().getYear();
+        String dateKey = snapshot.getSnapshotDate().toString();
+
+        Set<String> accountTypes = snapshot.getAccounts().stream()
+                .map(AccountBalance::getAccountType)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        for (String accountType : accountTypes) {
+            RetirementYtdAggregate written = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(RetirementYtdAggregate.idFor(year, accountType))),
+                    new Update().unset("contributions." + dateKey).unset("balances." + dateKey).inc("revision", 1),
+                    FindAndModifyOptions.options().returnNew(true), RetirementYtdAggregate.class);
+            if (written == null) {
+                continue;
+            }
+            if (written.getContributions().isEmpty() && written.getBalances().isEmpty()) {
+                // Only if nothing was recorded for the type since; a later write bumps the revision
+                mongoTemplate.remove(new Query(Criteria.where("_id").is(written.getId())
+                        .and("revision").is(written.getRevision())), RetirementYtdAggregate.class);
+            } else {
+                saveDerivedFields(written);
+            }
+        }
+    }
+
+    /**
+     * Stores the derived fields computed from one write's result. The update
+     * only lands if no other write has touched the aggregate since; when one
+     * has, that writer's result includes this change and it refreshes them.
+     */
+    private void saveDerivedFields(RetirementYtdAggregate aggregate) {
+        refreshDerivedFields(aggregate);
+        Update update = new Update()
+                .set("totalContributions", aggregate.getTotalContributions())
+                .set("yearStartDate", aggregate.getYearStartDate())
+                .set("yearStartBalance", aggregate.getYearStartBalance())
+                .set("lastSnapshotDate", aggregate.getLastSnapshotDate())
+                .set("lastBalance", aggregate.getLastBalance())
+                .set("updatedAt", aggregate.getUpdatedAt());
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(aggregate.getId())
+                .and("revision").is(aggregate.getRevision())), update, RetirementYtdAggregate.class);
+    }
+
+    // Drop every aggregate and recompute from the stored snapshots
+    public int rebuild() {
+        List<RetirementSnapshot> snapshots = snapshotRepository.findAll();
+        Map<String, RetirementYtdAggregate> aggregates = new HashMap<>();
+
+        snapshots.stream()
+                .filter(snapshot -> snapshot.getSnapshotDate() != null && snapshot.getAccounts() != null)
+                .sorted(Comparator.comparing(RetirementSnapshot::getSnapshotDate))
+                .forEach(snapshot -> {
+                    int year = snapshot.getSnapshotDate().getYear();
+                    String dateKey = snapshot.getSnapshotDate().toString();
+                    for (AccountBalance account : snapshot.getAccounts()) {
+                        if (account.getAccountType() == null) {
+                            continue;
+                        }
+                        RetirementYtdAggregate aggregate = aggregates.computeIfAbsent(
+                                RetirementYtdAggregate.idFor(year, account.getAccountType()),
+                                id -> new RetirementYtdAggregate(year, account.getAccountType()));
+                        applyAccount(aggregate, dateKey, account);
+                    }
+                });
+
+        aggregates.values().forEach(this::refreshDerivedFields);
+        aggregateRepository.deleteAll();
+        aggregateRepository.saveAll(aggregates.values());
+        log.info("Rebuilt {} retirement YTD aggregates from {} snapshots", aggregates.size(), snapshots.size());
+        return aggregates.size();
+    }
+
+    // Compare the stored aggregates against a full scan of the year's snapshots
+    public YtdConsistencyReport verify(int year) {
+        YtdConsistencyReport report = new YtdConsistencyReport(year);
+        List<RetirementSnapshot> snapshots = snapshotRepository.findByYear(LocalDate.of(year, 1, 1),
+                LocalDate.of(year + 1, 1, 1));
+        snapshots.sort(Comparator.comparing(RetirementSnapshot::getSnapshotDate));
+        Map<String, RetirementYtdAggregate> aggregates = getYearAggregates(year);
+
+        Set<String> accountTypes = new TreeSet<>(aggregates.keySet());
+        snapshots.stream()
+                .filter(snapshot -> snapshot.getAccounts() != null)
+                .flatMap(snapshot -> snapshot.getAccounts().stream())
+                .map(AccountBalance::getAccountType)
+                .filter(Objects::nonNull)
+                .forEach(accountTypes::add);
+
+        List<LocalDate> checkpoints = snapshots.stream()
+                .map(RetirementSnapshot::getSnapshotDate)
+                .distinct()
+                .collect(Collectors.toList());
+
+        for (String accountType : accountTypes) {
+            RetirementYtdAggregate aggregate = aggregates.get(accountType);
+            for (LocalDate checkpoint : checkpoints) {
+                List<RetirementSnapshot> throughCheckpoint = snapshots.stream()
+                        .filter(snapshot -> !snapshot.getSnapshotDate().isAfter(checkpoint))
+                        .collect(Collectors.toList());
+
+                double expectedContributions = scanContributions(throughCheckpoint, accountType);
+                double actualContributions = contributionsThrough(aggregate, checkpoint);
+                if (Math.abs(expectedContributions - actualContributions) > TOLERANCE) {
+                    report.getMismatches().add(String.format("%s contributions through %s: expected %.2f, stored %.2f",
+                            accountType, checkpoint, expectedContributions, actualContributions));
+                }
+
+                double expectedStart = scanYearStartBalance(throughCheckpoint, accountType, 0.0);
+                double actualStart = yearStartBalance(aggregate, checkpoint, 0.0);
+                if (Math.abs(expectedStart - actualStart) > TOLERANCE) {
+                    report.getMismatches().add(String.format("%s year-start balance through %s: expected %.2f, stored %.2f",
+                            accountType, checkpoint, expectedStart, actualStart));
+                }
+            }
+        }
+
+        report.setAccountTypesChecked(accountTypes.size());
+        return report;
+    }
+
+    public double contributionsThrough(RetirementYtdAggregate aggregate, LocalDate date) {
+        if (aggregate == null) {
+            return 0.0;
+        }
+        if (aggregate.getLastSnapshotDate() != null && !date.isBefore(aggregate.getLastSnapshotDate())) {
+            return aggregate.getTotalContributions() != null ? aggregate.getTotalContributions() : 0.0;
+        }
+        String dateKey = date.toString();
+        return aggregate.getContributions().entrySet().stream()
+                .filter(entry -> entry.getKey().compareTo(dateKey) <= 0)
+                .mapToDouble(entry -> entry.getValue() != null ? entry.getValue() : 0.0)
+                .sum();
+    }
+
+    public double yearStartBalance(RetirementYtdAggregate aggregate, LocalDate date, double fallbackBalance) {
+        if (aggregate == null || aggregate.getYearStartDate() == null
+                || aggregate.getYearStartDate().isAfter(date)) {
+            return fallbackBalance;
+        }
+        return aggregate.getYearStartBalance();
+    }
+
+    public boolean hasSnapshotBefore(Collection<RetirementYtdAggregate> aggregates, LocalDate date) {
+        String dateKey = date.toString();
+        return aggregates.stream()
+                .flatMap(aggregate -> aggregate.getContributions().keySet().stream())
+                .anyMatch(key -> key.compareTo(dateKey) < 0);
+    }
+
+    private void applyAccount(RetirementYtdAggregate aggregate, String dateKey, AccountBalance account) {
+        double contribution = account.getContribution() != null ? account.getContribution() : 0.0;
+        aggregate.getContributions().merge(dateKey, contribution, Double::sum);
+        if (account.getBalance() != null) {
+            aggregate.getBalances().putIfAbsent(dateKey, account.getBalance());
+        }
+    }
+
+    private void refreshDerivedFields(RetirementYtdAggregate aggregate) {
+        aggregate.setTotalContributions(aggregate.getContributions().values().stream()
+                .mapToDouble(value -> value != null ? value : 0.0)
+                .sum());
+
+        TreeMap<String, Double> balances = new TreeMap<>(aggregate.getBalances());
+        if (balances.isEmpty()) {
+            aggregate.setYearStartDate(null);
+            aggregate.setYearStartBalance(null);
+            aggregate.setLastBalance(null);
+        } else {
+            aggregate.setYearStartDate(LocalDate.parse(balances.firstKey()));
+            aggregate.setYearStartBalance(balances.firstEntry().getValue());
+            aggregate.setLastBalance(balances.lastEntry().getValue());
+        }
+
+        aggregate.setLastSnapshotDate(aggregate.getContributions().keySet().stream()
+                .max(Comparator.naturalOrder())
+                .map(LocalDate::parse)
+                .orElse(null));
+        aggregate.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private double scanContributions(List<RetirementSnapshot> snapshots, String accountType) {
+        return snapshots.stream()
+                .filter(snapshot -> snapshot.getAccounts() != null)
+                .flatMap(snapshot -> snapshot.getAccounts().stream())
+                .filter(acc -> accountType.equals(acc.getAccountType()))
+                .mapToDouble(acc -> acc.getContribution() != null ? acc.getContribution() : 0.0)
+                .sum();
+    }
+
+    private double scanYearStartBalance(List<RetirementSnapshot> snapshots, String accountType,
+            double fallbackBalance) {
+        for (RetirementSnapshot snapshot : snapshots) {
+            if (snapshot.getAccounts() == null) {
+                continue;
+            }
+            Optional<AccountBalance> match = snapshot.getAccounts().stream()
+                    .filter(acc -> accountType.equals(acc.getAccountType()))
+                    .findFirst();
+            if (match.isPresent() && match.get().getBalance() != null) {
+                return match.get().getBalance();
+            }
+        }
+        return fallbackBalance;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.DebtSummary;
+import com.example.expensetracker.model.AccountType;
+import com.example.expensetracker.model.DebtAccount;
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.model.debt.Snapshot;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
+
+/**
+ * Computes every snapshot total in a single pass over the accounts.
+ * Accumulates into primitive fields only, so it can also be fed from a
+ * streamed repository cursor without materializing the list.
+ */
+public final class SnapshotAggregator {
+
+    private double totalDebt;
+    private double creditCardDebt;
+    private double personalLoanDebt;
+    private double autoLoanDebt;
+    private double totalMonthlyPayment;
+    private double totalMonthlyInterest;
+    private int totalAccounts;
+    private int activeAccounts;
+    private int paidOffAccounts;
+
+    public static SnapshotAggregator ofAccounts(Iterable<Account> accounts) {
+        SnapshotAggregator aggregator = new SnapshotAggregator();
+        if (accounts instanceof List<Account> list && accounts instanceof RandomAccess) {
+            for (int i = 0, n = list.size(); i < n; i++) {
+                aggregator.add(list.get(i));
+            }
+        } else {
+            for (Iterator<Account> it = accounts.iterator(); it.hasNext();) {
+                aggregator.add(it.next());
+            }
+        }
+        return aggregator;
+    }
+
+    public static SnapshotAggregator ofAccounts(Stream<Account> accounts) {
+        SnapshotAggregator aggregator = new SnapshotAggregator();
+        accounts.forEach(aggregator::add);
+        return aggregator;
+    }
+
+    public static SnapshotAggregator ofDebtAccounts(Iterable<DebtAccount> accounts) {
+        SnapshotAggregator aggregator = new SnapshotAggregator();
+        if (accounts instanceof List<DebtAccount> list && accounts instanceof RandomAccess) {
+            for (int i = 0, n = list.size(); i < n; i++) {
+                aggregator.add(list.get(i));
+            }
+        } else {
+            for (Iterator<DebtAccount> it = accounts.iterator(); it.hasNext();) {
+                aggregator.add(it.next());
+            }
+        }
+        return aggregator;
+    }
+
+    public static SnapshotAggregator ofDebtAccounts(Stream<DebtAccount> accounts) {
+        SnapshotAggregator aggregator = new SnapshotAggregator();
+        accounts.forEach(aggregator::add);
+        return aggregator;
+    }
+
+    public SnapshotAggregator add(Account account) {
+        totalAccounts++;
+        Account.AccountStatus status = account.getStatus();
+        if (status == Account.AccountStatus.PAID_OFF) {
+            paidOffAccounts++;
+            return this;
+        }
+        if (status != Account.AccountStatus.ACTIVE) {
+            return this;
+        }
+
+        activeAccounts++;
+        double balance = account.getCurrentBalance() != null ? account.getCurrentBalance() : 0.0;
+        Account.AccountType type = account.getType();
+        if (type != Account.AccountType.UNKNOWN) {
+            totalDebt += balance;
+        }
+        if (type == Account.AccountType.CREDIT_CARD) {
+            creditCardDebt += balance;
+        } else if (type == Account.AccountType.PERSONAL_LOAN) {
+            personalLoanDebt += balance;
+        } else if (type == Account.AccountType.AUTO_LOAN) {
+            autoLoanDebt += balance;
+        }
+        if (account.getMonthlyPayment() != null) {
+            totalMonthlyPayment += account.getMonthlyPayment();
+        }
+        if (account.getApr() != null) {
+            totalMonthlyInterest += (balance * account.getApr()) / 100 / 12;
+        }
+        return this;
+    }
+
+    // Legacy debt accounts carry no status, so every one of them counts as active
+    public SnapshotAggregator add(DebtAccount account) {
+        totalAccounts++;
+        activeAccounts++;
+        double balance = account.getCurrentBalance() != null ? account.getCurrentBalance() : 0.0;
+        AccountType type = account.getAccountType();
+        if (type != AccountType.UNKNOWN) {
+            totalDebt += balance;
+        }
+        if (type == AccountType.CREDIT_CARD) {
+            creditCardDebt += balance;
+        } else if (type == AccountType.PERSONAL_LOAN) {
+            personalLoanDebt += balance;
+        } else if (type == AccountType.AUTO_LOAN) {
+            autoLoanDebt += balance;
+        }
+        if (account.getMonthlyPayment() != null) {
+            totalMonthlyPayment += account.getMonthlyPayment();
+        }
+        if (account.getApr() != null) {
+            totalMonthlyInterest += (balance * account.getApr()) / 100 / 12;
+        }
+        return this;
+    }
+
+    public void applyTo(Snapshot snapshot) {
+        snapshot.setTotalDebt(totalDebt);
+        snapshot.setCreditCardDebt(creditCardDebt);
+        snapshot.setPersonalLoanDebt(personalLoanDebt);
+        snapshot.setAutoLoanDebt(autoLoanDebt);
+        snapshot.setTotalAccounts(totalAccounts);
+        snapshot.setActiveAccounts(activeAccounts);
+        snapshot.setPaidOffAccounts(paidOffAccounts);
+        snapshot.setTotalMonthlyPayment(totalMonthlyPayment);
+        snapshot.setTotalMonthlyInterest(totalMonthlyInterest);
+    }
+
+    public void applyTo(DebtSummary summary) {
+        summary.setTotalDebt(totalDebt);
+        summary.setCreditCardDebt(creditCardDebt);
+        summary.setPersonalLoanDebt(personalLoanDebt);
+        summary.setAutoLoanDebt(autoLoanDebt);
+        summary.setTotalAccounts(totalAccounts);
+    }
+
+    public double getTotalDebt() {
+        return totalDebt;
+    }
+
+    public double getCreditCardDebt() {
+        return creditCardDebt;
+    }
+
+    public double getPersonalLoanDebt() {
+        return personalLoanDebt;
+    }
+
+    public double getAutoLoanDebt() {
+        return autoLoanDebt;
+    }
+
+    public double getTotalMonthlyPayment() {
+        return totalMonthlyPayment;
+    }
+
+    public double getTotalMonthlyInterest() {
+        return totalMonthlyInterest;
+    }
+
+    public int getTotalAccounts() {
+        return totalAccounts;
+    }
+
+    public int getActiveAccounts() {
+        return activeAccounts;
+    }
+
+    public int getPaidOffAccounts() {
+        return paidOffAccounts;
+    }
+}
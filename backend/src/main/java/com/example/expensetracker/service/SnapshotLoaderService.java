@@ -1,102 +1,232 @@
 package com.example.expensetracker.service;
 
+import com.example.expensetracker.dto.DebtSummary;
+import com.example.expensetracker.dto.SnapshotCacheStats;
 import com.example.expensetracker.model.DebtAccount;
 import com.example.expensetracker.model.AccountType;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.service.debt.SnapshotFileParser;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class SnapshotLoaderService {
 
+    // Bounds for the parsed-snapshot cache; weight is the raw JSON size in bytes
+    private static final int MAX_CACHED_FILES = 32;
+    private static final long MAX_CACHED_BYTES = 8L * 1024 * 1024;
+
+    private final SnapshotFileParser snapshotFileParser;
+
+    // Access-ordered so iteration starts at the least recently used entry; cache and cachedBytes are guarded by cache
+    private final LinkedHashMap<String, CachedSnapshot> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes = 0;
+
+    // Striped by file name so a file is read and parsed once while most other files load in parallel;
+    // a fixed set, since file names come from callers and a lock per name would never be freed
+    private static final int LOAD_LOCK_STRIPES = 16;
+    private final Object[] loadLocks = new Object[LOAD_LOCK_STRIPES];
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SnapshotLoaderService(SnapshotFileParser snapshotFileParser) {
+        this.snapshotFileParser = snapshotFileParser;
+        for (int i = 0; i < loadLocks.length; i++) {
+            loadLocks[i] = new Object();
+        }
+    }
+
     public List<DebtAccount> loadSnapshotFromFile(String fileName) throws Exception {
-        List<DebtAccount> accounts = new ArrayList<>();
-
-        ObjectMapper mapper = new ObjectMapper();
-        InputStream inputStream = new ClassPathResource(fileName).getInputStream();
-        JsonNode root = mapper.readTree(inputStream);
-
-        // Load Credit Cards
-        JsonNode creditCards = root.get("creditCards").get("accounts");
-        for (JsonNode card : creditCards) {
-            DebtAccount account = new DebtAccount();
-            account.setName(card.get("name").asText());
-            account.setAccountType(AccountType.CREDIT_CARD);
-            account.setAccountType(AccountType.CREDIT_CARD);
-            account.setCurrentBalance(card.get("balance").asDouble());
-
-            if (card.has("apr")) {
-                account.setApr(card.get("apr").asDouble());
-            }
+        return load(fileName).accounts;
+    }
 
-            if (card.has("creditLimit")) {
-                account.setCreditLimit(card.get("creditLimit").asDouble());
-            } else if (card.has("limit")) {
-                account.setCreditLimit(card.get("limit").asDouble());
-            } else {
-                account.setCreditLimit(1000.0); // default credit limit
-            }
+    public String getSnapshotDate(String fileName) throws Exception {
+        return load(fileName).summary.getSnapshotDate();
+    }
 
-            account.setNotes(card.get("notes").asText());
+    public DebtSummary getSnapshotSummary(String fileName) throws Exception {
+        return load(fileName).summary;
+    }
 
-            if (card.has("monthlyPayment")) {
-                account.setMonthlyPayment(card.get("monthlyPayment").asDouble());
-            }
+    public SnapshotCacheStats getCacheStats() {
+        SnapshotCacheStats stats = new SnapshotCacheStats();
+        synchronized (cache) {
+            stats.setEntries(cache.size());
+            stats.setCachedBytes(cachedBytes);
+        }
+        stats.setHits(hits.get());
+        stats.setMisses(misses.get());
+        stats.setEvictions(evictions.get());
+        return stats;
+    }
 
-            if (card.has("promoExpires")) {
-                account.setPromoExpirationDate(LocalDate.parse(card.get("promoExpires").asText()));
-            }
+    private CachedSnapshot load(String fileName) throws Exception {
+        ClassPathResource resource = new ClassPathResource(fileName);
+        String fingerprint = fingerprint(resource);
 
-            accounts.add(account);
+        CachedSnapshot cached = cached(fileName, fingerprint);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
         }
 
-        // Load Personal Loans
-        JsonNode personalLoans = root.get("personalLoans").get("accounts");
-        for (JsonNode loan : personalLoans) {
-            DebtAccount account = new DebtAccount();
-            account.setName(loan.get("name").asText());
-            account.setAccountType(AccountType.PERSONAL_LOAN);
-            account.setCurrentBalance(loan.get("balance").asDouble());
-            if (loan.has("apr")) {
-                account.setApr(loan.get("apr").asDouble());
+        synchronized (loadLocks[Math.floorMod(fileName.hashCode(), LOAD_LOCK_STRIPES)]) {
+            // Another request may have loaded the file while this one waited
+            cached = cached(fileName, fingerprint);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
             }
-            account.setNotes(loan.get("notes").asText());
+            return read(fileName, resource, fingerprint);
+        }
+    }
 
-            if (loan.has("monthlyPayment")) {
-                account.setMonthlyPayment(loan.get("monthlyPayment").asDouble());
-            }
+    // The cached entry if its fingerprint still matches the file; null otherwise
+    private CachedSnapshot cached(String fileName, String fingerprint) {
+        CachedSnapshot cached;
+        synchronized (cache) {
+            cached = cache.get(fileName);
+        }
+        return cached != null && fingerprint != null && fingerprint.equals(cached.fingerprint) ? cached : null;
+    }
 
-            accounts.add(account);
+    // Reads the file outside the cache lock; called with the file's load lock held
+    private CachedSnapshot read(String fileName, ClassPathResource resource, String fingerprint) throws Exception {
+        CachedSnapshot cached;
+        synchronized (cache) {
+            cached = cache.get(fileName);
+        }
+
+        // File metadata changed (or is unavailable): compare content hashes before re-parsing
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        long contentLength;
+        try (InputStream inputStream = new DigestInputStream(resource.getInputStream(), digest)) {
+            contentLength = inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+        if (cached != null && contentHash.equals(cached.contentHash)) {
+            hits.incrementAndGet();
+            cached.fingerprint = fingerprint;
+            return cached;
         }
 
-        // Load Auto Loan
-        if (root.has("autoLoan") && root.get("autoLoan").has("accounts")) {
-            JsonNode autoLoan = root.get("autoLoan").get("accounts").get(0);
-            DebtAccount account = new DebtAccount();
-            account.setName(autoLoan.get("name").asText());
-            account.setAccountType(AccountType.AUTO_LOAN);
-            account.setCurrentBalance(autoLoan.get("balance").asDouble());
-            if (autoLoan.has("apr")) {
-                account.setApr(autoLoan.get("apr").asDouble());
+        misses.incrementAndGet();
+        List<DebtAccount> parsed = new ArrayList<>();
+        String[] snapshotDate = new String[1];
+        try (InputStream inputStream = resource.getInputStream()) {
+            snapshotFileParser.parse(inputStream, new SnapshotFileParser.Listener() {
+                private boolean autoLoanSeen;
+
+                @Override
+                public void snapshotDate(LocalDate date) {
+                    snapshotDate[0] = date.toString();
+                }
+
+                @Override
+                public void account(Account.AccountType type, SnapshotFileParser.Entry entry) {
+                    // Only the first auto loan entry is tracked in this legacy view
+                    if (type == Account.AccountType.AUTO_LOAN) {
+                        if (autoLoanSeen) {
+                            return;
+                        }
+                        autoLoanSeen = true;
+                    }
+                    parsed.add(toDebtAccount(type, entry));
+                }
+            });
+        }
+        List<DebtAccount> accounts = Collections.unmodifiableList(parsed);
+        DebtSummary summary = buildSummary(snapshotDate[0], accounts);
+
+        CachedSnapshot entry = new CachedSnapshot(contentHash, fingerprint, contentLength, accounts, summary);
+        synchronized (cache) {
+            CachedSnapshot replaced = cache.put(fileName, entry);
+            if (replaced != null) {
+                cachedBytes -= replaced.weight;
             }
-            account.setMonthlyPayment(autoLoan.get("monthlyPayment").asDouble());
-            account.setNotes(autoLoan.get("notes").asText());
-            accounts.add(account);
+            cachedBytes += entry.weight;
+            evictIfNeeded(fileName);
         }
+        return entry;
+    }
 
-        return accounts;
+    // Called with the cache lock held
+    private void evictIfNeeded(String keep) {
+        Iterator<Map.Entry<String, CachedSnapshot>> it = cache.entrySet().iterator();
+        while ((cache.size() > MAX_CACHED_FILES || cachedBytes > MAX_CACHED_BYTES) && it.hasNext()) {
+            Map.Entry<String, CachedSnapshot> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            cachedBytes -= eldest.getValue().weight;
+            it.remove();
+            evictions.incrementAndGet();
+        }
     }
 
-    public String getSnapshotDate(String fileName) throws Exception {
-        ObjectMapper mapper = new ObjectMapper();
-        InputStream inputStream = new ClassPathResource(fileName).getInputStream();
-        JsonNode root = mapper.readTree(inputStream);
-        return root.get("snapshotDate").asText();
+    private String fingerprint(ClassPathResource resource) {
+        try {
+            return resource.lastModified() + ":" + resource.contentLength();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private DebtSummary buildSummary(String snapshotDate, List<DebtAccount> accounts) {
+        DebtSummary summary = new DebtSummary();
+        summary.setSnapshotDate(snapshotDate);
+
+        SnapshotAggregator.ofDebtAccounts(accounts).applyTo(summary);
+        return summary;
+    }
+
+    private DebtAccount toDebtAccount(Account.AccountType type, SnapshotFileParser.Entry entry) {
+        DebtAccount account = new DebtAccount();
+        account.setName(entry.getName());
+        account.setAccountType(AccountType.valueOf(type.name()));
+        account.setCurrentBalance(entry.getBalance() != null ? entry.getBalance() : 0.0);
+        account.setApr(entry.getApr());
+        account.setMonthlyPayment(entry.getMonthlyPayment());
+        account.setNotes(entry.getNotes());
+
+        if (type == Account.AccountType.CREDIT_CARD) {
+            // Default credit limit when the file carries neither creditLimit nor limit
+            account.setCreditLimit(entry.getCreditLimit() != null ? entry.getCreditLimit() : 1000.0);
+            account.setPromoExpirationDate(entry.getPromoExpires());
+        }
+        return account;
+    }
+
+    private static class CachedSnapshot {
+        private final String contentHash;
+        private volatile String fingerprint;
+        private final long weight;
+        private final List<DebtAccount> accounts;
+        private final DebtSummary summary;
+
+        private CachedSnapshot(String contentHash, String fingerprint, long weight, List<DebtAccount> accounts,
+                DebtSummary summary) {
+            this.contentHash = contentHash;
+            this.fingerprint = fingerprint;
+            this.weight = weight;
+            this.accounts = accounts;
+            this.summary = summary;
+        }
     }
 }
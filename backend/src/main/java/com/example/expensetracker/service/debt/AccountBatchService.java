@@ -0,0 +1,176 @@
+package com.example.expensetracker.service.debt;
+
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.model.debt.Snapshot;
+import com.example.expensetracker.repository.debt.AccountRepository;
+import com.example.expensetracker.service.DebtStrategyService;
+import com.example.expensetracker.service.SnapshotAggregator;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Unit of work for saving a snapshot's accounts. Loan fields, priorities and
+ * the snapshot totals are all computed in memory first; the accounts are then
+ * written with one ordered bulk request that inserts new rows and $sets only
+ * the fields that differ from the stored ones, followed by a single upsert of
+ * the snapshot totals. Unchanged accounts are not written at all. Fields
+ * owned by ledger ingestion are never taken from the request, which cannot
+ * carry them, so a save keeps its per-account import guard.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccountBatchService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(AccountBatchService.class);
+
+    // Maintained by this class, or by ledger ingestion (@JsonIgnore, so never in a request body),
+    // rather than compared against the request
+    private static final Set<String> UNDIFFED_FIELDS = Set.of("_id", "_class", "createdAt", "updatedAt",
+            "ledgerImports", "ledgerInterest");
+
+    private final AccountRepository accountRepository;
+    private final MongoTemplate mongoTemplate;
+    private final DebtStrategyService debtStrategyService;
+    private final SnapshotService snapshotService;
+
+    /**
+     * Saves the accounts under snapshotDate and recomputes the snapshot from
+     * them. The list is re-ordered by priority and new accounts get their ids
+     * assigned, as with saveAll.
+     */
+    public Snapshot apply(LocalDate snapshotDate, List<Account> accounts) {
+        if (snapshotService.getSnapshotByDate(snapshotDate).isEmpty()) {
+            throw new IllegalArgumentException("Snapshot not found for date: " + snapshotDate);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Account account : accounts) {
+            account.setSnapshotDate(snapshotDate);
+            AccountService.calculateLoanFields(account);
+        }
+        debtStrategyService.calculatePriorities(accounts);
+
+        Snapshot totals = new Snapshot();
+        SnapshotAggregator aggregator = SnapshotAggregator.ofAccounts(accounts);
+        aggregator.applyTo(totals);
+        totals.setPerformanceScore(SnapshotService.calculatePerformanceScore(aggregator.getTotalDebt(),
+                aggregator.getTotalMonthlyPayment(), aggregator.getTotalMonthlyInterest()));
+
+        Map<String, Account> stored = new HashMap<>();
+        for (Account account : accountRepository.findBySnapshotDate(snapshotDate)) {
+            stored.put(account.getId(), account);
+        }
+        // Ids from outside this snapshot are replaced whole; read them so their ledger fields survive
+        Set<String> outside = new HashSet<>();
+        for (Account account : accounts) {
+            if (account.getId() != null && !stored.containsKey(account.getId())) {
+                outside.add(account.getId());
+            }
+        }
+        Map<String, Account> replaced = new HashMap<>();
+        if (!outside.isEmpty()) {
+            accountRepository.findAllById(outside).forEach(account -> replaced.put(account.getId(), account));
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Account.class);
+        int inserts = 0;
+        int updates = 0;
+        for (Account account : accounts) {
+            Account before = account.getId() != null ? stored.get(account.getId()) : null;
+            if (before == null) {
+                account.setCreatedAt(now);
+                account.setUpdatedAt(now);
+                if (account.getId() == null) {
+                    account.setId(new ObjectId().toHexString()); // Known up front so callers see it without a read-back
+                    bulk.insert(account);
+                } else {
+                    // An id from outside this snapshot is overwritten, as saveAll would
+                    Account previous = replaced.get(account.getId());
+                    if (previous != null) {
+                        keepLedgerFields(previous, account);
+                    }
+                    bulk.replaceOne(new Query(Criteria.where("_id").is(account.getId())), account,
+                            FindAndReplaceOptions.options().upsert());
+                }
+                inserts++;
+                continue;
+            }
+            account.setCreatedAt(before.getCreatedAt());
+            Update diff = diff(toDocument(before), toDocument(account));
+            if (diff == null) {
+                continue;
+            }
+            account.setUpdatedAt(now);
+            bulk.updateOne(new Query(Criteria.where("_id").is(account.getId())), diff.set("updatedAt", now));
+            updates++;
+        }
+        if (inserts + updates > 0) {
+            bulk.execute();
+        }
+
+        Update snapshotUpdate = new Update()
+                .set("totalDebt", totals.getTotalDebt())
+                .set("creditCardDebt", totals.getCreditCardDebt())
+                .set("personalLoanDebt", totals.getPersonalLoanDebt())
+                .set("autoLoanDebt", totals.getAutoLoanDebt())
+                .set("totalAccounts", totals.getTotalAccounts())
+                .set("activeAccounts", totals.getActiveAccounts())
+                .set("paidOffAccounts", totals.getPaidOffAccounts())
+                .set("totalMonthlyPayment", totals.getTotalMonthlyPayment())
+                .set("totalMonthlyInterest", totals.getTotalMonthlyInterest())
+                .set("performanceScore", totals.getPerformanceScore())
+                .set("updatedAt", now)
+                .setOnInsert("createdAt", now);
+        Snapshot saved = mongoTemplate.findAndModify(new Query(Criteria.where("snapshotDate").is(snapshotDate)),
+                snapshotUpdate, FindAndModifyOptions.options().upsert(true).returnNew(true), Snapshot.class);
+        snapshotService.snapshotWritten(saved);
+
+        log.debug("Saved {} accounts for snapshot {}: {} inserted, {} updated, {} unchanged", accounts.size(),
+                snapshotDate, inserts, updates, accounts.size() - inserts - updates);
+        return saved;
+    }
+
+    private static void keepLedgerFields(Account from, Account to) {
+        to.setLedgerImports(from.getLedgerImports());
+        to.setLedgerInterest(from.getLedgerInterest());
+    }
+
+    private Document toDocument(Account account) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(account, document);
+        return document;
+    }
+
+    // $set for changed or added fields, $unset for fields that became null; null when nothing changed
+    private static Update diff(Document before, Document after) {
+        Update update = new Update();
+        boolean changed = false;
+        for (Map.Entry<String, Object> field : after.entrySet()) {
+            if (!UNDIFFED_FIELDS.contains(field.getKey())
+                    && !Objects.equals(before.get(field.getKey()), field.getValue())) {
+                update.set(field.getKey(), field.getValue());
+                changed = true;
+            }
+        }
+        for (String key : before.keySet()) {
+            if (!UNDIFFED_FIELDS.contains(key) && !after.containsKey(key)) {
+                update.unset(key);
+                changed = true;
+            }
+        }
+        return changed ? update : null;
+    }
+}
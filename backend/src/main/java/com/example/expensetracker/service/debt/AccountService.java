@@ -1,14 +1,27 @@
 package com.example.expensetracker.service.debt;
 
+import com.example.expensetracker.dto.DebtTotal;
 import com.example.expensetracker.model.debt.Account;
 import com.example.expensetracker.model.debt.Account.AccountStatus;
 import com.example.expensetracker.model.debt.Account.AccountType;
 import com.example.expensetracker.repository.debt.AccountRepository;
 import lombok.RequiredArgsConstructor;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -22,6 +35,14 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
     private final FileSnapshotService fileSnapshotService;
+    private final MongoTemplate mongoTemplate;
+    private final SnapshotVersionService snapshotVersionService;
+
+    // Stored type names that read back as a real type rather than UNKNOWN
+    private static final List<String> KNOWN_TYPES = Arrays.stream(AccountType.values())
+            .filter(type -> type != AccountType.UNKNOWN)
+            .map(Enum::name)
+            .toList();
 
     private boolean isDbAvailable = true;
 
@@ -78,7 +99,7 @@ public class AccountService {
      * Calculate loan fields if they are not provided by the user.
      * Calculates: principalPerMonth, monthsLeft, payoffDate, and notes
      */
-    private void calculateLoanFields(Account account) {
+    static void calculateLoanFields(Account account) {
         // Only calculate for loan types (not credit cards)
         if (account.getType() == AccountType.CREDIT_CARD) {
             return;
@@ -175,7 +196,9 @@ public class AccountService {
 
         account.setCreatedAt(LocalDateTime.now());
         account.setUpdatedAt(LocalDateTime.now());
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        snapshotVersionService.bump(saved.getSnapshotDate());
+        return saved;
     }
 
     public Account updateAccount(String id, Account accountDetails) {
@@ -184,6 +207,7 @@ public class AccountService {
         }
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + id));
+        LocalDate previousSnapshotDate = account.getSnapshotDate();
 
         // Update fields
         account.setName(accountDetails.getName());
@@ -215,7 +239,12 @@ public class AccountService {
         calculateLoanFields(account);
 
         account.setUpdatedAt(LocalDateTime.now());
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        snapshotVersionService.bump(previousSnapshotDate);
+        if (!Objects.equals(previousSnapshotDate, saved.getSnapshotDate())) {
+            snapshotVersionService.bump(saved.getSnapshotDate());
+        }
+        return saved;
     }
 
     /**
@@ -224,17 +253,15 @@ public class AccountService {
     public void ensureDefaultCreditLimits(double defaultLimit) {
         if (!isDbAvailable) return;
         try {
-            List<Account> accounts = accountRepository.findAll();
-            boolean changed = false;
-            for (Account acc : accounts) {
-                if (acc.getType() == AccountType.CREDIT_CARD && (acc.getCreditLimit() == null || acc.getCreditLimit() <= 0)) {
-                    acc.setCreditLimit(defaultLimit);
-                    changed = true;
-                }
-            }
-            if (changed) {
-                accountRepository.saveAll(accounts);
-                log.info("Applied default credit limit (${}) to credit cards missing limits.", defaultLimit);
+            // Single server-side update instead of loading and re-saving every account
+            Query query = new Query(Criteria.where("type").is(AccountType.CREDIT_CARD)
+                    .orOperator(Criteria.where("creditLimit").is(null), Criteria.where("creditLimit").lte(0)));
+            UpdateResult result = mongoTemplate.updateMulti(query, new Update().set("creditLimit", defaultLimit),
+                    Account.class);
+            if (result.getModifiedCount() > 0) {
+                snapshotVersionService.bumpAll();
+                log.info("Applied default credit limit (${}) to {} credit cards missing limits.", defaultLimit,
+                        result.getModifiedCount());
             }
         } catch (Exception e) {
             log.warn("Failed to apply default credit limits: {}", e.getMessage());
@@ -246,23 +273,79 @@ public class AccountService {
         if (!isDbAvailable) {
             throw new IllegalStateException("Cannot delete account in offline mode");
         }
-        accountRepository.deleteById(id);
+        Account removed = mongoTemplate.findAndRemove(new Query(Criteria.where("_id").is(id)), Account.class);
+        if (removed != null) {
+            snapshotVersionService.bump(removed.getSnapshotDate());
+        }
     }
 
     public Double getTotalDebt() {
-        return accountRepository.findByStatus(AccountStatus.ACTIVE)
-                .stream()
-                .mapToDouble(Account::getCurrentBalance)
+        return getDebtTotals().stream()
+                .mapToDouble(DebtTotal::getTotalBalance)
                 .sum();
     }
 
     public Double getTotalDebtByType(AccountType type) {
-        return accountRepository.findByTypeAndStatus(type, AccountStatus.ACTIVE)
-                .stream()
-                .mapToDouble(Account::getCurrentBalance)
+        return getDebtTotals().stream()
+                .filter(total -> type.name().equals(total.getType()))
+                .mapToDouble(DebtTotal::getTotalBalance)
                 .sum();
     }
 
+    /**
+     * Balance totals and account counts of ACTIVE accounts, grouped by type,
+     * across every snapshot. Computed by Mongo so only the group rows cross
+     * the wire; in offline mode every file snapshot is grouped in memory
+     * instead. Types the reading converter would map to UNKNOWN are left out
+     * in both modes, as they are from a snapshot's totalDebt.
+     */
+    public List<DebtTotal> getDebtTotals() {
+        try {
+            if (isDbAvailable) {
+                Aggregation aggregation = Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("status").is(AccountStatus.ACTIVE.name())
+                                .and("type").in(KNOWN_TYPES)),
+                        Aggregation.group("type", "status")
+                                .count().as("accountCount")
+                                .sum("currentBalance").as("totalBalance"));
+                List<DebtTotal> totals = new ArrayList<>();
+                for (Document row : mongoTemplate.aggregate(aggregation, Account.class, Document.class)) {
+                    Document id = row.get("_id", Document.class);
+                    Number count = row.get("accountCount", Number.class);
+                    Number balance = row.get("totalBalance", Number.class);
+                    totals.add(new DebtTotal(
+                            id != null ? id.getString("type") : null,
+                            id != null ? id.getString("status") : null,
+                            count != null ? count.intValue() : 0,
+                            balance != null ? balance.doubleValue() : 0.0));
+                }
+                return totals;
+            }
+        } catch (Exception e) {
+            log.warn("MongoDB unavailable, totalling file snapshot accounts in memory: {}", e.getMessage());
+            isDbAvailable = false;
+        }
+        return groupDebtTotals(fileSnapshotService.getAllAccounts());
+    }
+
+    private List<DebtTotal> groupDebtTotals(List<Account> accounts) {
+        Map<String, DebtTotal> grouped = new LinkedHashMap<>();
+        for (Account account : accounts) {
+            if (account.getStatus() != AccountStatus.ACTIVE || account.getType() == null
+                    || !KNOWN_TYPES.contains(account.getType().name())) {
+                continue;
+            }
+            String type = account.getType().name();
+            String status = account.getStatus().name();
+            DebtTotal total = grouped.computeIfAbsent(type + "|" + status,
+                    key -> new DebtTotal(type, status, 0, 0.0));
+            total.setAccountCount(total.getAccountCount() + 1);
+            total.setTotalBalance(total.getTotalBalance()
+                    + Objects.requireNonNullElse(account.getCurrentBalance(), 0.0));
+        }
+        return new ArrayList<>(grouped.values());
+    }
+
     // Clone accounts from one snapshot date to another
     public List<Account> cloneAccountsForNewSnapshot(LocalDate sourceDate, LocalDate targetDate) {
         // This method is used by backend cloning.
@@ -276,7 +359,7 @@ public class AccountService {
 
         if (!isDbAvailable) {
             // In offline mode, we can return the cloned objects but we can't save them.
-            // The controller calls batchCreateOrUpdate next, which will fail.
+            // The controller hands them to AccountBatchService.apply next, which needs the database.
             // So we can just return the list.
             return sourceAccounts.stream()
                     .map(account -> {
@@ -333,21 +416,4 @@ public class AccountService {
                 .collect(Collectors.toList());
         return newAccounts; // Added return statement for the DB available case
     }
-
-    // Batch create or update accounts
-    public List<Account> batchCreateOrUpdate(List<Account> accounts) {
-        if (!isDbAvailable) {
-            throw new IllegalStateException("Cannot save accounts in offline mode");
-        }
-        LocalDateTime now = LocalDateTime.now();
-
-        accounts.forEach(account -> {
-            if (account.getId() == null) {
-                account.setCreatedAt(now);
-            }
-            account.setUpdatedAt(now);
-        });
-
-        return accountRepository.saveAll(accounts);
-    }
 }
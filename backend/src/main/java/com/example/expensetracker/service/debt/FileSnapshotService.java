@@ -2,178 +2,322 @@ package com.example.expensetracker.service.debt;
 
 import com.example.expensetracker.model.debt.Account;
 import com.example.expensetracker.model.debt.Snapshot;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Read-only view of the debt-snapshot-*.json files, used when Mongo is down.
+ * Files come from the classpath plus an optional external directory
+ * (debt.snapshots.dir) whose files win on a date clash. Readers work against
+ * an immutable index that is rebuilt off to the side and swapped in whole,
+ * and a WatchService on the external directory triggers the rebuild.
+ */
 @Service
 @RequiredArgsConstructor
 public class FileSnapshotService {
 
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(FileSnapshotService.class);
 
-    private final ObjectMapper objectMapper;
+    private final SnapshotFileParser snapshotFileParser;
+    private final SnapshotVersionService snapshotVersionService;
     private static final String SNAPSHOT_PATTERN = "classpath:debt-snapshot-*.json";
+    private static final String SNAPSHOT_GLOB = "debt-snapshot-*.json";
+    // Coalesce the burst of events an editor or copy produces into one reload
+    private static final long RELOAD_DEBOUNCE_MS = 500;
 
-    // Cache to avoid reading files on every request
-    private List<Snapshot> cachedSnapshots = null;
-    private Map<LocalDate, List<Account>> cachedAccounts = new HashMap<>();
+    @Value("${debt.snapshots.dir:}")
+    private String snapshotDir;
+
+    private final AtomicReference<SnapshotIndex> index = new AtomicReference<>();
+
+    // Parsed files keyed by location, reused across reloads while unchanged; guarded by reload()
+    private final Map<String, ParsedFile> parsedFiles = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread watchThread;
 
     public List<Account> getLatestAccounts() {
-        if (cachedSnapshots == null) {
-            loadData();
-        }
-        if (cachedSnapshots.isEmpty())
+        SnapshotIndex current = current();
+        if (current.snapshots.isEmpty())
             return new ArrayList<>();
-        LocalDate latest = cachedSnapshots.get(0).getSnapshotDate();
-        return new ArrayList<>(cachedAccounts.getOrDefault(latest, new ArrayList<>()));
+        return new ArrayList<>(current.accounts.getOrDefault(current.snapshots.lastKey(), List.of()));
     }
 
-    public List<Snapshot> getAllSnapshots() {
-        if (cachedSnapshots == null) {
-            loadData();
+    // Accounts of every file snapshot, oldest snapshot first
+    public List<Account> getAllAccounts() {
+        SnapshotIndex current = current();
+        List<Account> all = new ArrayList<>();
+        for (LocalDate date : current.snapshots.keySet()) {
+            all.addAll(current.accounts.getOrDefault(date, List.of()));
         }
-        return cachedSnapshots;
+        return all;
+    }
+
+    public List<Snapshot> getAllSnapshots() {
+        return new ArrayList<>(current().snapshots.descendingMap().values());
     }
 
     public Optional<Snapshot> getSnapshotByDate(LocalDate date) {
-        if (cachedSnapshots == null) {
-            loadData();
-        }
-        return cachedSnapshots.stream()
-                .filter(s -> s.getSnapshotDate().equals(date))
-                .findFirst();
+        return Optional.ofNullable(current().snapshots.get(date));
     }
 
     public List<Account> getAccountsBySnapshotDate(LocalDate date) {
-        if (cachedSnapshots == null) {
-            loadData();
-        }
-        return cachedAccounts.getOrDefault(date, new ArrayList<>());
+        return new ArrayList<>(current().accounts.getOrDefault(date, List.of()));
     }
 
-    private synchronized void loadData() {
-        if (cachedSnapshots != null)
+    @PostConstruct
+    public void startWatching() {
+        Path dir = externalDir();
+        if (dir == null) {
+            return;
+        }
+        try {
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            log.warn("Could not watch snapshot directory {}: {}", dir, e.getMessage());
             return;
+        }
+        watchThread = new Thread(this::watchLoop, "snapshot-dir-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        log.info("Watching {} for snapshot file changes", dir);
+    }
 
-        cachedSnapshots = new ArrayList<>();
-        cachedAccounts = new HashMap<>();
+    @PreDestroy
+    public void stopWatching() {
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Error closing snapshot watch service", e);
+            }
+        }
+    }
 
+    // Rebuild the index from the current files and publish it; readers keep the old one until then
+    public synchronized void reload() {
+        Map<String, Resource> sources = new LinkedHashMap<>();
         try {
-            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-            Resource[] resources = resolver.getResources(SNAPSHOT_PATTERN);
-
-            for (Resource resource : resources) {
-                try {
-                    // Read JSON into a Map first to extract data manually
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> data = objectMapper.readValue(resource.getInputStream(),
-                            new TypeReference<Map<String, Object>>() {
-                            });
-
-                    String dateStr = (String) data.get("snapshotDate");
-                    LocalDate date = LocalDate.parse(dateStr);
-
-                    // Create Snapshot object
-                    Snapshot snapshot = new Snapshot();
-                    snapshot.setSnapshotDate(date);
-                    snapshot.setTotalDebt(getDouble(data, "totalDebt"));
-
-                    // Extract Accounts and other totals
-                    List<Account> accounts = new ArrayList<>();
-
-                    // Credit Cards
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> ccData = (Map<String, Object>) data.get("creditCards");
-                    if (ccData != null) {
-                        snapshot.setCreditCardDebt(getDouble(ccData, "total"));
-                        @SuppressWarnings("unchecked")
-                        List<Map<String, Object>> ccAccounts = (List<Map<String, Object>>) ccData.get("accounts");
-                        if (ccAccounts != null) {
-                            for (Map<String, Object> accData : ccAccounts) {
-                                accounts.add(mapAccount(accData, Account.AccountType.CREDIT_CARD, date));
-                            }
-                        }
-                    }
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(SNAPSHOT_PATTERN)) {
+                sources.put(resource.getURL().toString(), resource);
+            }
+        } catch (IOException e) {
+            log.error("Failed to load snapshot resources", e);
+        }
+        Path dir = externalDir();
+        if (dir != null) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SNAPSHOT_GLOB)) {
+                for (Path file : files) {
+                    sources.put(file.toUri().toString(), new FileSystemResource(file));
+                }
+            } catch (IOException e) {
+                log.error("Failed to list snapshot directory {}", dir, e);
+            }
+        }
 
-                    // Personal Loans
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> plData = (Map<String, Object>) data.get("personalLoans");
-                    if (plData != null) {
-                        snapshot.setPersonalLoanDebt(getDouble(plData, "total"));
-                        @SuppressWarnings("unchecked")
-                        List<Map<String, Object>> plAccounts = (List<Map<String, Object>>) plData.get("accounts");
-                        if (plAccounts != null) {
-                            for (Map<String, Object> accData : plAccounts) {
-                                accounts.add(mapAccount(accData, Account.AccountType.PERSONAL_LOAN, date));
-                            }
-                        }
-                    }
+        parsedFiles.keySet().retainAll(sources.keySet());
+        TreeMap<LocalDate, Snapshot> snapshots = new TreeMap<>();
+        Map<LocalDate, List<Account>> accounts = new HashMap<>();
+        for (Map.Entry<String, Resource> source : sources.entrySet()) {
+            ParsedFile parsed = parse(source.getKey(), source.getValue());
+            if (parsed == null) {
+                continue;
+            }
+            // External files are listed after classpath ones, so they replace a bundled file for the same date
+            snapshots.put(parsed.snapshot.getSnapshotDate(), parsed.snapshot);
+            accounts.put(parsed.snapshot.getSnapshotDate(), parsed.accounts);
+        }
+
+        index.set(new SnapshotIndex(snapshots, accounts));
+        // Offline reads are served from this index, so tags handed out for the previous one are stale
+        snapshotVersionService.bumpAll();
+        log.debug("Loaded {} file snapshots", snapshots.size());
+    }
+
+    private SnapshotIndex current() {
+        SnapshotIndex current = index.get();
+        if (current == null) {
+            synchronized (this) {
+                if (index.get() == null) {
+                    reload();
+                }
+                current = index.get();
+            }
+        }
+        return current;
+    }
+
+    private ParsedFile parse(String location, Resource resource) {
+        long lastModified = lastModified(resource);
+        ParsedFile cached = parsedFiles.get(location);
+        if (cached != null && lastModified != 0 && cached.lastModified == lastModified) {
+            return cached;
+        }
+
+        try (InputStream inputStream = resource.getInputStream()) {
+            Snapshot snapshot = new Snapshot();
+            List<Account> accounts = new ArrayList<>();
+            snapshotFileParser.parse(inputStream, new SnapshotFileParser.Listener() {
+                @Override
+                public void snapshotDate(LocalDate snapshotDate) {
+                    snapshot.setSnapshotDate(snapshotDate);
+                }
+
+                @Override
+                public void totalDebt(double totalDebt) {
+                    snapshot.setTotalDebt(totalDebt);
+                }
 
-                    // Auto Loans
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> alData = (Map<String, Object>) data.get("autoLoan");
-                    if (alData != null) {
-                        snapshot.setAutoLoanDebt(getDouble(alData, "total"));
-                        @SuppressWarnings("unchecked")
-                        List<Map<String, Object>> alAccounts = (List<Map<String, Object>>) alData.get("accounts");
-                        if (alAccounts != null) {
-                            for (Map<String, Object> accData : alAccounts) {
-                                accounts.add(mapAccount(accData, Account.AccountType.AUTO_LOAN, date));
-                            }
+                @Override
+                public void categoryTotal(Account.AccountType type, double total) {
+                    switch (type) {
+                        case CREDIT_CARD -> snapshot.setCreditCardDebt(total);
+                        case PERSONAL_LOAN -> snapshot.setPersonalLoanDebt(total);
+                        case AUTO_LOAN -> snapshot.setAutoLoanDebt(total);
+                        default -> {
                         }
                     }
+                }
 
-                    // Calculate other fields
-                    snapshot.setTotalAccounts(accounts.size());
-                    snapshot.setActiveAccounts(
-                            (int) accounts.stream().filter(a -> a.getStatus() == Account.AccountStatus.ACTIVE).count());
+                @Override
+                public void account(Account.AccountType type, SnapshotFileParser.Entry entry) {
+                    accounts.add(mapAccount(entry, type));
+                }
+            });
+
+            LocalDate date = snapshot.getSnapshotDate();
+            if (date == null) {
+                throw new IOException("Missing snapshotDate");
+            }
+            accounts.forEach(account -> account.setSnapshotDate(date));
+
+            // Calculate other fields
+            snapshot.setTotalAccounts(accounts.size());
+            snapshot.setActiveAccounts(
+                    (int) accounts.stream().filter(a -> a.getStatus() == Account.AccountStatus.ACTIVE).count());
+
+            ParsedFile parsed = new ParsedFile(lastModified, snapshot, Collections.unmodifiableList(accounts));
+            parsedFiles.put(location, parsed);
+            return parsed;
+        } catch (Exception e) {
+            log.error("Failed to parse snapshot file: " + resource.getFilename(), e);
+            parsedFiles.remove(location);
+            return null;
+        }
+    }
 
-                    cachedSnapshots.add(snapshot);
-                    cachedAccounts.put(date, accounts);
+    private void watchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                WatchKey key = watchService.take();
+                boolean relevant = false;
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        Object context = event.context();
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || (context instanceof Path file && isSnapshotFile(file))) {
+                            relevant = true;
+                        }
+                    }
+                    key.reset();
+                    key = watchService.poll(RELOAD_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+                } while (key != null);
 
-                } catch (Exception e) {
-                    log.error("Failed to parse snapshot file: " + resource.getFilename(), e);
+                if (relevant) {
+                    log.info("Snapshot directory changed, reloading file snapshots");
+                    reload();
                 }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Snapshot reload failed", e);
             }
+        }
+    }
 
-            // Sort snapshots by date descending
-            cachedSnapshots.sort((a, b) -> b.getSnapshotDate().compareTo(a.getSnapshotDate()));
+    private boolean isSnapshotFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith("debt-snapshot-") && name.endsWith(".json");
+    }
+
+    private Path externalDir() {
+        if (snapshotDir == null || snapshotDir.isBlank()) {
+            return null;
+        }
+        Path dir = Paths.get(snapshotDir);
+        if (!Files.isDirectory(dir)) {
+            log.warn("Snapshot directory {} does not exist, using bundled snapshots only", dir);
+            return null;
+        }
+        return dir;
+    }
 
+    private long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
         } catch (IOException e) {
-            log.error("Failed to load snapshot resources", e);
+            return 0;
         }
     }
 
-    private Account mapAccount(Map<String, Object> data, Account.AccountType type, LocalDate date) {
+    private Account mapAccount(SnapshotFileParser.Entry entry, Account.AccountType type) {
         Account account = new Account();
-        account.setName((String) data.get("name"));
+        account.setName(entry.getName());
         account.setType(type);
-        account.setCurrentBalance(getDouble(data, "balance"));
+        account.setCurrentBalance(valueOrZero(entry.getBalance()));
         if (type == Account.AccountType.CREDIT_CARD) {
-            account.setCreditLimit(data.get("creditLimit") instanceof Number ? ((Number) data.get("creditLimit")).doubleValue() : 1000.0);
+            account.setCreditLimit(entry.getCreditLimit() != null ? entry.getCreditLimit() : 1000.0);
         }
-        account.setApr(getDouble(data, "apr"));
-        account.setMonthlyPayment(getDouble(data, "monthlyPayment"));
-        account.setNotes((String) data.get("notes"));
-        account.setSnapshotDate(date);
+        account.setApr(valueOrZero(entry.getApr()));
+        account.setMonthlyPayment(valueOrZero(entry.getMonthlyPayment()));
+        account.setNotes(entry.getNotes());
         account.setStatus(Account.AccountStatus.ACTIVE);
         return account;
     }
 
-    private double getDouble(Map<String, Object> map, String key) {
-        Object val = map.get(key);
-        if (val instanceof Number) {
-            return ((Number) val).doubleValue();
+    private double valueOrZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private static final class SnapshotIndex {
+        private final NavigableMap<LocalDate, Snapshot> snapshots;
+        private final Map<LocalDate, List<Account>> accounts;
+
+        private SnapshotIndex(TreeMap<LocalDate, Snapshot> snapshots, Map<LocalDate, List<Account>> accounts) {
+            this.snapshots = Collections.unmodifiableNavigableMap(snapshots);
+            this.accounts = Collections.unmodifiableMap(accounts);
+        }
+    }
+
+    private static final class ParsedFile {
+        private final long lastModified;
+        private final Snapshot snapshot;
+        private final List<Account> accounts;
+
+        private ParsedFile(long lastModified, Snapshot snapshot, List<Account> accounts) {
+            this.lastModified = lastModified;
+            this.snapshot = snapshot;
+            this.accounts = accounts;
         }
-        return 0.0;
     }
 }
@@ -0,0 +1,393 @@
+package com.example.expensetracker.service.debt;
+
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.model.debt.Goal;
+import com.example.expensetracker.model.debt.Goal.GoalStatus;
+import com.example.expensetracker.model.debt.Goal.GoalType;
+import com.example.expensetracker.repository.debt.GoalRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Keeps the progress of active debt goals current. The latest snapshot's
+ * per-account balances and their total are cached together with an index of
+ * goals by account, so a change to a few accounts only recomputes the goals
+ * that depend on them (plus DEBT_FREE goals when the total moved). Progress
+ * runs from the goal's startingBalance down to its targetAmount (0 if unset).
+ * SAVINGS and EMERGENCY_FUND goals are not backed by debt accounts and keep
+ * whatever progress they were given.
+ */
+@Service
+@RequiredArgsConstructor
+public class GoalProgressService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(GoalProgressService.class);
+
+    private final GoalRepository goalRepository;
+    private final AccountService accountService;
+    private final SnapshotService snapshotService;
+    private final MongoTemplate mongoTemplate;
+
+    // All state below is guarded by this; repository and account reads happen outside the monitor
+    private boolean loaded;
+    private long generation; // Bumped on invalidation so a load that read older data is not installed
+    private LocalDate latestDate;
+    private final Map<String, Double> balances = new HashMap<>(); // accountId -> balance in latestDate
+    private double totalDebt;
+    private final Map<String, Goal> trackedGoals = new HashMap<>(); // Active debt goals by id
+    private final Map<String, Set<String>> goalsByAccount = new HashMap<>();
+    private final Set<String> debtFreeGoals = new HashSet<>();
+
+    public List<Goal> getGoals(GoalStatus status) {
+        ensureLoaded();
+        return status != null ? goalRepository.findByStatusOrderByTargetDateAsc(status) : goalRepository.findAll();
+    }
+
+    public Optional<Goal> getGoal(String id) {
+        ensureLoaded();
+        return goalRepository.findById(id);
+    }
+
+    public Goal createGoal(Goal goal) {
+        ensureLoaded();
+        if (goal.getStatus() == null) {
+            goal.setStatus(GoalStatus.ACTIVE);
+        }
+        goal.setCreatedAt(LocalDateTime.now());
+        goal.setUpdatedAt(LocalDateTime.now());
+        synchronized (this) {
+            updateProgress(goal);
+        }
+        return track(goalRepository.save(goal));
+    }
+
+    public Goal updateGoal(String id, Goal details) {
+        ensureLoaded();
+        Goal goal = goalRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Goal not found with id: " + id));
+        synchronized (this) {
+            untrack(trackedGoals.getOrDefault(id, goal));
+        }
+
+        goal.setGoalType(details.getGoalType());
+        goal.setTargetDate(details.getTargetDate());
+        goal.setTargetAmount(details.getTargetAmount());
+        goal.setAccountId(details.getAccountId());
+        goal.setStrategy(details.getStrategy());
+        goal.setMonthlyPayment(details.getMonthlyPayment());
+        goal.setNotes(details.getNotes());
+        if (details.getStatus() != null) {
+            goal.setStatus(details.getStatus());
+        }
+        if (details.getStartingBalance() != null) {
+            goal.setStartingBalance(details.getStartingBalance());
+        }
+        if (!isTracked(goal) && details.getProgress() != null) {
+            goal.setProgress(details.getProgress());
+        }
+
+        goal.setUpdatedAt(LocalDateTime.now());
+        synchronized (this) {
+            updateProgress(goal);
+        }
+        return track(goalRepository.save(goal));
+    }
+
+    public void deleteGoal(String id) {
+        synchronized (this) {
+            Goal tracked = trackedGoals.get(id);
+            if (tracked != null) {
+                untrack(tracked);
+            }
+        }
+        goalRepository.deleteById(id);
+    }
+
+    // Called after a snapshot's accounts were saved; only goals tied to changed balances are recomputed
+    public void onAccountsChanged(LocalDate snapshotDate, List<Account> accounts) {
+        List<ProgressWrite> writes;
+        synchronized (this) {
+            if (!loaded) {
+                generation++; // A load already in flight may have read the accounts before this save
+            }
+        }
+        if (ensureLoaded()) {
+            return; // The fresh load already sees the saved accounts
+        }
+        LocalDate current;
+        synchronized (this) {
+            if (!loaded) {
+                return; // Invalidated meanwhile; the next load reads the saved accounts
+            }
+            current = latestDate;
+        }
+        if (snapshotDate == null || (current != null && snapshotDate.isBefore(current))) {
+            return; // Older snapshots do not change current progress
+        }
+        if (current == null || snapshotDate.isAfter(current)) {
+            // A newer snapshot replaces every cached balance, so every tracked goal can move
+            List<Account> snapshotAccounts = accountService.getAccountsBySnapshotDate(snapshotDate);
+            synchronized (this) {
+                if (latestDate != null && snapshotDate.isBefore(latestDate)) {
+                    return; // An even newer snapshot was installed while the accounts were read
+                }
+                setBalances(snapshotDate, snapshotAccounts);
+                writes = recompute(new ArrayList<>(trackedGoals.keySet()));
+            }
+            write(writes);
+            return;
+        }
+
+        synchronized (this) {
+            if (!snapshotDate.equals(latestDate)) {
+                return; // The cache moved to another snapshot meanwhile
+            }
+            Set<String> affected = new HashSet<>();
+            boolean totalChanged = false;
+            for (Account account : accounts) {
+                String key = keyOf(account);
+                if (key == null) {
+                    continue;
+                }
+                double balance = balanceOf(account);
+                Double previous = balances.put(key, balance);
+                if (previous == null || previous != balance) {
+                    totalDebt += balance - (previous != null ? previous : 0.0);
+                    affected.addAll(goalsByAccount.getOrDefault(key, Set.of()));
+                    totalChanged = true;
+                }
+            }
+            if (totalChanged) {
+                affected.addAll(debtFreeGoals);
+            }
+            writes = recompute(affected);
+        }
+        write(writes);
+    }
+
+    public synchronized void onSnapshotDeleted(LocalDate snapshotDate) {
+        if (snapshotDate != null && snapshotDate.equals(latestDate)) {
+            loaded = false; // The previous snapshot becomes the latest; reload on next use
+            generation++;
+        }
+    }
+
+    // Drop the caches and recompute every active goal from the latest snapshot
+    public int recomputeAll() {
+        synchronized (this) {
+            loaded = false;
+            generation++;
+        }
+        ensureLoaded();
+        synchronized (this) {
+            return trackedGoals.size();
+        }
+    }
+
+    // Loads the caches if needed; returns true when this call installed them
+    private boolean ensureLoaded() {
+        long expected;
+        synchronized (this) {
+            if (loaded) {
+                return false;
+            }
+            expected = generation;
+        }
+        LocalDate date = snapshotService.getLatestSnapshotDate().orElse(null);
+        List<Account> accounts = date != null ? accountService.getAccountsBySnapshotDate(date) : List.of();
+        List<Goal> goals = goalRepository.findByStatus(GoalStatus.ACTIVE);
+
+        List<ProgressWrite> writes;
+        int tracked;
+        synchronized (this) {
+            if (loaded || generation != expected) {
+                return false; // Another load won, or the data read above is already stale
+            }
+            trackedGoals.clear();
+            goalsByAccount.clear();
+            debtFreeGoals.clear();
+            setBalances(date, accounts);
+            goals.forEach(this::index);
+            loaded = true;
+            writes = recompute(new ArrayList<>(trackedGoals.keySet()));
+            tracked = trackedGoals.size();
+        }
+        write(writes);
+        log.info("Tracking progress of {} active goals against snapshot {}", tracked, date);
+        return true;
+    }
+
+    // Called with the monitor held
+    private void setBalances(LocalDate snapshotDate, List<Account> accounts) {
+        latestDate = snapshotDate;
+        balances.clear();
+        totalDebt = 0;
+        for (Account account : accounts) {
+            String key = keyOf(account);
+            if (key != null) {
+                double balance = balanceOf(account);
+                Double previous = balances.put(key, balance);
+                totalDebt += balance - (previous != null ? previous : 0.0);
+            }
+        }
+    }
+
+    // Called with the monitor held; returns the progress fields to write once it is released
+    private List<ProgressWrite> recompute(Collection<String> goalIds) {
+        List<ProgressWrite> writes = new ArrayList<>();
+        for (String id : goalIds) {
+            Goal goal = trackedGoals.get(id);
+            if (goal != null && updateProgress(goal)) {
+                goal.setUpdatedAt(LocalDateTime.now());
+                writes.add(new ProgressWrite(goal));
+                if (goal.getStatus() != GoalStatus.ACTIVE) {
+                    untrack(goal);
+                }
+            }
+        }
+        return writes;
+    }
+
+    // Sets only the derived fields, so a concurrent edit of the goal's other fields is not overwritten
+    private void write(List<ProgressWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Goal.class);
+        for (ProgressWrite write : writes) {
+            bulk.updateOne(new Query(Criteria.where("_id").is(write.id)), new Update()
+                    .set("progress", write.progress)
+                    .set("startingBalance", write.startingBalance)
+                    .set("status", write.status)
+                    .set("updatedAt", write.updatedAt));
+        }
+        bulk.execute();
+        log.debug("Updated progress of {} goals", writes.size());
+    }
+
+    // Called with the monitor held; returns true when progress, startingBalance or status changed
+    private boolean updateProgress(Goal goal) {
+        if (!isTracked(goal) || latestDate == null) {
+            return false;
+        }
+        Double current = goal.getGoalType() == GoalType.DEBT_FREE ? Double.valueOf(totalDebt)
+                : balances.get(goal.getAccountId());
+        if (current == null) {
+            return false; // Account not in the latest snapshot
+        }
+
+        boolean changed = false;
+        if (goal.getStartingBalance() == null) {
+            goal.setStartingBalance(current);
+            changed = true;
+        }
+        double start = goal.getStartingBalance();
+        double target = goal.getTargetAmount() != null ? goal.getTargetAmount() : 0.0;
+        double progress;
+        if (current <= target) {
+            progress = 100.0;
+        } else if (start <= target) {
+            progress = 0.0;
+        } else {
+            progress = Math.max(0.0, Math.min(100.0, (start - current) / (start - target) * 100.0));
+        }
+        progress = Math.round(progress * 10.0) / 10.0;
+
+        if (goal.getProgress() == null || goal.getProgress() != progress) {
+            goal.setProgress(progress);
+            changed = true;
+        }
+        if (progress >= 100.0) {
+            goal.setStatus(GoalStatus.COMPLETED);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private boolean isTracked(Goal goal) {
+        if (goal.getStatus() != GoalStatus.ACTIVE) {
+            return false;
+        }
+        return goal.getGoalType() == GoalType.DEBT_FREE
+                || (goal.getGoalType() == GoalType.ACCOUNT_PAYOFF && goal.getAccountId() != null);
+    }
+
+    // Indexes a saved goal and catches up on balance changes made while it was being saved
+    private Goal track(Goal saved) {
+        List<ProgressWrite> writes;
+        synchronized (this) {
+            index(saved);
+            writes = saved.getId() != null ? recompute(List.of(saved.getId())) : List.of();
+        }
+        write(writes);
+        return saved;
+    }
+
+    // Called with the monitor held
+    private void index(Goal goal) {
+        if (goal.getId() == null || !isTracked(goal)) {
+            return;
+        }
+        trackedGoals.put(goal.getId(), goal);
+        if (goal.getGoalType() == GoalType.DEBT_FREE) {
+            debtFreeGoals.add(goal.getId());
+        } else {
+            goalsByAccount.computeIfAbsent(goal.getAccountId(), key -> new HashSet<>()).add(goal.getId());
+        }
+    }
+
+    // Called with the monitor held
+    private void untrack(Goal goal) {
+        if (goal.getId() == null) {
+            return;
+        }
+        trackedGoals.remove(goal.getId());
+        debtFreeGoals.remove(goal.getId());
+        if (goal.getAccountId() != null) {
+            Set<String> ids = goalsByAccount.get(goal.getAccountId());
+            if (ids != null) {
+                ids.remove(goal.getId());
+                if (ids.isEmpty()) {
+                    goalsByAccount.remove(goal.getAccountId());
+                }
+            }
+        }
+    }
+
+    private String keyOf(Account account) {
+        return account.getAccountId() != null ? account.getAccountId() : account.getId();
+    }
+
+    private double balanceOf(Account account) {
+        if (account.getStatus() == Account.AccountStatus.PAID_OFF || account.getCurrentBalance() == null) {
+            return 0.0;
+        }
+        return Math.max(0.0, account.getCurrentBalance());
+    }
+
+    // Derived fields of one goal, copied under the monitor and written after it is released
+    private static class ProgressWrite {
+        private final String id;
+        private final Double progress;
+        private final Double startingBalance;
+        private final GoalStatus status;
+        private final LocalDateTime updatedAt;
+
+        private ProgressWrite(Goal goal) {
+            this.id = goal.getId();
+            this.progress = goal.getProgress();
+            this.startingBalance = goal.getStartingBalance();
+            this.status = goal.getStatus();
+            this.updatedAt = goal.getUpdatedAt();
+        }
+    }
+}
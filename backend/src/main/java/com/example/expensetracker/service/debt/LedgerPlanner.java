@@ -0,0 +1,305 @@
+package com.example.expensetracker.service.debt;
+
+import com.example.expensetracker.dto.LedgerImportReport;
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.model.debt.Payment;
+import com.example.expensetracker.model.debt.Transaction;
+import com.example.expensetracker.model.debt.Transaction.TransactionType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * The IO-free half of the ledger import. Rows are keyed, then sorted by
+ * snapshot, account and date and walked once: each row rolls the owning
+ * account's balance forward, payments are split into interest and principal,
+ * and the month's SnapshotMetadata totals are accumulated. The result lists
+ * the documents to insert and each account's net balance change, so the
+ * caller can apply it with atomic increments.
+ *
+ * A payment's interest is the month's accrued interest (opening balance x
+ * APR / 12) still unpaid, unless the row gives an explicit split. Posted
+ * INTEREST rows replace the computed accrual for that account and month.
+ * The accrual is estimated once per account document (one per snapshot
+ * month): each plan starts from the Account.LedgerInterest the previous
+ * import left and returns the state to store, so a month's statement split
+ * across uploads accrues its interest once.
+ */
+final class LedgerPlanner {
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^A-Z0-9]+");
+
+    private LedgerPlanner() {
+    }
+
+    // What is already stored for a row key
+    enum Stored {
+        // Ledger rows written but their balance change not confirmed; rolled again, not re-inserted
+        PENDING,
+        APPLIED
+    }
+
+    static final class Row {
+        long line;
+        String accountId;
+        LocalDate date;
+        TransactionType type;
+        double amount; // Always positive; the type gives the direction
+        Payment.PaymentType paymentType;
+        Double principal;
+        Double interest;
+        String description;
+        String category;
+        LocalDate snapshotDate;
+        String key;
+    }
+
+    // Net change to one account document, identified by the keys of the rows behind it
+    static final class AccountChange {
+        final String id;
+        final String accountId;
+        final LocalDate snapshotDate;
+        final double openingBalance;
+        double delta;
+        final List<String> keys = new ArrayList<>();
+        final Account.LedgerInterest interestBefore; // As read; null before the month's first import
+        Account.LedgerInterest interestAfter;
+
+        private AccountChange(Account account, LocalDate snapshotDate, double openingBalance) {
+            this.id = account.getId();
+            this.accountId = account.getAccountId();
+            this.snapshotDate = snapshotDate;
+            this.openingBalance = openingBalance;
+            this.interestBefore = account.getLedgerInterest();
+        }
+    }
+
+    static final class Plan {
+        final List<Payment> payments = new ArrayList<>();
+        final List<Transaction> transactions = new ArrayList<>();
+        final List<AccountChange> accountChanges = new ArrayList<>();
+        final Map<LocalDate, LedgerImportReport.SnapshotTotals> totals = new TreeMap<>();
+        final Map<LocalDate, List<String>> keysBySnapshot = new TreeMap<>();
+        int duplicates;
+    }
+
+    /**
+     * Gives every row a key from its account, date, type, amount and
+     * normalized description. Identical rows are numbered in file order, so
+     * two genuine same-day payments of the same amount keep distinct keys
+     * while a re-uploaded file reproduces the keys it had the first time.
+     */
+    static void assignKeys(List<Row> rows) {
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (Row row : rows) {
+            String identity = row.accountId + "|" + row.date + "|" + row.type + "|"
+                    + String.format(Locale.ROOT, "%.2f", row.amount) + "|" + normalizeDescription(row.description);
+            int occurrence = occurrences.merge(identity, 1, Integer::sum) - 1;
+            row.key = hash(identity + "#" + occurrence);
+        }
+    }
+
+    // Upper case with everything but letters and digits collapsed to single spaces
+    static String normalizeDescription(String description) {
+        if (description == null) {
+            return "";
+        }
+        return NON_ALPHANUMERIC.matcher(description.toUpperCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // Order-independent key for a set of row keys
+    static String batchKey(Collection<String> keys) {
+        List<String> sorted = new ArrayList<>(keys);
+        Collections.sort(sorted);
+        return hash(String.join(",", sorted));
+    }
+
+    /**
+     * Rows whose key is APPLIED are skipped as duplicates. PENDING rows are
+     * rolled forward again (their balance change was never confirmed) but not
+     * returned for insert. accounts maps snapshotDate to accounts by accountId
+     * and must contain every row's account.
+     */
+    static Plan plan(List<Row> rows, Map<LocalDate, Map<String, Account>> accounts, Map<String, Stored> stored,
+            LocalDateTime now) {
+        Plan plan = new Plan();
+        List<Row> sorted = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (stored.get(row.key) == Stored.APPLIED) {
+                plan.duplicates++;
+            } else {
+                sorted.add(row);
+            }
+        }
+        sorted.sort(Comparator.comparing((Row row) -> row.snapshotDate)
+                .thenComparing(row -> row.accountId)
+                .thenComparing(row -> row.date)
+                .thenComparingLong(row -> row.line));
+
+        AccountState state = null;
+        for (Row row : sorted) {
+            LedgerImportReport.SnapshotTotals totals = plan.totals.computeIfAbsent(row.snapshotDate,
+                    LedgerPlanner::newTotals);
+            if (state == null || !state.change.snapshotDate.equals(row.snapshotDate)
+                    || !state.change.accountId.equals(row.accountId)) {
+                if (state != null) {
+                    state.close(plan);
+                }
+                state = new AccountState(accounts.get(row.snapshotDate).get(row.accountId), row.snapshotDate);
+            }
+            state.change.keys.add(row.key);
+            plan.keysBySnapshot.computeIfAbsent(row.snapshotDate, date -> new ArrayList<>()).add(row.key);
+            apply(row, state, totals, stored.get(row.key) == null ? plan : null, now);
+        }
+        if (state != null) {
+            state.close(plan);
+        }
+        plan.totals.values().forEach(LedgerPlanner::roundTotals);
+        return plan;
+    }
+
+    // Rolls one row into the account state; documents are added to plan unless it is null (already stored)
+    private static void apply(Row row, AccountState state, LedgerImportReport.SnapshotTotals totals, Plan plan,
+            LocalDateTime now) {
+        double amount = row.amount;
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(row.accountId);
+        transaction.setType(row.type);
+        transaction.setAmount(amount);
+        transaction.setDescription(row.description);
+        transaction.setTransactionDate(row.date);
+        transaction.setCategory(row.category);
+        transaction.setImportKey(row.key);
+        transaction.setBalanceApplied(false);
+        transaction.setCreatedAt(now);
+
+        switch (row.type) {
+            case PAYMENT -> {
+                double interest = row.interest != null ? row.interest
+                        : Math.min(amount, state.accruedInterest + state.postedInterest);
+                double principal = row.principal != null ? row.principal : amount - interest;
+                // Interest not yet posted to the balance accrues now, then the whole payment comes off
+                double fromPosted = Math.min(interest, state.postedInterest);
+                double accrued = interest - fromPosted;
+                state.postedInterest -= fromPosted;
+                state.accruedInterest = Math.max(0.0, state.accruedInterest - accrued);
+                state.balance += accrued - amount;
+
+                Payment payment = new Payment();
+                payment.setAccountId(row.accountId);
+                payment.setAmount(amount);
+                payment.setPaymentDate(row.date);
+                payment.setPaymentType(row.paymentType != null ? row.paymentType : Payment.PaymentType.MANUAL);
+                payment.setPrincipalAmount(round(principal));
+                payment.setInterestAmount(round(interest));
+                payment.setBalanceAfter(round(settle(state)));
+                payment.setNotes(row.description);
+                payment.setImportKey(row.key);
+                payment.setCreatedAt(now);
+                if (plan != null) {
+                    plan.payments.add(payment);
+                }
+
+                totals.setPayments(totals.getPayments() + 1);
+                totals.setPrincipalPaid(totals.getPrincipalPaid() + principal);
+                totals.setInterestPaid(totals.getInterestPaid() + interest);
+            }
+            case INTEREST -> {
+                if (!state.interestPosted) {
+                    state.interestPosted = true;
+                    state.accruedInterest = 0.0; // The statement's interest replaces the estimate
+                }
+                state.postedInterest += amount;
+                state.balance += amount;
+            }
+            case CHARGE, FEE -> {
+                state.balance += amount;
+                totals.setNewCharges(totals.getNewCharges() + amount);
+            }
+            case REFUND, CREDIT -> state.balance -= amount;
+        }
+
+        transaction.setBalanceAfter(round(settle(state)));
+        if (plan != null) {
+            plan.transactions.add(transaction);
+        }
+    }
+
+    private static double settle(AccountState state) {
+        if (Math.abs(state.balance) < 0.005) {
+            state.balance = 0.0;
+        }
+        return state.balance;
+    }
+
+    private static LedgerImportReport.SnapshotTotals newTotals(LocalDate snapshotDate) {
+        LedgerImportReport.SnapshotTotals totals = new LedgerImportReport.SnapshotTotals();
+        totals.setSnapshotDate(snapshotDate.toString());
+        totals.setPayments(0);
+        totals.setPrincipalPaid(0.0);
+        totals.setInterestPaid(0.0);
+        totals.setNewCharges(0.0);
+        totals.setDebtReduction(0.0);
+        return totals;
+    }
+
+    private static void roundTotals(LedgerImportReport.SnapshotTotals totals) {
+        totals.setPrincipalPaid(round(totals.getPrincipalPaid()));
+        totals.setInterestPaid(round(totals.getInterestPaid()));
+        totals.setNewCharges(round(totals.getNewCharges()));
+        totals.setDebtReduction(round(totals.getDebtReduction()));
+    }
+
+    static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Running balance of one account while its rows are applied
+    private static final class AccountState {
+        private final AccountChange change;
+        private double balance;
+        private double accruedInterest; // Estimated interest for the month not yet on the balance
+        private double postedInterest; // Interest on the balance not yet covered by a payment
+        private boolean interestPosted;
+
+        private AccountState(Account account, LocalDate snapshotDate) {
+            double opening = account.getCurrentBalance() != null ? account.getCurrentBalance() : 0.0;
+            this.change = new AccountChange(account, snapshotDate, opening);
+            this.balance = opening;
+            Account.LedgerInterest interest = account.getLedgerInterest();
+            if (interest != null) {
+                // A later upload for the month: the balance already holds what earlier uploads moved onto it
+                this.accruedInterest = interest.getAccrued() != null ? interest.getAccrued() : 0.0;
+                this.postedInterest = interest.getPosted() != null ? interest.getPosted() : 0.0;
+                this.interestPosted = Boolean.TRUE.equals(interest.getStatementPosted());
+            } else {
+                double apr = account.getApr() != null ? account.getApr() : 0.0;
+                this.accruedInterest = Math.max(0.0, opening) * apr / 100.0 / 12.0;
+            }
+        }
+
+        private void close(Plan plan) {
+            double closing = round(balance);
+            change.delta = round(closing - change.openingBalance);
+            change.interestAfter = new Account.LedgerInterest(round(accruedInterest), round(postedInterest),
+                    interestPosted);
+            LedgerImportReport.SnapshotTotals totals = plan.totals.get(change.snapshotDate);
+            totals.setDebtReduction(totals.getDebtReduction() - change.delta);
+            plan.accountChanges.add(change);
+        }
+    }
+}
@@ -3,51 +3,90 @@ package com.example.expensetracker.service.debt;
 import com.example.expensetracker.model.debt.Account;
 import com.example.expensetracker.model.debt.Account.AccountStatus;
 import com.example.expensetracker.model.debt.Account.AccountType;
+import com.example.expensetracker.model.debt.MigrationLedgerEntry;
+import com.example.expensetracker.model.debt.MigrationLedgerEntry.LedgerStatus;
 import com.example.expensetracker.model.debt.Snapshot;
 import com.example.expensetracker.model.debt.Snapshot.SnapshotMetadata;
 import com.example.expensetracker.repository.debt.AccountRepository;
+import com.example.expensetracker.repository.debt.MigrationLedgerRepository;
 import com.example.expensetracker.repository.debt.SnapshotRepository;
 import com.example.expensetracker.service.DebtStrategyService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
-import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports the bundled debt-snapshot-*.json files into Mongo. Runs as a
+ * StartupTask after the application is ready; files are hashed and parsed
+ * in parallel, then written in parallel with one worker per snapshotDate.
+ * Each file is checkpointed in the migration ledger after its accounts are
+ * written so an interrupted run resumes with the remaining files.
+ */
 @Service
 @RequiredArgsConstructor
 public class MigrationService {
 
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MigrationService.class);
 
+    private static final String SNAPSHOT_PATTERN = "classpath:debt-snapshot-*.json";
+    private static final int PARALLELISM = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
     private final AccountRepository accountRepository;
     private final SnapshotRepository snapshotRepository;
-    private final ObjectMapper objectMapper;
+    private final MigrationLedgerRepository ledgerRepository;
+    private final MongoTemplate mongoTemplate;
+    private final SnapshotFileParser snapshotFileParser;
     private final DebtStrategyService debtStrategyService;
+    private final SnapshotVersionService snapshotVersionService;
+    private final SnapshotService snapshotService;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public List<MigrationLedgerEntry> getLedger() {
+        return ledgerRepository.findAll();
+    }
 
-    // List of snapshot files to migrate (including August)
-    private static final String[] SNAPSHOT_FILES = {
-            "debt-snapshot-2025-08.json",
-            "debt-snapshot-2025-09.json",
-            "debt-snapshot-2025-10.json",
-            "debt-snapshot-2025-11.json"
-    };
+    // Forget every checkpoint so the next run re-imports all files
+    public void resetLedger() {
+        ledgerRepository.deleteAll();
+    }
 
-    @PostConstruct
-    public void migrateData() {
+    public synchronized void migrateData() {
         log.info("Starting data migration from JSON files to MongoDB...");
 
-        // Quick guard: if Mongo is unavailable, skip migration to avoid startup delays
+        // Quick guard: if Mongo is unavailable, skip migration
         try {
             accountRepository.count();
         } catch (Exception e) {
@@ -56,82 +95,169 @@ public class MigrationService {
             return;
         }
 
-        for (String fileName : SNAPSHOT_FILES) {
-            try {
-                migrateSnapshotFile(fileName);
-            } catch (Exception e) {
-                log.error("Failed to migrate file: " + fileName, e);
-            }
+        Resource[] resources;
+        try {
+            resources = new PathMatchingResourcePatternResolver().getResources(SNAPSHOT_PATTERN);
+        } catch (IOException e) {
+            log.error("Could not list snapshot files", e);
+            return;
+        }
+        if (resources.length == 0) {
+            log.info("No snapshot files found on the classpath.");
+            return;
+        }
+
+        running.set(true);
+        Map<String, MigrationLedgerEntry> ledger = ledgerRepository.findAll().stream()
+                .collect(Collectors.toMap(MigrationLedgerEntry::getFileName, Function.identity()));
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(PARALLELISM, resources.length));
+        try {
+            // Hash and parse every file in parallel first, since the snapshotDate is only known after parsing
+            List<CompletableFuture<ParsedFile>> parsing = Arrays.stream(resources)
+                    .map(resource -> CompletableFuture.supplyAsync(() -> parseResource(resource, ledger), workers))
+                    .toList();
+            Map<LocalDate, List<ParsedFile>> byDate = parsing.stream()
+                    .map(CompletableFuture::join)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.groupingBy(file -> file.snapshot.getSnapshotDate(), TreeMap::new,
+                            Collectors.toList()));
+
+            // One task per snapshotDate: files sharing a date are written in name order by the same worker, so
+            // the first one creates the snapshot and the rest are skipped instead of racing its accounts
+            CompletableFuture<?>[] tasks = byDate.values().stream()
+                    .map(files -> CompletableFuture.runAsync(() -> files.stream()
+                            .sorted(Comparator.comparing(file -> file.fileName))
+                            .forEach(this::writeFile), workers))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(tasks).join();
+        } finally {
+            workers.shutdown();
+            running.set(false);
+            snapshotService.reconcileIndex();
         }
 
-        log.info("Data migration completed successfully.");
+        log.info("Data migration completed for {} snapshot files.", resources.length);
     }
 
-    private void migrateSnapshotFile(String fileName) throws IOException {
-        ClassPathResource resource = new ClassPathResource(fileName);
-        if (!resource.exists()) {
-            log.warn("Snapshot file not found: {}", fileName);
-            return;
-        }
+    // Null when the file is unchanged since its last import or could not be read
+    private ParsedFile parseResource(Resource resource, Map<String, MigrationLedgerEntry> ledger) {
+        String fileName = resource.getFilename();
+        String contentHash = null;
+        try {
+            contentHash = sha256(resource);
 
-        JsonNode root = objectMapper.readTree(resource.getInputStream());
-        String dateStr = root.get("snapshotDate").asText();
-        LocalDate snapshotDate = LocalDate.parse(dateStr);
+            MigrationLedgerEntry previous = ledger.get(fileName);
+            if (previous != null && previous.getStatus() != LedgerStatus.FAILED
+                    && contentHash.equals(previous.getContentHash())) {
+                log.debug("Snapshot file {} unchanged since last import, skipping", fileName);
+                return null;
+            }
 
-        // If snapshot already exists, keep user-updated data and skip replacement
-        if (snapshotRepository.findBySnapshotDate(snapshotDate).isPresent()) {
-            log.info("Snapshot for date {} already exists. Skipping migration to preserve user edits.", snapshotDate);
-            return;
+            return parseSnapshotFile(resource, contentHash);
+        } catch (Exception e) {
+            recordFailure(fileName, contentHash, e);
+            return null;
         }
+    }
 
+    private void writeFile(ParsedFile file) {
+        try {
+            migrateSnapshotFile(file);
+        } catch (Exception e) {
+            recordFailure(file.fileName, file.contentHash, e);
+        }
+    }
+
+    private void recordFailure(String fileName, String contentHash, Exception e) {
+        log.error("Failed to migrate file: " + fileName, e);
+        MigrationLedgerEntry entry = new MigrationLedgerEntry();
+        entry.setFileName(fileName);
+        entry.setContentHash(contentHash);
+        entry.setStatus(LedgerStatus.FAILED);
+        entry.setMessage(e.getMessage());
+        entry.setProcessedAt(LocalDateTime.now());
+        ledgerRepository.save(entry);
+    }
+
+    private ParsedFile parseSnapshotFile(Resource resource, String contentHash) throws IOException {
         // Capture existing accounts to preserve user-updated fields (e.g., credit limits) for any lingering data
         Map<String, Double> existingLimits = new HashMap<>();
 
-        // Create Snapshot Entity
         Snapshot snapshot = new Snapshot();
-        snapshot.setSnapshotDate(snapshotDate);
-        snapshot.setTotalDebt(root.get("totalDebt").asDouble());
+        List<Account> snapshotAccounts = new ArrayList<>();
+        try (InputStream inputStream = resource.getInputStream()) {
+            snapshotFileParser.parse(inputStream, new SnapshotFileParser.Listener() {
+                @Override
+                public void snapshotDate(LocalDate snapshotDate) {
+                    snapshot.setSnapshotDate(snapshotDate);
+                }
+
+                @Override
+                public void totalDebt(double totalDebt) {
+                    snapshot.setTotalDebt(totalDebt);
+                }
+
+                @Override
+                public void categoryTotal(AccountType type, double total) {
+                    switch (type) {
+                        case CREDIT_CARD -> snapshot.setCreditCardDebt(total);
+                        case PERSONAL_LOAN -> snapshot.setPersonalLoanDebt(total);
+                        case AUTO_LOAN -> snapshot.setAutoLoanDebt(total);
+                        default -> {
+                        }
+                    }
+                }
 
-        // Extract category totals
-        if (root.has("creditCards")) {
-            snapshot.setCreditCardDebt(root.get("creditCards").get("total").asDouble());
+                @Override
+                public void account(AccountType type, SnapshotFileParser.Entry entry) {
+                    snapshotAccounts.add(mapAccount(entry, type, existingLimits));
+                }
+            });
         }
-        if (root.has("personalLoans")) {
-            snapshot.setPersonalLoanDebt(root.get("personalLoans").get("total").asDouble());
+
+        if (snapshot.getSnapshotDate() == null) {
+            throw new IOException("Missing snapshotDate");
         }
-        if (root.has("autoLoan")) {
-            snapshot.setAutoLoanDebt(root.get("autoLoan").get("total").asDouble());
+        return new ParsedFile(resource.getFilename(), contentHash, snapshot, snapshotAccounts);
+    }
+
+    private void migrateSnapshotFile(ParsedFile file) {
+        Snapshot snapshot = file.snapshot;
+        List<Account> snapshotAccounts = file.accounts;
+        LocalDate snapshotDate = snapshot.getSnapshotDate();
+
+        MigrationLedgerEntry entry = new MigrationLedgerEntry();
+        entry.setFileName(file.fileName);
+        entry.setContentHash(file.contentHash);
+        entry.setSnapshotDate(snapshotDate);
+
+        // If snapshot already exists, keep user-updated data and skip replacement
+        if (snapshotRepository.findBySnapshotDate(snapshotDate).isPresent()) {
+            log.info("Snapshot for date {} already exists. Skipping migration to preserve user edits.", snapshotDate);
+            entry.setStatus(LedgerStatus.SKIPPED_EXISTING);
+            entry.setAccountsImported(0);
+            entry.setProcessedAt(LocalDateTime.now());
+            ledgerRepository.save(entry);
+            return;
         }
 
         // Calculate totals
-        int totalAccounts = 0;
         int activeAccounts = 0;
         int paidOffAccounts = 0;
         double totalMonthlyPayment = 0;
-
-        // Helper to process accounts list from JSON
-        List<JsonNode> allAccountsJson = new ArrayList<>();
-        if (root.has("creditCards"))
-            root.get("creditCards").get("accounts").forEach(allAccountsJson::add);
-        if (root.has("personalLoans"))
-            root.get("personalLoans").get("accounts").forEach(allAccountsJson::add);
-        if (root.has("autoLoan"))
-            root.get("autoLoan").get("accounts").forEach(allAccountsJson::add);
-
-        for (JsonNode acc : allAccountsJson) {
-            totalAccounts++;
-            double balance = acc.get("balance").asDouble();
-            if (balance > 0) {
+        for (Account account : snapshotAccounts) {
+            account.setSnapshotDate(snapshotDate);
+            if (account.getCurrentBalance() > 0) {
                 activeAccounts++;
             } else {
                 paidOffAccounts++;
             }
-            if (acc.has("monthlyPayment")) {
-                totalMonthlyPayment += acc.get("monthlyPayment").asDouble();
+            if (account.getMonthlyPayment() != null) {
+                totalMonthlyPayment += account.getMonthlyPayment();
             }
         }
 
-        snapshot.setTotalAccounts(totalAccounts);
+        snapshot.setTotalAccounts(snapshotAccounts.size());
         snapshot.setActiveAccounts(activeAccounts);
         snapshot.setPaidOffAccounts(paidOffAccounts);
         snapshot.setTotalMonthlyPayment(totalMonthlyPayment);
@@ -143,22 +269,6 @@ public class MigrationService {
 
         snapshot.setCreatedAt(LocalDateTime.now());
 
-        snapshotRepository.save(snapshot);
-        log.info("Migrated snapshot for {}", snapshotDate);
-
-        // Migrate accounts for this snapshot
-        try {
-            accountRepository.deleteBySnapshotDate(snapshotDate);
-        } catch (Exception e) {
-            log.warn("Could not delete existing accounts for date: {}", snapshotDate);
-        }
-
-        List<Account> snapshotAccounts = new ArrayList<>();
-        snapshotAccounts.addAll(processCategoryAccounts(root, "creditCards", AccountType.CREDIT_CARD, snapshotDate, existingLimits));
-        snapshotAccounts
-                .addAll(processCategoryAccounts(root, "personalLoans", AccountType.PERSONAL_LOAN, snapshotDate, existingLimits));
-        snapshotAccounts.addAll(processCategoryAccounts(root, "autoLoan", AccountType.AUTO_LOAN, snapshotDate, existingLimits));
-
         // Calculate and Enrich
         for (Account account : snapshotAccounts) {
             debtStrategyService.calculateAndEnrich(account);
@@ -167,70 +277,81 @@ public class MigrationService {
         // Calculate Priorities
         debtStrategyService.calculatePriorities(snapshotAccounts);
 
-        // Save All
-        accountRepository.saveAll(snapshotAccounts);
-    }
-
-    private List<Account> processCategoryAccounts(JsonNode root, String category, AccountType type,
-            LocalDate snapshotDate, Map<String, Double> existingLimits) {
-        List<Account> accounts = new ArrayList<>();
-        if (!root.has(category))
-            return accounts;
-
-        JsonNode categoryNode = root.get(category);
-        if (categoryNode.has("accounts")) {
-            for (JsonNode accNode : categoryNode.get("accounts")) {
-                Account account = new Account();
-                account.setName(accNode.get("name").asText());
-                account.setType(type);
-                account.setCurrentBalance(accNode.get("balance").asDouble());
-                if (type == AccountType.CREDIT_CARD) {
-                    String key = account.getName().toLowerCase().replaceAll("\\s+", "-");
-                    double limit = 1000.0;
-                    if (accNode.has("creditLimit")) {
-                        limit = accNode.get("creditLimit").asDouble();
-                    } else if (existingLimits.containsKey(key)) {
-                        limit = existingLimits.get(key);
-                    }
-                    account.setCreditLimit(limit);
-                } else {
-                    // Loans/auto: set loan amount from file or defaults
-                    double loanAmount = accNode.has("loanAmount")
-                            ? accNode.get("loanAmount").asDouble()
-                            : getDefaultLoanAmount(account.getName(), type);
-                    account.setLoanAmount(loanAmount);
-                }
-                account.setApr(accNode.get("apr").asDouble());
-                if (accNode.has("promoExpires") && !accNode.get("promoExpires").isNull()) {
-                    account.setPromoExpires(LocalDate.parse(accNode.get("promoExpires").asText()));
-                }
-                account.setSnapshotDate(snapshotDate);
-
-                if (accNode.has("monthlyPayment")) {
-                    account.setMonthlyPayment(accNode.get("monthlyPayment").asDouble());
-                }
-
-                if (accNode.has("notes")) {
-                    account.setNotes(accNode.get("notes").asText());
-                }
+        // Migrate accounts for this snapshot; clear any leftovers from an interrupted run first
+        try {
+            accountRepository.deleteBySnapshotDate(snapshotDate);
+        } catch (Exception e) {
+            log.warn("Could not delete existing accounts for date: {}", snapshotDate);
+        }
+        if (!snapshotAccounts.isEmpty()) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class)
+                    .insert(snapshotAccounts)
+                    .execute();
+        }
 
-                // Generate a consistent ID or use name as ID for now
-                String accountId = account.getName().toLowerCase().replaceAll("\\s+", "-");
-                account.setAccountId(accountId);
+        // The snapshot row is written last so a crash before this point is retried on the next run
+        snapshotRepository.save(snapshot);
+        snapshotVersionService.bump(snapshotDate);
+        log.info("Migrated snapshot for {} ({} accounts)", snapshotDate, snapshotAccounts.size());
 
-                if (account.getCurrentBalance() > 0) {
-                    account.setStatus(AccountStatus.ACTIVE);
-                } else {
-                    account.setStatus(AccountStatus.PAID_OFF);
-                }
+        entry.setStatus(LedgerStatus.IMPORTED);
+        entry.setAccountsImported(snapshotAccounts.size());
+        entry.setProcessedAt(LocalDateTime.now());
+        ledgerRepository.save(entry);
+    }
 
-                account.setCreatedAt(LocalDateTime.now());
-                account.setUpdatedAt(LocalDateTime.now());
+    private String sha256(Resource resource) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (InputStream inputStream = new DigestInputStream(resource.getInputStream(), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
 
-                accounts.add(account);
+    private Account mapAccount(SnapshotFileParser.Entry entry, AccountType type, Map<String, Double> existingLimits) {
+        Account account = new Account();
+        account.setName(entry.getName());
+        account.setType(type);
+        account.setCurrentBalance(entry.getBalance() != null ? entry.getBalance() : 0.0);
+        if (type == AccountType.CREDIT_CARD) {
+            String key = account.getName().toLowerCase().replaceAll("\\s+", "-");
+            double limit = 1000.0;
+            if (entry.getCreditLimit() != null) {
+                limit = entry.getCreditLimit();
+            } else if (existingLimits.containsKey(key)) {
+                limit = existingLimits.get(key);
             }
+            account.setCreditLimit(limit);
+        } else {
+            // Loans/auto: set loan amount from file or defaults
+            double loanAmount = entry.getLoanAmount() != null
+                    ? entry.getLoanAmount()
+                    : getDefaultLoanAmount(account.getName(), type);
+            account.setLoanAmount(loanAmount);
         }
-        return accounts;
+        account.setApr(entry.getApr() != null ? entry.getApr() : 0.0);
+        account.setPromoExpires(entry.getPromoExpires());
+        account.setMonthlyPayment(entry.getMonthlyPayment());
+        account.setNotes(entry.getNotes());
+
+        // Generate a consistent ID or use name as ID for now
+        String accountId = account.getName().toLowerCase().replaceAll("\\s+", "-");
+        account.setAccountId(accountId);
+
+        if (account.getCurrentBalance() > 0) {
+            account.setStatus(AccountStatus.ACTIVE);
+        } else {
+            account.setStatus(AccountStatus.PAID_OFF);
+        }
+
+        account.setCreatedAt(LocalDateTime.now());
+        account.setUpdatedAt(LocalDateTime.now());
+        return account;
     }
 
     private double getDefaultLoanAmount(String name, AccountType type) {
@@ -245,4 +366,19 @@ public class MigrationService {
 
         return 0.0;
     }
+
+    // A parsed snapshot file waiting to be written
+    private static final class ParsedFile {
+        private final String fileName;
+        private final String contentHash;
+        private final Snapshot snapshot;
+        private final List<Account> accounts;
+
+        private ParsedFile(String fileName, String contentHash, Snapshot snapshot, List<Account> accounts) {
+            this.fileName = fileName;
+            this.contentHash = contentHash;
+            this.snapshot = snapshot;
+            this.accounts = accounts;
+        }
+    }
 }
@@ -0,0 +1,433 @@
+package com.example.expensetracker.service.debt;
+
+import com.example.expensetracker.dto.LedgerImportReport;
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.model.debt.Payment;
+import com.example.expensetracker.model.debt.Snapshot;
+import com.example.expensetracker.model.debt.Transaction;
+import com.example.expensetracker.model.debt.Transaction.TransactionType;
+import com.example.expensetracker.service.CsvRecordReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Imports payment and transaction rows (CSV with a header, or NDJSON) into
+ * the snapshot of the row's month; LedgerPlanner does the balance roll-forward.
+ * Every row carries an import_key (account, date, type, amount, normalized
+ * description and occurrence), so uploading the same file again skips rows
+ * already imported. Ledger rows are written first, then balances and
+ * SnapshotMetadata are incremented atomically.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentIngestionService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(PaymentIngestionService.class);
+
+    private static final int BULK_BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int DUPLICATE_KEY = 11000;
+    private static final double SPLIT_TOLERANCE = 0.01;
+    private static final DateTimeFormatter US_DATE = DateTimeFormatter.ofPattern("M/d/yyyy");
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final SnapshotService snapshotService;
+    private final AccountService accountService;
+    private final AccountBatchService accountBatchService;
+    private final GoalProgressService goalProgressService;
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    public LedgerImportReport ingest(InputStream input, Format format, boolean dryRun) throws IOException {
+        long started = System.currentTimeMillis();
+        LedgerImportReport report = new LedgerImportReport();
+        report.setDryRun(dryRun);
+        Errors errors = new Errors(report);
+
+        List<LedgerPlanner.Row> rows = format == Format.NDJSON ? readNdjson(input, errors) : readCsv(input, errors);
+        int rowsRead = rows.size() + errors.count;
+
+        // Resolve each row's month to the latest snapshot in that month and its accounts
+        Map<YearMonth, Optional<LocalDate>> snapshotByMonth = new HashMap<>();
+        Map<LocalDate, Map<String, Account>> accountsBySnapshot = new HashMap<>();
+        List<LedgerPlanner.Row> accepted = new ArrayList<>(rows.size());
+        for (LedgerPlanner.Row row : rows) {
+            Optional<LocalDate> snapshotDate = snapshotByMonth.computeIfAbsent(YearMonth.from(row.date),
+                    this::latestSnapshotIn);
+            if (snapshotDate.isEmpty()) {
+                errors.add(row.line, "No snapshot for " + YearMonth.from(row.date));
+                continue;
+            }
+            Map<String, Account> accounts = accountsBySnapshot.computeIfAbsent(snapshotDate.get(),
+                    this::accountsFor);
+            if (!accounts.containsKey(row.accountId)) {
+                errors.add(row.line, "Unknown account " + row.accountId + " in snapshot " + snapshotDate.get());
+                continue;
+            }
+            row.snapshotDate = snapshotDate.get();
+            accepted.add(row);
+        }
+
+        LedgerPlanner.assignKeys(accepted);
+        LedgerPlanner.Plan plan = LedgerPlanner.plan(accepted, accountsBySnapshot, storedKeys(accepted),
+                LocalDateTime.now());
+        int payments = plan.payments.size();
+        int transactions = plan.transactions.size();
+        if (!dryRun) {
+            payments = insert(Payment.class, plan.payments);
+            transactions = insert(Transaction.class, plan.transactions);
+            commit(plan);
+        }
+
+        report.setRowsRead(rowsRead);
+        report.setRowsAccepted(accepted.size());
+        report.setRowsRejected(errors.count);
+        report.setDuplicatesSkipped(plan.duplicates);
+        report.setPaymentsInserted(payments);
+        report.setTransactionsInserted(transactions);
+        report.setAccountsUpdated(plan.accountChanges.size());
+        report.setSnapshots(new ArrayList<>(plan.totals.values()));
+        report.setElapsedMs(System.currentTimeMillis() - started);
+        log.info("Ledger import (dryRun={}): {} rows read, {} accepted, {} duplicates, {} rejected, {} accounts in {} ms",
+                dryRun, rowsRead, accepted.size(), plan.duplicates, errors.count, plan.accountChanges.size(),
+                report.getElapsedMs());
+        return report;
+    }
+
+    // Which of the rows' keys already have a stored transaction, and whether its balance change was applied
+    private Map<String, LedgerPlanner.Stored> storedKeys(List<LedgerPlanner.Row> rows) {
+        Map<String, LedgerPlanner.Stored> stored = new HashMap<>();
+        List<String> keys = rows.stream().map(row -> row.key).toList();
+        for (int from = 0; from < keys.size(); from += BULK_BATCH_SIZE) {
+            Query query = new Query(Criteria.where("import_key")
+                    .in(keys.subList(from, Math.min(from + BULK_BATCH_SIZE, keys.size()))));
+            query.fields().include("import_key").include("balanceApplied");
+            for (Transaction transaction : mongoTemplate.find(query, Transaction.class)) {
+                stored.put(transaction.getImportKey(), Boolean.FALSE.equals(transaction.getBalanceApplied())
+                        ? LedgerPlanner.Stored.PENDING : LedgerPlanner.Stored.APPLIED);
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Inserts in unordered batches. A duplicate key means another upload of
+     * the same rows is running; it owns those rows, so this import stops
+     * before touching any balance and can simply be retried.
+     */
+    private <T> int insert(Class<T> type, List<T> documents) {
+        int duplicates = 0;
+        for (int from = 0; from < documents.size(); from += BULK_BATCH_SIZE) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type)
+                        .insert(documents.subList(from, Math.min(from + BULK_BATCH_SIZE, documents.size())))
+                        .execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    if (error.getCode() != DUPLICATE_KEY) {
+                        throw e;
+                    }
+                    duplicates++;
+                }
+            }
+        }
+        if (duplicates > 0) {
+            throw new IllegalStateException(duplicates + " rows are being imported concurrently; retry the upload");
+        }
+        return documents.size();
+    }
+
+    /**
+     * Applies the plan after its ledger rows are stored. Each account gets
+     * its net change as one $inc, and each snapshot its metadata totals, both
+     * guarded by a key of the rows behind them so an import retried after a
+     * failure cannot add them twice. An account's month interest state is
+     * set in the same update, only if it is still the state the plan started
+     * from; another import into the month in between fails this one so a
+     * retry replans from the new state. The rows are then marked applied and
+     * the snapshot's priorities and totals are recomputed from the stored
+     * balances.
+     */
+    private void commit(LedgerPlanner.Plan plan) {
+        LocalDateTime now = LocalDateTime.now();
+        for (LedgerPlanner.AccountChange change : plan.accountChanges) {
+            String batchKey = LedgerPlanner.batchKey(change.keys);
+            Criteria guard = Criteria.where("_id").is(change.id).and("ledgerImports").ne(batchKey);
+            Account.LedgerInterest before = change.interestBefore;
+            if (before == null) {
+                guard.and("ledgerInterest").exists(false);
+            } else {
+                guard.and("ledgerInterest.accrued").is(before.getAccrued())
+                        .and("ledgerInterest.posted").is(before.getPosted())
+                        .and("ledgerInterest.statementPosted").is(before.getStatementPosted());
+            }
+            UpdateResult result = mongoTemplate.updateFirst(new Query(guard),
+                    new Update().inc("currentBalance", change.delta)
+                            .set("ledgerInterest", change.interestAfter)
+                            .addToSet("ledgerImports", batchKey)
+                            .set("updatedAt", now),
+                    Account.class);
+            if (result.getMatchedCount() == 0 && !mongoTemplate.exists(
+                    new Query(Criteria.where("_id").is(change.id).and("ledgerImports").is(batchKey)), Account.class)) {
+                throw new IllegalStateException("Account " + change.accountId
+                        + " was changed by another import; retry the upload");
+            }
+        }
+
+        for (Map.Entry<LocalDate, LedgerImportReport.SnapshotTotals> entry : plan.totals.entrySet()) {
+            LedgerImportReport.SnapshotTotals totals = entry.getValue();
+            String batchKey = LedgerPlanner.batchKey(plan.keysBySnapshot.get(entry.getKey()));
+            Update update = new Update()
+                    .inc("metadata.paymentsThisMonth", totals.getPayments())
+                    .inc("metadata.principalPaid", totals.getPrincipalPaid())
+                    .inc("metadata.interestPaid", totals.getInterestPaid())
+                    .inc("metadata.newCharges", totals.getNewCharges())
+                    .inc("metadata.debtReduction", totals.getDebtReduction())
+                    .addToSet("ledgerImports", batchKey)
+                    .set("updatedAt", now);
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("snapshotDate").is(entry.getKey()).and("ledgerImports").ne(batchKey)),
+                    update, Snapshot.class);
+        }
+
+        List<String> keys = plan.keysBySnapshot.values().stream().flatMap(List::stream).toList();
+        for (int from = 0; from < keys.size(); from += BULK_BATCH_SIZE) {
+            mongoTemplate.updateMulti(
+                    new Query(Criteria.where("import_key")
+                            .in(keys.subList(from, Math.min(from + BULK_BATCH_SIZE, keys.size())))),
+                    new Update().set("balanceApplied", true), Transaction.class);
+        }
+
+        for (LocalDate snapshotDate : plan.totals.keySet()) {
+            // Re-read so priorities and totals come from the balances as stored, including concurrent writes
+            List<Account> accounts = accountService.getAccountsBySnapshotDate(snapshotDate);
+            accountBatchService.apply(snapshotDate, accounts);
+            try {
+                goalProgressService.onAccountsChanged(snapshotDate, accounts);
+            } catch (Exception e) {
+                log.warn("Failed to update goal progress for snapshot {}: {}", snapshotDate, e.getMessage());
+            }
+        }
+    }
+
+    private List<LedgerPlanner.Row> readCsv(InputStream input, Errors errors) throws IOException {
+        List<LedgerPlanner.Row> rows = new ArrayList<>();
+        try (CsvRecordReader csv = new CsvRecordReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            while (csv.next()) {
+                LedgerPlanner.Row row = toRow(csv.getLineNumber(), csv::first, errors);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private List<LedgerPlanner.Row> readNdjson(InputStream input, Errors errors) throws IOException {
+        List<LedgerPlanner.Row> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    errors.add(lineNumber, "Invalid JSON: " + e.getMessage());
+                    continue;
+                }
+                if (!node.isObject()) {
+                    errors.add(lineNumber, "Expected a JSON object");
+                    continue;
+                }
+                LedgerPlanner.Row row = toRow(lineNumber, names -> {
+                    for (String name : names) {
+                        JsonNode value = node.get(name);
+                        if (value != null && !value.isNull() && !value.asText().isBlank()) {
+                            return value.asText().trim();
+                        }
+                    }
+                    return null;
+                }, errors);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Validates one input row; returns null after recording the error
+    private LedgerPlanner.Row toRow(long line, Function<String[], String> field, Errors errors) {
+        LedgerPlanner.Row row = new LedgerPlanner.Row();
+        row.line = line;
+        row.accountId = field.apply(new String[] { "accountId", "account" });
+        if (row.accountId == null) {
+            errors.add(line, "Missing accountId");
+            return null;
+        }
+
+        String date = field.apply(new String[] { "date", "transactionDate", "paymentDate", "postedDate" });
+        row.date = parseDate(date);
+        if (row.date == null) {
+            errors.add(line, date == null ? "Missing date" : "Invalid date " + date);
+            return null;
+        }
+
+        String amountText = field.apply(new String[] { "amount" });
+        Double amount = parseAmount(amountText);
+        if (amount == null || amount == 0.0) {
+            errors.add(line, amountText == null ? "Missing amount" : "Invalid amount " + amountText);
+            return null;
+        }
+
+        String type = field.apply(new String[] { "type", "transactionType" });
+        if (type == null) {
+            // Bank exports without a type column sign the amount instead
+            row.type = amount < 0 ? TransactionType.PAYMENT : TransactionType.CHARGE;
+        } else {
+            try {
+                row.type = TransactionType.valueOf(type.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                errors.add(line, "Unknown type " + type);
+                return null;
+            }
+        }
+        row.amount = Math.abs(amount);
+
+        String paymentType = field.apply(new String[] { "paymentType" });
+        if (paymentType != null) {
+            try {
+                row.paymentType = Payment.PaymentType.valueOf(paymentType.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                errors.add(line, "Unknown paymentType " + paymentType);
+                return null;
+            }
+        }
+
+        String principal = field.apply(new String[] { "principal", "principalAmount" });
+        String interest = field.apply(new String[] { "interest", "interestAmount" });
+        if (principal != null || interest != null) {
+            Double principalValue = parseAmount(principal);
+            Double interestValue = parseAmount(interest);
+            if (row.type != TransactionType.PAYMENT) {
+                errors.add(line, "Principal/interest split is only valid on PAYMENT rows");
+                return null;
+            }
+            if ((principal != null && principalValue == null) || (interest != null && interestValue == null)) {
+                errors.add(line, "Invalid principal/interest split");
+                return null;
+            }
+            // Either side can be derived from the amount
+            row.principal = principalValue != null ? Math.abs(principalValue) : row.amount - Math.abs(interestValue);
+            row.interest = interestValue != null ? Math.abs(interestValue) : row.amount - row.principal;
+            if (row.principal < 0 || row.interest < 0
+                    || Math.abs(row.principal + row.interest - row.amount) > SPLIT_TOLERANCE) {
+                errors.add(line, "Principal and interest do not add up to the amount");
+                return null;
+            }
+        }
+
+        row.description = field.apply(new String[] { "description", "memo" });
+        row.category = field.apply(new String[] { "category" });
+        return row;
+    }
+
+    private Optional<LocalDate> latestSnapshotIn(YearMonth month) {
+        List<Snapshot> snapshots = snapshotService.getSnapshotsBetween(month.atDay(1), month.atEndOfMonth());
+        return snapshots.isEmpty() ? Optional.empty()
+                : Optional.of(snapshots.get(snapshots.size() - 1).getSnapshotDate());
+    }
+
+    private Map<String, Account> accountsFor(LocalDate snapshotDate) {
+        Map<String, Account> accounts = new LinkedHashMap<>();
+        for (Account account : accountService.getAccountsBySnapshotDate(snapshotDate)) {
+            if (account.getAccountId() != null) {
+                accounts.putIfAbsent(account.getAccountId(), account);
+            }
+        }
+        return accounts;
+    }
+
+    private LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.length() > 10 && value.charAt(10) == 'T' ? value.substring(0, 10) : value);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDate.parse(value, US_DATE);
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    // Accepts "1,234.56", "$12.00" and accounting negatives like "(12.00)"
+    private Double parseAmount(String value) {
+        if (value == null) {
+            return null;
+        }
+        String cleaned = value.replace(",", "").replace("$", "").trim();
+        boolean negative = cleaned.startsWith("(") && cleaned.endsWith(")");
+        if (negative) {
+            cleaned = cleaned.substring(1, cleaned.length() - 1);
+        }
+        try {
+            double amount = Double.parseDouble(cleaned);
+            return Double.isFinite(amount) ? (negative ? -amount : amount) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Counts every rejected row but keeps only the first MAX_REPORTED_ERRORS messages
+    private static final class Errors {
+        private final LedgerImportReport report;
+        private int count;
+
+        private Errors(LedgerImportReport report) {
+            this.report = report;
+        }
+
+        private void add(long line, String message) {
+            count++;
+            if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                report.getErrors().add(new LedgerImportReport.RowError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.expensetracker.service.debt;
+
+import com.example.expensetracker.model.debt.Account.AccountType;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Pull-parses a debt-snapshot JSON file and hands each account entry to a
+ * listener as soon as its object closes. No tree or map of the document is
+ * built, so memory use does not depend on the file size.
+ */
+@Component
+public class SnapshotFileParser {
+
+    private final JsonFactory jsonFactory;
+
+    public SnapshotFileParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public interface Listener {
+        default void snapshotDate(LocalDate snapshotDate) {
+        }
+
+        default void totalDebt(double totalDebt) {
+        }
+
+        default void categoryTotal(AccountType type, double total) {
+        }
+
+        void account(AccountType type, Entry entry);
+    }
+
+    // One element of a category's "accounts" array; absent fields stay null
+    public static class Entry {
+        private String name;
+        private Double balance;
+        private Double apr;
+        private Double monthlyPayment;
+        private Double creditLimit;
+        private Double loanAmount;
+        private LocalDate promoExpires;
+        private String notes;
+
+        public String getName() {
+            return name;
+        }
+
+        public Double getBalance() {
+            return balance;
+        }
+
+        public Double getApr() {
+            return apr;
+        }
+
+        public Double getMonthlyPayment() {
+            return monthlyPayment;
+        }
+
+        public Double getCreditLimit() {
+            return creditLimit;
+        }
+
+        public Double getLoanAmount() {
+            return loanAmount;
+        }
+
+        public LocalDate getPromoExpires() {
+            return promoExpires;
+        }
+
+        public String getNotes() {
+            return notes;
+        }
+    }
+
+    public void parse(InputStream inputStream, Listener listener) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Snapshot file must contain a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "snapshotDate" -> {
+                        LocalDate date = date(parser);
+                        if (date != null) {
+                            listener.snapshotDate(date);
+                        }
+                    }
+                    case "totalDebt" -> {
+                        Double total = number(parser);
+                        if (total != null) {
+                            listener.totalDebt(total);
+                        }
+                    }
+                    default -> {
+                        AccountType type = categoryType(field);
+                        if (type != null && value == JsonToken.START_OBJECT) {
+                            readCategory(parser, type, listener);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void readCategory(JsonParser parser, AccountType type, Listener listener) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("total".equals(field)) {
+                Double total = number(parser);
+                if (total != null) {
+                    listener.categoryTotal(type, total);
+                }
+            } else if ("accounts".equals(field) && value == JsonToken.START_ARRAY) {
+                JsonToken element;
+                while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (element == JsonToken.START_OBJECT) {
+                        listener.account(type, readEntry(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private Entry readEntry(JsonParser parser) throws IOException {
+        Entry entry = new Entry();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "name" -> entry.name = text(parser);
+                case "notes" -> entry.notes = text(parser);
+                case "balance" -> entry.balance = number(parser);
+                case "apr" -> entry.apr = number(parser);
+                case "monthlyPayment" -> entry.monthlyPayment = number(parser);
+                case "creditLimit" -> entry.creditLimit = number(parser);
+                // Older files used "limit"; "creditLimit" wins when both are present
+                case "limit" -> {
+                    if (entry.creditLimit == null) {
+                        entry.creditLimit = number(parser);
+                    }
+                }
+                case "loanAmount" -> entry.loanAmount = number(parser);
+                case "promoExpires" -> entry.promoExpires = date(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return entry;
+    }
+
+    private AccountType categoryType(String field) {
+        return switch (field) {
+            case "creditCards" -> AccountType.CREDIT_CARD;
+            case "personalLoans" -> AccountType.PERSONAL_LOAN;
+            case "autoLoan", "autoLoans" -> AccountType.AUTO_LOAN;
+            default -> null;
+        };
+    }
+
+    private String text(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private Double number(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token.isNumeric()) {
+            return parser.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private LocalDate date(JsonParser parser) throws IOException {
+        String value = text(parser);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -5,16 +5,29 @@ import com.example.expensetracker.model.debt.Account;
 import com.example.expensetracker.repository.debt.SnapshotRepository;
 import com.example.expensetracker.repository.debt.AccountRepository;
 import com.example.expensetracker.service.DebtStrategyService;
+import com.example.expensetracker.service.SnapshotAggregator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Snapshot headers (the snapshots collection; accounts live in their own) are
+ * kept in a sorted in-memory index keyed by date. It is loaded on first use,
+ * written through by createSnapshot, updateSnapshotFromAccounts and
+ * deleteSnapshot, and periodically reconciled against Mongo to pick up writes
+ * made elsewhere. Year, range and latest lookups are answered from it with
+ * copies of the cached entries; when Mongo is unavailable reads fall back to
+ * the snapshot files as before.
+ */
 @Service
 @RequiredArgsConstructor
 public class SnapshotService {
@@ -26,13 +39,20 @@ public class SnapshotService {
         private final FileSnapshotService fileSnapshotService;
 
         private final DebtStrategyService debtStrategyService;
+        private final SnapshotVersionService snapshotVersionService;
 
         private boolean isDbAvailable = true; // Optimistic default
 
+        // Index mutations, including a reload's read from Mongo, happen under indexLock so a
+        // write that lands during a reload is applied after it; reads go straight to the map
+        private final NavigableMap<LocalDate, Snapshot> index = new ConcurrentSkipListMap<>();
+        private final Object indexLock = new Object();
+        private volatile boolean indexLoaded;
+
         public List<Snapshot> getAllSnapshots() {
                 try {
                         if (isDbAvailable) {
-                                return snapshotRepository.findAllByOrderBySnapshotDateDesc();
+                                return copies(snapshotIndex().descendingMap().values());
                         }
                 } catch (Exception e) {
                         log.warn("MongoDB unavailable, falling back to file storage: {}", e.getMessage());
@@ -44,7 +64,7 @@ public class SnapshotService {
         public Optional<Snapshot> getSnapshotByDate(LocalDate date) {
                 try {
                         if (isDbAvailable) {
-                                return snapshotRepository.findBySnapshotDate(date);
+                                return Optional.ofNullable(snapshotIndex().get(date)).map(Snapshot::copy);
                         }
                 } catch (Exception e) {
                         log.warn("MongoDB unavailable, falling back to file storage");
@@ -53,8 +73,33 @@ public class SnapshotService {
                 return fileSnapshotService.getSnapshotByDate(date);
         }
 
-        // Group snapshots by year for the UI hierarchy
+        public Optional<LocalDate> getLatestSnapshotDate() {
+                try {
+                        if (isDbAvailable) {
+                                return Optional.ofNullable(snapshotIndex().lastEntry()).map(Map.Entry::getKey);
+                        }
+                } catch (Exception e) {
+                        log.warn("MongoDB unavailable, falling back to file storage");
+                        isDbAvailable = false;
+                }
+                return fileSnapshotService.getAllSnapshots().stream().findFirst().map(Snapshot::getSnapshotDate);
+        }
+
+        // Group snapshots by year for the UI hierarchy; each year's list is newest first
         public Map<Integer, List<Snapshot>> getSnapshotsGroupedByYear() {
+                try {
+                        if (isDbAvailable) {
+                                NavigableMap<LocalDate, Snapshot> snapshots = snapshotIndex();
+                                Map<Integer, List<Snapshot>> grouped = new TreeMap<>();
+                                for (Integer year : yearsOf(snapshots)) {
+                                        grouped.put(year, copies(yearOf(snapshots, year).descendingMap().values()));
+                                }
+                                return grouped;
+                        }
+                } catch (Exception e) {
+                        log.warn("MongoDB unavailable, falling back to file storage");
+                        isDbAvailable = false;
+                }
                 List<Snapshot> allSnapshots = getAllSnapshots(); // Use the safe method
 
                 return allSnapshots.stream()
@@ -67,6 +112,14 @@ public class SnapshotService {
 
         // Get available years
         public List<Integer> getAvailableYears() {
+                try {
+                        if (isDbAvailable) {
+                                return yearsOf(snapshotIndex());
+                        }
+                } catch (Exception e) {
+                        log.warn("MongoDB unavailable, falling back to file storage");
+                        isDbAvailable = false;
+                }
                 return getAllSnapshots().stream() // Use safe method
                                 .map(s -> s.getSnapshotDate().getYear())
                                 .distinct()
@@ -78,9 +131,7 @@ public class SnapshotService {
         public List<Snapshot> getSnapshotsForYear(int year) {
                 try {
                         if (isDbAvailable) {
-                                LocalDate startDate = LocalDate.of(year, 1, 1);
-                                LocalDate endDate = LocalDate.of(year, 12, 31);
-                                return snapshotRepository.findBySnapshotDateBetween(startDate, endDate);
+                                return copies(yearOf(snapshotIndex(), year).values());
                         }
                 } catch (Exception e) {
                         isDbAvailable = false;
@@ -91,6 +142,22 @@ public class SnapshotService {
                                 .collect(Collectors.toList());
         }
 
+        // Snapshots dated from..to inclusive, oldest first
+        public List<Snapshot> getSnapshotsBetween(LocalDate from, LocalDate to) {
+                try {
+                        if (isDbAvailable) {
+                                return copies(snapshotIndex().subMap(from, true, to, true).values());
+                        }
+                } catch (Exception e) {
+                        log.warn("MongoDB unavailable, falling back to file storage");
+                        isDbAvailable = false;
+                }
+                return getAllSnapshots().stream()
+                                .filter(s -> !s.getSnapshotDate().isBefore(from) && !s.getSnapshotDate().isAfter(to))
+                                .sorted(Comparator.comparing(Snapshot::getSnapshotDate))
+                                .collect(Collectors.toList());
+        }
+
         // Create new snapshot (optionally clone from another date)
         public Snapshot createSnapshot(LocalDate snapshotDate, LocalDate cloneFromDate) {
                 if (!isDbAvailable) {
@@ -103,7 +170,7 @@ public class SnapshotService {
 
                 Snapshot snapshot = new Snapshot();
                 snapshot.setSnapshotDate(snapshotDate);
-                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime now = storedNow();
                 snapshot.setCreatedAt(now);
                 snapshot.setUpdatedAt(now);
 
@@ -119,7 +186,10 @@ public class SnapshotService {
                 snapshot.setTotalMonthlyInterest(0.0);
                 snapshot.setPerformanceScore(0);
 
-                return snapshotRepository.save(snapshot);
+                Snapshot saved = snapshotRepository.save(snapshot);
+                indexPut(saved);
+                snapshotVersionService.bump(snapshotDate);
+                return saved;
         }
 
         // Update snapshot with recalculated totals from accounts
@@ -138,73 +208,27 @@ public class SnapshotService {
                 debtStrategyService.calculatePriorities(accounts);
                 accountRepository.saveAll(accounts); // Save updated priorities
 
-                // Calculate totals
-                double totalDebt = accounts.stream()
-                                .filter(a -> a.getStatus() == Account.AccountStatus.ACTIVE)
-                                .filter(a -> a.getType() != Account.AccountType.UNKNOWN)
-                                .mapToDouble(Account::getCurrentBalance)
-                                .sum();
-
-                double creditCardDebt = accounts.stream()
-                                .filter(a -> a.getType() == Account.AccountType.CREDIT_CARD
-                                                && a.getStatus() == Account.AccountStatus.ACTIVE)
-                                .mapToDouble(Account::getCurrentBalance)
-                                .sum();
-
-                double personalLoanDebt = accounts.stream()
-                                .filter(a -> a.getType() == Account.AccountType.PERSONAL_LOAN
-                                                && a.getStatus() == Account.AccountStatus.ACTIVE)
-                                .mapToDouble(Account::getCurrentBalance)
-                                .sum();
-
-                double autoLoanDebt = accounts.stream()
-                                .filter(a -> a.getType() == Account.AccountType.AUTO_LOAN
-                                                && a.getStatus() == Account.AccountStatus.ACTIVE)
-                                .mapToDouble(Account::getCurrentBalance)
-                                .sum();
-
-                int totalAccounts = accounts.size();
-                int activeAccounts = (int) accounts.stream()
-                                .filter(a -> a.getStatus() == Account.AccountStatus.ACTIVE)
-                                .count();
-                int paidOffAccounts = (int) accounts.stream()
-                                .filter(a -> a.getStatus() == Account.AccountStatus.PAID_OFF)
-                                .count();
-
-                double totalMonthlyPayment = accounts.stream()
-                                .filter(a -> a.getStatus() == Account.AccountStatus.ACTIVE)
-                                .mapToDouble(a -> a.getMonthlyPayment() != null ? a.getMonthlyPayment() : 0.0)
-                                .sum();
-
-                double totalMonthlyInterest = accounts.stream()
-                                .filter(a -> a.getStatus() == Account.AccountStatus.ACTIVE && a.getApr() != null)
-                                .mapToDouble(a -> (a.getCurrentBalance() * a.getApr()) / 100 / 12)
-                                .sum();
-
-                // Update snapshot
-                snapshot.setTotalDebt(totalDebt);
-                snapshot.setCreditCardDebt(creditCardDebt);
-                snapshot.setPersonalLoanDebt(personalLoanDebt);
-                snapshot.setAutoLoanDebt(autoLoanDebt);
-                snapshot.setTotalAccounts(totalAccounts);
-                snapshot.setActiveAccounts(activeAccounts);
-                snapshot.setPaidOffAccounts(paidOffAccounts);
-                snapshot.setTotalMonthlyPayment(totalMonthlyPayment);
-                snapshot.setTotalMonthlyInterest(totalMonthlyInterest);
+                // Calculate totals in a single pass and update snapshot
+                SnapshotAggregator totals = SnapshotAggregator.ofAccounts(accounts);
+                totals.applyTo(snapshot);
 
                 // Calculate performance score (simple formula)
-                int performanceScore = calculatePerformanceScore(totalDebt, totalMonthlyPayment, totalMonthlyInterest);
+                int performanceScore = calculatePerformanceScore(totals.getTotalDebt(), totals.getTotalMonthlyPayment(),
+                                totals.getTotalMonthlyInterest());
                 snapshot.setPerformanceScore(performanceScore);
-                snapshot.setUpdatedAt(LocalDateTime.now());
+                snapshot.setUpdatedAt(storedNow());
 
-                return snapshotRepository.save(snapshot);
+                Snapshot saved = snapshotRepository.save(snapshot);
+                indexPut(saved);
+                snapshotVersionService.bump(snapshotDate);
+                return saved;
         }
 
         // Check if snapshot exists
         public boolean snapshotExists(LocalDate date) {
                 try {
                         if (isDbAvailable) {
-                                return snapshotRepository.findBySnapshotDate(date).isPresent();
+                                return snapshotIndex().containsKey(date);
                         }
                 } catch (Exception e) {
                         isDbAvailable = false;
@@ -223,9 +247,121 @@ public class SnapshotService {
                 // Delete the snapshot
                 snapshotRepository.findBySnapshotDate(date)
                                 .ifPresent(snapshotRepository::delete);
+                indexRemove(date);
+                snapshotVersionService.bump(date);
+        }
+
+        // Mongo keeps dates to the millisecond; the indexed copy must compare equal to what reloadIndex reads back
+        private static LocalDateTime storedNow() {
+                return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        }
+
+        // For writers in this package that save the snapshot document themselves
+        void snapshotWritten(Snapshot snapshot) {
+                indexPut(snapshot);
+                snapshotVersionService.bump(snapshot.getSnapshotDate());
+        }
+
+        // Re-read the index from Mongo to pick up writes that bypassed this service
+        @Scheduled(initialDelayString = "${debt.snapshot-index.reconcile-ms:300000}",
+                        fixedDelayString = "${debt.snapshot-index.reconcile-ms:300000}")
+        public void reconcileIndex() {
+                if (!indexLoaded || !isDbAvailable) {
+                        return; // Nothing cached yet; the first read loads fresh
+                }
+                try {
+                        int drift = reloadIndex();
+                        if (drift > 0) {
+                                snapshotVersionService.bumpAll();
+                                log.info("Snapshot index reconciled: {} entries differed from MongoDB", drift);
+                        }
+                } catch (Exception e) {
+                        log.warn("Snapshot index reconciliation failed: {}", e.getMessage());
+                }
+        }
+
+        private NavigableMap<LocalDate, Snapshot> snapshotIndex() {
+                if (!indexLoaded) {
+                        synchronized (indexLock) {
+                                if (!indexLoaded) {
+                                        reloadIndex();
+                                }
+                        }
+                }
+                return index;
+        }
+
+        // Returns the number of entries that were added, removed or replaced
+        private int reloadIndex() {
+                synchronized (indexLock) {
+                        Map<LocalDate, Snapshot> fresh = new HashMap<>();
+                        for (Snapshot snapshot : snapshotRepository.findAll()) {
+                                if (snapshot.getSnapshotDate() != null) {
+                                        fresh.put(snapshot.getSnapshotDate(), snapshot);
+                                }
+                        }
+                        int drift = 0;
+                        for (Iterator<LocalDate> it = index.keySet().iterator(); it.hasNext();) {
+                                if (!fresh.containsKey(it.next())) {
+                                        it.remove();
+                                        drift++;
+                                }
+                        }
+                        for (Snapshot snapshot : fresh.values()) {
+                                Snapshot cached = index.put(snapshot.getSnapshotDate(), snapshot);
+                                if (cached == null || !Objects.equals(cached.getUpdatedAt(), snapshot.getUpdatedAt())) {
+                                        drift++;
+                                }
+                        }
+                        if (!indexLoaded) {
+                                log.info("Loaded snapshot index with {} snapshots", index.size());
+                                indexLoaded = true;
+                                return 0;
+                        }
+                        return drift;
+                }
+        }
+
+        private void indexPut(Snapshot snapshot) {
+                synchronized (indexLock) {
+                        if (indexLoaded && snapshot.getSnapshotDate() != null) {
+                                index.put(snapshot.getSnapshotDate(), snapshot.copy()); // The caller keeps its instance
+                        }
+                }
+        }
+
+        private void indexRemove(LocalDate date) {
+                synchronized (indexLock) {
+                        index.remove(date);
+                }
+        }
+
+        // Index entries are never handed out, so callers cannot change what other readers see
+        private static List<Snapshot> copies(Collection<Snapshot> snapshots) {
+                List<Snapshot> copies = new ArrayList<>(snapshots.size());
+                for (Snapshot snapshot : snapshots) {
+                        copies.add(snapshot.copy());
+                }
+                return copies;
+        }
+
+        private static NavigableMap<LocalDate, Snapshot> yearOf(NavigableMap<LocalDate, Snapshot> snapshots, int year) {
+                return snapshots.subMap(LocalDate.of(year, 1, 1), true, LocalDate.of(year + 1, 1, 1), false);
+        }
+
+        // Distinct years, newest first, found by jumping to the end of each earlier year
+        private static List<Integer> yearsOf(NavigableMap<LocalDate, Snapshot> snapshots) {
+                List<Integer> years = new ArrayList<>();
+                Map.Entry<LocalDate, Snapshot> last = snapshots.lastEntry();
+                LocalDate date = last != null ? last.getKey() : null;
+                while (date != null) {
+                        years.add(date.getYear());
+                        date = snapshots.lowerKey(LocalDate.of(date.getYear(), 1, 1));
+                }
+                return years;
         }
 
-        private int calculatePerformanceScore(double totalDebt, double monthlyPayment, double monthlyInterest) {
+        static int calculatePerformanceScore(double totalDebt, double monthlyPayment, double monthlyInterest) {
                 if (totalDebt == 0)
                         return 100;
 
@@ -0,0 +1,75 @@
+package com.example.expensetracker.service.debt;
+
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory change stamps for debt snapshots and their accounts, used as HTTP
+ * validators. Every write bumps the version of the snapshotDate it touched
+ * (and of that date's year) from one shared counter, so versions only grow.
+ * Writes whose dates are unknown raise a floor that every version is read
+ * through. Tags carry a per-process epoch so a restart never reissues a tag a
+ * client may still hold. Reading a tag never touches Mongo.
+ */
+@Service
+public class SnapshotVersionService {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicLong latest = new AtomicLong(); // Highest version handed out to any write
+    private final AtomicLong floor = new AtomicLong(); // Version of the last write that touched every date
+    private final Map<LocalDate, Long> byDate = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> byYear = new ConcurrentHashMap<>();
+
+    // Call after the write to snapshotDate's snapshot or accounts has completed
+    public void bump(LocalDate snapshotDate) {
+        if (snapshotDate == null) {
+            bumpAll();
+            return;
+        }
+        long version = counter.incrementAndGet();
+        byDate.merge(snapshotDate, version, Math::max);
+        byYear.merge(snapshotDate.getYear(), version, Math::max);
+        latest.accumulateAndGet(version, Math::max);
+    }
+
+    public void bump(Collection<LocalDate> snapshotDates) {
+        Set<LocalDate> distinct = new HashSet<>(snapshotDates);
+        if (distinct.contains(null)) {
+            bumpAll();
+            return;
+        }
+        distinct.forEach(this::bump);
+    }
+
+    // For writes that may touch any snapshot (bulk updates, clear-and-reload)
+    public void bumpAll() {
+        long version = counter.incrementAndGet();
+        floor.accumulateAndGet(version, Math::max);
+        latest.accumulateAndGet(version, Math::max);
+    }
+
+    // Covers every snapshot: the full list, year grouping and available years
+    public String allTag() {
+        return tag(latest.get());
+    }
+
+    public String yearTag(int year) {
+        return tag(Math.max(byYear.getOrDefault(year, 0L), floor.get()));
+    }
+
+    public String dateTag(LocalDate snapshotDate) {
+        return tag(Math.max(byDate.getOrDefault(snapshotDate, 0L), floor.get()));
+    }
+
+    private String tag(long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+}
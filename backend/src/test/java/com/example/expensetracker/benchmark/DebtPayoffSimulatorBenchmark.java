@@ -0,0 +1,97 @@
+package com.example.expensetracker.benchmark;
+
+import com.example.expensetracker.dto.PayoffSimulation;
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.model.debt.Goal;
+import com.example.expensetracker.service.DebtPayoffSimulator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One payoff simulation over a 50-account portfolio and a 30-year horizon,
+ * the work done per move of the extra-payment slider. Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.expensetracker.benchmark.DebtPayoffSimulatorBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DebtPayoffSimulatorBenchmark {
+
+    private static final LocalDate SNAPSHOT_DATE = LocalDate.of(2025, 1, 1);
+    private static final int MONTHS = 360;
+
+    @Param({ "50" })
+    private int accountCount;
+
+    @Param({ "0", "500" })
+    private double extra;
+
+    private final DebtPayoffSimulator simulator = new DebtPayoffSimulator();
+    private List<Account> accounts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            Account account = new Account();
+            account.setAccountId("acct-" + i);
+            account.setType(Account.AccountType.CREDIT_CARD);
+            account.setStatus(Account.AccountStatus.ACTIVE);
+            double balance = 500 + random.nextDouble() * 25000;
+            double apr = random.nextInt(6) == 0 ? 0.0 : 5 + random.nextDouble() * 25;
+            account.setCurrentBalance(balance);
+            account.setApr(apr);
+            // Barely above interest (post-promo for 0% accounts) so minimums alone run for most of the horizon
+            double rateForPayment = apr == 0.0 ? DebtPayoffSimulator.DEFAULT_POST_PROMO_APR : apr;
+            account.setMonthlyPayment(balance * rateForPayment / 100 / 12 * 1.1);
+            if (apr == 0.0) {
+                account.setPromoExpires(SNAPSHOT_DATE.plusMonths(6 + random.nextInt(18)));
+            }
+            accounts.add(account);
+        }
+    }
+
+    @Benchmark
+    public PayoffSimulation.StrategyResult avalanche() {
+        return simulator.simulate(accounts, SNAPSHOT_DATE, extra, DebtPayoffSimulator.DEFAULT_POST_PROMO_APR, MONTHS,
+                Goal.PayoffStrategy.AVALANCHE);
+    }
+
+    @Benchmark
+    public PayoffSimulation.StrategyResult snowball() {
+        return simulator.simulate(accounts, SNAPSHOT_DATE, extra, DebtPayoffSimulator.DEFAULT_POST_PROMO_APR, MONTHS,
+                Goal.PayoffStrategy.SNOWBALL);
+    }
+
+    @Benchmark
+    public PayoffSimulation.StrategyResult hybrid() {
+        return simulator.simulate(accounts, SNAPSHOT_DATE, extra, DebtPayoffSimulator.DEFAULT_POST_PROMO_APR, MONTHS,
+                Goal.PayoffStrategy.HYBRID);
+    }
+
+    // Minimum-only baseline plus all three strategies, as served by /api/debt/payoff
+    @Benchmark
+    public PayoffSimulation compareAll() {
+        return simulator.compare(accounts, SNAPSHOT_DATE, extra, DebtPayoffSimulator.DEFAULT_POST_PROMO_APR, MONTHS,
+                null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DebtPayoffSimulatorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.expensetracker.benchmark;
+
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.model.debt.Snapshot;
+import com.example.expensetracker.service.SnapshotAggregator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous per-total stream chain in SnapshotService with the
+ * single-pass SnapshotAggregator. Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.expensetracker.benchmark.SnapshotAggregatorBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotAggregatorBenchmark {
+
+    @Param({ "10000", "1000000" })
+    private int accountCount;
+
+    private List<Account> accounts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Account.AccountType[] types = Account.AccountType.values();
+        Account.AccountStatus[] statuses = Account.AccountStatus.values();
+        accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            Account account = new Account();
+            account.setType(types[random.nextInt(types.length)]);
+            account.setStatus(statuses[random.nextInt(statuses.length)]);
+            account.setCurrentBalance(random.nextDouble() * 20000);
+            account.setMonthlyPayment(random.nextInt(10) == 0 ? null : random.nextDouble() * 800);
+            account.setApr(random.nextInt(5) == 0 ? null : random.nextDouble() * 30);
+            accounts.add(account);
+        }
+    }
+
+    @Benchmark
+    public Snapshot streamChain() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setTotalDebt(accounts.stream()
+                .filter(a -> a.getStatus() == Account.AccountStatus.ACTIVE)
+                .filter(a -> a.getType() != Account.AccountType.UNKNOWN)
+                .mapToDouble(Account::getCurrentBalance)
+                .sum());
+        snapshot.setCreditCardDebt(accounts.stream()
+                .filter(a -> a.getType() == Account.AccountType.CREDIT_CARD
+                        && a.getStatus() == Account.AccountStatus.ACTIVE)
+                .mapToDouble(Account::getCurrentBalance)
+                .sum());
+        snapshot.setPersonalLoanDebt(accounts.stream()
+                .filter(a -> a.getType() == Account.AccountType.PERSONAL_LOAN
+                        && a.getStatus() == Account.AccountStatus.ACTIVE)
+                .mapToDouble(Account::getCurrentBalance)
+                .sum());
+        snapshot.setAutoLoanDebt(accounts.stream()
+                .filter(a -> a.getType() == Account.AccountType.AUTO_LOAN
+                        && a.getStatus() == Account.AccountStatus.ACTIVE)
+                .mapToDouble(Account::getCurrentBalance)
+                .sum());
+        snapshot.setTotalAccounts(accounts.size());
+        snapshot.setActiveAccounts((int) accounts.stream()
+                .filter(a -> a.getStatus() == Account.AccountStatus.ACTIVE)
+                .count());
+        snapshot.setPaidOffAccounts((int) accounts.stream()
+                .filter(a -> a.getStatus() == Account.AccountStatus.PAID_OFF)
+                .count());
+        snapshot.setTotalMonthlyPayment(accounts.stream()
+                .filter(a -> a.getStatus() == Account.AccountStatus.ACTIVE)
+                .mapToDouble(a -> a.getMonthlyPayment() != null ? a.getMonthlyPayment() : 0.0)
+                .sum());
+        snapshot.setTotalMonthlyInterest(accounts.stream()
+                .filter(a -> a.getStatus() == Account.AccountStatus.ACTIVE && a.getApr() != null)
+                .mapToDouble(a -> (a.getCurrentBalance() * a.getApr()) / 100 / 12)
+                .sum());
+        return snapshot;
+    }
+
+    @Benchmark
+    public Snapshot singlePass() {
+        Snapshot snapshot = new Snapshot();
+        SnapshotAggregator.ofAccounts(accounts).applyTo(snapshot);
+        return snapshot;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SnapshotAggregatorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.expensetracker.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkInsertsTest {
+
+    private static final List<String> ROWS = List.of("a", "b", "c", "d");
+
+    @Test
+    void duplicateKeyRejectionsAreSkipped() {
+        BulkOperationException e = failure(2, error(BulkInserts.DUPLICATE_KEY, 1), error(BulkInserts.DUPLICATE_KEY, 3));
+
+        assertThat(BulkInserts.withoutDuplicates(ROWS, e)).containsExactly("a", "c");
+    }
+
+    @Test
+    void rerunOfAWholeBatchInsertsNothing() {
+        BulkOperationException e = failure(0, error(BulkInserts.DUPLICATE_KEY, 0), error(BulkInserts.DUPLICATE_KEY, 1),
+                error(BulkInserts.DUPLICATE_KEY, 2), error(BulkInserts.DUPLICATE_KEY, 3));
+
+        assertThat(BulkInserts.withoutDuplicates(ROWS, e)).isEmpty();
+    }
+
+    @Test
+    void anyOtherErrorFailsTheBatch() {
+        BulkOperationException e = failure(2, error(BulkInserts.DUPLICATE_KEY, 0), error(121, 2)); // 121: validation
+
+        assertThatThrownBy(() -> BulkInserts.withoutDuplicates(ROWS, e)).isSameAs(e);
+    }
+
+    private static BulkOperationException failure(int inserted, BulkWriteError... errors) {
+        BulkWriteResult result = BulkWriteResult.acknowledged(inserted, 0, 0, 0, List.of(), List.of());
+        MongoBulkWriteException source = new MongoBulkWriteException(result, List.of(errors), null,
+                new ServerAddress(), Set.of());
+        return new BulkOperationException("Bulk write failed", source);
+    }
+
+    private static BulkWriteError error(int code, int index) {
+        return new BulkWriteError(code, "E" + code, new BsonDocument(), index);
+    }
+}
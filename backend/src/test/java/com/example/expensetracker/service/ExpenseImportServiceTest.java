@@ -0,0 +1,86 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.model.Expense;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpenseImportServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 5);
+    private static final BigDecimal AMOUNT = new BigDecimal("4.50");
+
+    @Test
+    void normalizeDescriptionDropsCaseReferenceNumbersAndPunctuation() {
+        assertThat(ExpenseImportService.normalizeDescription("  Amazon Mktp*1A2B3C  ")).isEqualTo("AMAZON MKTP 1A2B3C");
+        assertThat(ExpenseImportService.normalizeDescription("POS PURCHASE #00123456 Starbucks"))
+                .isEqualTo("POS PURCHASE STARBUCKS");
+        assertThat(ExpenseImportService.normalizeDescription("Ben & Jerry's")).isEqualTo("BEN & JERRY S");
+        assertThat(ExpenseImportService.normalizeDescription(null)).isEmpty();
+    }
+
+    @Test
+    void cleanDescriptionOnlyCollapsesWhitespace() {
+        assertThat(ExpenseImportService.cleanDescription("  Amazon \t Mktp*US ")).isEqualTo("Amazon Mktp*US");
+    }
+
+    @Test
+    void repeatedRowsInOneStatementAreAllKept() {
+        ExpenseImportService.ImportKeys keys = new ExpenseImportService.ImportKeys();
+
+        String first = keys.claim(DATE, AMOUNT, "Coffee");
+        String second = keys.claim(DATE, AMOUNT, "COFFEE");
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull().isNotEqualTo(first);
+    }
+
+    @Test
+    void reimportMatchesEachRowToItsEarlierKey() {
+        ExpenseImportService.ImportKeys firstRun = new ExpenseImportService.ImportKeys();
+        Expense first = stored(firstRun.claim(DATE, AMOUNT, "Coffee #0012345678"));
+        Expense second = stored(firstRun.claim(DATE, AMOUNT, "Coffee #0087654321"));
+
+        ExpenseImportService.ImportKeys rerun = new ExpenseImportService.ImportKeys();
+        rerun.addExisting(first);
+        rerun.addExisting(second);
+
+        assertThat(rerun.claim(DATE, AMOUNT, "COFFEE")).isNull();
+        assertThat(rerun.claim(DATE, AMOUNT, "coffee")).isNull();
+        assertThat(rerun.claim(DATE, AMOUNT, "Coffee")).isNotNull(); // A third purchase is new
+    }
+
+    @Test
+    void handEnteredRowCoversOneStatementOccurrence() {
+        Expense handEntered = new Expense();
+        handEntered.setDate(DATE);
+        handEntered.setAmount(new BigDecimal("4.5"));
+        handEntered.setDescription("coffee");
+
+        ExpenseImportService.ImportKeys keys = new ExpenseImportService.ImportKeys();
+        keys.addExisting(handEntered);
+
+        assertThat(keys.claim(DATE, AMOUNT, "COFFEE")).isNull();
+        assertThat(keys.claim(DATE, AMOUNT, "COFFEE")).isNotNull();
+    }
+
+    @Test
+    void differentAmountOrDateIsNotADuplicate() {
+        ExpenseImportService.ImportKeys keys = new ExpenseImportService.ImportKeys();
+        String key = keys.claim(DATE, AMOUNT, "Coffee");
+
+        assertThat(keys.claim(DATE, new BigDecimal("4.51"), "Coffee")).isNotNull().isNotEqualTo(key);
+        assertThat(keys.claim(DATE.plusDays(1), AMOUNT, "Coffee")).isNotNull().isNotEqualTo(key);
+    }
+
+    private static Expense stored(String importKey) {
+        Expense expense = new Expense();
+        expense.setDate(DATE);
+        expense.setAmount(AMOUNT);
+        expense.setImportKey(importKey);
+        return expense;
+    }
+}
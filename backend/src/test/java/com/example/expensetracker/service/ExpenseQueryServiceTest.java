@@ -0,0 +1,157 @@
+package com.example.expensetracker.service;
+
+import com.example.expensetracker.dto.ExpensePage;
+import com.example.expensetracker.model.Expense;
+import com.example.expensetracker.support.OfflineMongoDatabaseFactory;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpenseQueryServiceTest {
+
+    private static final String ID_1 = "65f1c0a2b3c4d5e6f7a8b9c3";
+    private static final String ID_2 = "65f1c0a2b3c4d5e6f7a8b9c2";
+    private static final String ID_3 = "65f1c0a2b3c4d5e6f7a8b9c1";
+    private static final LocalDate MARCH_15 = LocalDate.of(2024, 3, 15);
+
+    // No request reaches a server: find is stubbed and the template has no client behind it
+    private final StubTemplate template = new StubTemplate();
+    private final ExpenseQueryService service = new ExpenseQueryService(template);
+
+    @Test
+    void cursorRoundTripsToTheRowsAfterIt() {
+        String cursor = ExpenseQueryService.encodeCursor(expense(ID_2, MARCH_15));
+        assertThat(cursor).doesNotContain("=", "+", "/");
+
+        Document after = ExpenseQueryService.afterCursor(cursor).getCriteriaObject();
+        assertThat(after).isEqualTo(new Document("$or", List.of(
+                new Document("date", new Document("$lt", MARCH_15)),
+                new Document("$and", List.of(
+                        new Document("date", MARCH_15),
+                        new Document("id", new Document("$lt", new ObjectId(ID_2))))),
+                new Document("date", null))));
+    }
+
+    @Test
+    void undatedCursorOnlyContinuesAmongUndatedRows() {
+        String cursor = ExpenseQueryService.encodeCursor(expense(ID_2, null));
+
+        Document after = ExpenseQueryService.afterCursor(cursor).getCriteriaObject();
+        assertThat(after).isEqualTo(new Document("$and", List.of(
+                new Document("date", null),
+                new Document("id", new Document("$lt", new ObjectId(ID_2))))));
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        assertThatThrownBy(() -> ExpenseQueryService.afterCursor("not base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ExpenseQueryService.afterCursor("bm8tc2VwYXJhdG9y")) // "no-separator"
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ExpenseQueryService.afterCursor("MjAyNC0xMy0wMXxhYmM")) // "2024-13-01|abc"
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fullPageFetchesOneExtraRowToDetectMore() {
+        template.rows = List.of(expense(ID_1, MARCH_15), expense(ID_2, MARCH_15), expense(ID_3, MARCH_15));
+
+        ExpensePage page = service.page(null, null, null, null, 2);
+
+        assertThat(template.lastQuery.getLimit()).isEqualTo(3);
+        assertThat(template.lastQuery.getSortObject()).isEqualTo(new Document("date", -1).append("id", -1));
+        assertThat(page.getItems()).extracting(Expense::getId).containsExactly(ID_1, ID_2);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getNextCursor()).isEqualTo(ExpenseQueryService.encodeCursor(expense(ID_2, MARCH_15)));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        template.rows = List.of(expense(ID_1, MARCH_15), expense(ID_2, null));
+
+        ExpensePage page = service.page(null, null, null, null, 2);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        service.page(null, null, null, null, 0);
+        assertThat(template.lastQuery.getLimit()).isEqualTo(2);
+
+        service.page(null, null, null, null, 10_000);
+        assertThat(template.lastQuery.getLimit()).isEqualTo(ExpenseQueryService.MAX_PAGE_SIZE + 1);
+
+        service.page(null, null, null, null, null);
+        assertThat(template.lastQuery.getLimit()).isEqualTo(ExpenseQueryService.DEFAULT_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void dateRangeAndCategoryAreKeptAlongsideTheCursor() {
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        String cursor = ExpenseQueryService.encodeCursor(expense(ID_2, MARCH_15));
+
+        service.page("Groceries", from, to, cursor, 10);
+
+        Document query = template.lastQuery.getQueryObject();
+        assertThat(query.get("category")).isEqualTo("Groceries");
+        assertThat(query.get("date")).isEqualTo(new Document("$gte", from).append("$lte", to));
+        assertThat(query.get("$or"))
+                .isEqualTo(ExpenseQueryService.afterCursor(cursor).getCriteriaObject().get("$or"));
+    }
+
+    @Test
+    void cursorIdIsComparedAsAnObjectId() {
+        String cursor = ExpenseQueryService.encodeCursor(expense(ID_2, null));
+        QueryMapper mapper = new QueryMapper(template.getConverter());
+
+        Document mapped = mapper.getMappedObject(ExpenseQueryService.afterCursor(cursor).getCriteriaObject(),
+                template.getConverter().getMappingContext().getPersistentEntity(Expense.class));
+
+        @SuppressWarnings("unchecked")
+        List<Document> and = (List<Document>) mapped.get("$and");
+        assertThat(and.get(1)).isEqualTo(new Document("_id", new Document("$lt", new ObjectId(ID_2))));
+    }
+
+    private static Expense expense(String id, LocalDate date) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setDate(date);
+        return expense;
+    }
+
+    // Captures the query and answers with canned rows
+    private static class StubTemplate extends MongoTemplate {
+        private List<Expense> rows = List.of();
+        private Query lastQuery;
+
+        private StubTemplate() {
+            super(new OfflineMongoDatabaseFactory());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> find(Query query, Class<T> entityClass) {
+            lastQuery = query;
+            List<T> copy = new ArrayList<>();
+            int limit = query.getLimit() > 0 ? Math.min(query.getLimit(), rows.size()) : rows.size();
+            for (int i = 0; i < limit; i++) {
+                copy.add((T) rows.get(i));
+            }
+            return copy;
+        }
+    }
+}
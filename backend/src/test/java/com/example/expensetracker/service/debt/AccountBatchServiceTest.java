@@ -0,0 +1,183 @@
+package com.example.expensetracker.service.debt;
+
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.model.debt.Snapshot;
+import com.example.expensetracker.repository.debt.AccountRepository;
+import com.example.expensetracker.service.DebtStrategyService;
+import com.example.expensetracker.support.OfflineMongoDatabaseFactory;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountBatchServiceTest {
+
+    private static final LocalDate SNAPSHOT = LocalDate.of(2024, 3, 31);
+    private static final String BATCH = "batch-1";
+
+    private final DebtStrategyService debtStrategyService = new DebtStrategyService();
+    private final Map<String, Account> stored = new HashMap<>();
+    private final RecordingTemplate template = new RecordingTemplate();
+    private final AccountBatchService service = new AccountBatchService(repository(), template,
+            debtStrategyService, new FixedSnapshotService());
+
+    @Test
+    void resubmittedAccountAfterIngestionIsUnchanged() {
+        stored.put("a1", ingested(card("a1", SNAPSHOT, 910.0)));
+
+        service.apply(SNAPSHOT, batch(fromRequest(card("a1", SNAPSHOT, 910.0))));
+
+        assertThat(template.operations).isEmpty();
+    }
+
+    @Test
+    void editKeepsTheLedgerImportGuard() {
+        stored.put("a1", ingested(card("a1", SNAPSHOT, 910.0)));
+
+        service.apply(SNAPSHOT, batch(fromRequest(card("a1", SNAPSHOT, 850.0))));
+
+        assertThat(template.operations).hasSize(1);
+        Document update = ((UpdateDefinition) template.operations.get(0).args[1]).getUpdateObject();
+        assertThat(update.get("$set", Document.class).get("currentBalance")).isEqualTo(850.0);
+        assertThat(update.containsKey("$unset")).isFalse();
+    }
+
+    @Test
+    void accountMovedFromAnotherSnapshotKeepsItsLedgerImports() {
+        stored.put("a1", ingested(card("a1", SNAPSHOT.minusMonths(1), 910.0)));
+
+        service.apply(SNAPSHOT, batch(fromRequest(card("a1", SNAPSHOT.minusMonths(1), 910.0))));
+
+        assertThat(template.operations).hasSize(1);
+        assertThat(template.operations.get(0).name).isEqualTo("replaceOne");
+        Account replacement = (Account) template.operations.get(0).args[1];
+        assertThat(replacement.getLedgerImports()).containsExactly(BATCH);
+        assertThat(replacement.getLedgerInterest()).isNotNull();
+    }
+
+    // The stored account after a ledger import: derived fields computed, guard recorded
+    private Account ingested(Account account) {
+        AccountService.calculateLoanFields(account);
+        debtStrategyService.calculatePriorities(new ArrayList<>(List.of(account)));
+        account.setLedgerImports(new ArrayList<>(List.of(BATCH)));
+        account.setLedgerInterest(new Account.LedgerInterest(0.0, 0.0, false));
+        return account;
+    }
+
+    // What a client sends back: the ledger fields are @JsonIgnore, so they never arrive
+    private static Account fromRequest(Account account) {
+        account.setLedgerImports(null);
+        account.setLedgerInterest(null);
+        return account;
+    }
+
+    // Mutable, as the controller's request body is; apply re-orders it by priority
+    private static List<Account> batch(Account... accounts) {
+        return new ArrayList<>(List.of(accounts));
+    }
+
+    private static Account card(String id, LocalDate snapshotDate, double balance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setAccountId("card-" + id);
+        account.setName("Card " + id);
+        account.setType(Account.AccountType.CREDIT_CARD);
+        account.setStatus(Account.AccountStatus.ACTIVE);
+        account.setCurrentBalance(balance);
+        account.setCreditLimit(5000.0);
+        account.setApr(24.0);
+        account.setMonthlyPayment(100.0);
+        account.setSnapshotDate(snapshotDate);
+        return account;
+    }
+
+    private AccountRepository repository() {
+        return (AccountRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {AccountRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findBySnapshotDate" -> stored.values().stream()
+                            .filter(account -> account.getSnapshotDate().equals(args[0]))
+                            .map(AccountBatchServiceTest::copy)
+                            .toList();
+                    case "findAllById" -> {
+                        List<Account> found = new ArrayList<>();
+                        for (Object id : (Iterable<?>) args[0]) {
+                            Optional.ofNullable(stored.get(id)).map(AccountBatchServiceTest::copy)
+                                    .ifPresent(found::add);
+                        }
+                        yield found;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Account copy(Account account) {
+        Account copy = card(account.getId(), account.getSnapshotDate(), account.getCurrentBalance());
+        copy.setPrincipalPerMonth(account.getPrincipalPerMonth());
+        copy.setPayoffDate(account.getPayoffDate());
+        copy.setMonthsLeft(account.getMonthsLeft());
+        copy.setPriority(account.getPriority());
+        copy.setLedgerImports(account.getLedgerImports() != null ? new ArrayList<>(account.getLedgerImports()) : null);
+        copy.setLedgerInterest(account.getLedgerInterest());
+        return copy;
+    }
+
+    private record Operation(String name, Object[] args) {
+    }
+
+    // Records bulk operations instead of sending them; the converter is the real one
+    private static class RecordingTemplate extends MongoTemplate {
+        private final List<Operation> operations = new ArrayList<>();
+
+        private RecordingTemplate() {
+            super(new OfflineMongoDatabaseFactory());
+        }
+
+        @Override
+        public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityClass) {
+            return (BulkOperations) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {BulkOperations.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("execute")) {
+                            return null;
+                        }
+                        operations.add(new Operation(method.getName(), args));
+                        return proxy;
+                    });
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T findAndModify(Query query, UpdateDefinition update, FindAndModifyOptions options,
+                Class<T> entityClass) {
+            Snapshot snapshot = new Snapshot();
+            snapshot.setSnapshotDate(SNAPSHOT);
+            return (T) snapshot;
+        }
+    }
+
+    private static class FixedSnapshotService extends SnapshotService {
+
+        private FixedSnapshotService() {
+            super(null, null, null, null, null);
+        }
+
+        @Override
+        public Optional<Snapshot> getSnapshotByDate(LocalDate date) {
+            Snapshot snapshot = new Snapshot();
+            snapshot.setSnapshotDate(date);
+            return Optional.of(snapshot);
+        }
+
+        @Override
+        void snapshotWritten(Snapshot snapshot) {
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.expensetracker.service.debt;
+
+import com.example.expensetracker.dto.LedgerImportReport;
+import com.example.expensetracker.model.debt.Account;
+import com.example.expensetracker.model.debt.Payment;
+import com.example.expensetracker.model.debt.Transaction.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LedgerPlannerTest {
+
+    private static final LocalDate SNAPSHOT = LocalDate.of(2024, 3, 31);
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 4, 1, 9, 0);
+
+    @Test
+    void paymentCoversAccruedInterestBeforePrincipal() {
+        // 1000 at 12% APR accrues 10 for the month
+        LedgerPlanner.Plan plan = plan(List.of(row(1, "2024-03-15", TransactionType.PAYMENT, 100.0, "Payment")),
+                Map.of());
+
+        Payment payment = plan.payments.get(0);
+        assertThat(payment.getInterestAmount()).isEqualTo(10.0);
+        assertThat(payment.getPrincipalAmount()).isEqualTo(90.0);
+        assertThat(payment.getBalanceAfter()).isEqualTo(910.0);
+        assertThat(plan.accountChanges.get(0).delta).isEqualTo(-90.0);
+
+        LedgerImportReport.SnapshotTotals totals = plan.totals.get(SNAPSHOT);
+        assertThat(totals.getPayments()).isEqualTo(1);
+        assertThat(totals.getInterestPaid()).isEqualTo(10.0);
+        assertThat(totals.getPrincipalPaid()).isEqualTo(90.0);
+        assertThat(totals.getDebtReduction()).isEqualTo(90.0);
+    }
+
+    @Test
+    void postedInterestReplacesTheEstimate() {
+        LedgerPlanner.Plan plan = plan(List.of(
+                row(1, "2024-03-10", TransactionType.INTEREST, 12.5, "Interest charge"),
+                row(2, "2024-03-15", TransactionType.PAYMENT, 100.0, "Payment")), Map.of());
+
+        Payment payment = plan.payments.get(0);
+        assertThat(payment.getInterestAmount()).isEqualTo(12.5);
+        assertThat(payment.getPrincipalAmount()).isEqualTo(87.5);
+        assertThat(payment.getBalanceAfter()).isEqualTo(912.5);
+        assertThat(plan.accountChanges.get(0).delta).isEqualTo(-87.5);
+    }
+
+    @Test
+    void explicitSplitIsKept() {
+        LedgerPlanner.Row row = row(1, "2024-03-15", TransactionType.PAYMENT, 100.0, "Payment");
+        row.interest = 4.0;
+        row.principal = 96.0;
+        LedgerPlanner.Plan plan = plan(List.of(row), Map.of());
+
+        Payment payment = plan.payments.get(0);
+        assertThat(payment.getInterestAmount()).isEqualTo(4.0);
+        assertThat(payment.getPrincipalAmount()).isEqualTo(96.0);
+        assertThat(payment.getBalanceAfter()).isCloseTo(904.0, within(0.001));
+    }
+
+    @Test
+    void reuploadSkipsEveryRowAndChangesNothing() {
+        List<LedgerPlanner.Row> first = statement();
+        LedgerPlanner.Plan firstPlan = plan(first, Map.of());
+        assertThat(firstPlan.transactions).hasSize(3);
+        assertThat(firstPlan.accountChanges.get(0).delta).isNotZero();
+
+        Map<String, LedgerPlanner.Stored> stored = new HashMap<>();
+        firstPlan.transactions.forEach(t -> stored.put(t.getImportKey(), LedgerPlanner.Stored.APPLIED));
+
+        LedgerPlanner.Plan second = plan(statement(), stored);
+        assertThat(second.duplicates).isEqualTo(3);
+        assertThat(second.payments).isEmpty();
+        assertThat(second.transactions).isEmpty();
+        assertThat(second.accountChanges).isEmpty();
+        assertThat(second.totals).isEmpty();
+    }
+
+    @Test
+    void pendingRowsAreRolledAgainButNotReinserted() {
+        LedgerPlanner.Plan firstPlan = plan(statement(), Map.of());
+        Map<String, LedgerPlanner.Stored> stored = new HashMap<>();
+        firstPlan.transactions.forEach(t -> stored.put(t.getImportKey(), LedgerPlanner.Stored.PENDING));
+
+        LedgerPlanner.Plan retry = plan(statement(), stored);
+        assertThat(retry.transactions).isEmpty();
+        assertThat(retry.payments).isEmpty();
+        assertThat(retry.accountChanges.get(0).delta).isEqualTo(firstPlan.accountChanges.get(0).delta);
+        assertThat(LedgerPlanner.batchKey(retry.accountChanges.get(0).keys))
+                .isEqualTo(LedgerPlanner.batchKey(firstPlan.accountChanges.get(0).keys));
+    }
+
+    @Test
+    void secondUploadForTheMonthDoesNotAccrueInterestAgain() {
+        Account account = account();
+        LedgerPlanner.Plan first = plan(List.of(row(1, "2024-03-15", TransactionType.PAYMENT, 100.0, "Payment")),
+                Map.of(), account);
+        assertThat(first.accountChanges.get(0).interestBefore).isNull();
+        committed(account, first);
+
+        LedgerPlanner.Plan second = plan(List.of(row(2, "2024-03-25", TransactionType.PAYMENT, 100.0, "Payment")),
+                Map.of(), account);
+
+        Payment payment = second.payments.get(0);
+        assertThat(payment.getInterestAmount()).isEqualTo(0.0);
+        assertThat(payment.getPrincipalAmount()).isEqualTo(100.0);
+        assertThat(payment.getBalanceAfter()).isEqualTo(810.0);
+        assertThat(second.accountChanges.get(0).interestBefore).isSameAs(account.getLedgerInterest());
+    }
+
+    @Test
+    void interestLeftByAnEarlierUploadIsPaidByTheNextOne() {
+        // Charges first: the month still accrues on its opening 1000, not on the 1050 the next upload reads
+        Account account = account();
+        committed(account, plan(List.of(row(1, "2024-03-02", TransactionType.CHARGE, 50.0, "Groceries")),
+                Map.of(), account));
+        assertThat(account.getLedgerInterest().getAccrued()).isEqualTo(10.0);
+
+        LedgerPlanner.Plan second = plan(List.of(row(2, "2024-03-15", TransactionType.PAYMENT, 100.0, "Payment")),
+                Map.of(), account);
+
+        Payment payment = second.payments.get(0);
+        assertThat(payment.getInterestAmount()).isEqualTo(10.0);
+        assertThat(payment.getPrincipalAmount()).isEqualTo(90.0);
+        assertThat(payment.getBalanceAfter()).isEqualTo(960.0);
+    }
+
+    @Test
+    void postedInterestFromAnEarlierUploadStillReplacesTheEstimate() {
+        Account account = account();
+        committed(account, plan(List.of(row(1, "2024-03-10", TransactionType.INTEREST, 12.5, "Interest charge")),
+                Map.of(), account));
+
+        LedgerPlanner.Plan second = plan(List.of(row(2, "2024-03-15", TransactionType.PAYMENT, 100.0, "Payment")),
+                Map.of(), account);
+
+        Payment payment = second.payments.get(0);
+        assertThat(payment.getInterestAmount()).isEqualTo(12.5);
+        assertThat(payment.getPrincipalAmount()).isEqualTo(87.5);
+        assertThat(payment.getBalanceAfter()).isEqualTo(912.5);
+    }
+
+    @Test
+    void identicalRowsGetDistinctKeysThatRepeatAcrossUploads() {
+        List<LedgerPlanner.Row> rows = List.of(
+                row(1, "2024-03-05", TransactionType.CHARGE, 4.5, "COFFEE #1"),
+                row(2, "2024-03-05", TransactionType.CHARGE, 4.5, "coffee 1"));
+        LedgerPlanner.assignKeys(rows);
+        assertThat(rows.get(0).key).isNotEqualTo(rows.get(1).key);
+
+        List<LedgerPlanner.Row> again = List.of(
+                row(7, "2024-03-05", TransactionType.CHARGE, 4.5, "Coffee  1"),
+                row(9, "2024-03-05", TransactionType.CHARGE, 4.5, "coffee-1"));
+        LedgerPlanner.assignKeys(again);
+        assertThat(again).extracting(row -> row.key).containsExactly(rows.get(0).key, rows.get(1).key);
+    }
+
+    @Test
+    void normalizeDescriptionCollapsesPunctuationAndCase() {
+        assertThat(LedgerPlanner.normalizeDescription("  Amazon.com*Mktp  US ")).isEqualTo("AMAZON COM MKTP US");
+        assertThat(LedgerPlanner.normalizeDescription(null)).isEmpty();
+    }
+
+    private static List<LedgerPlanner.Row> statement() {
+        return List.of(
+                row(1, "2024-03-02", TransactionType.CHARGE, 50.0, "Groceries"),
+                row(2, "2024-03-15", TransactionType.PAYMENT, 200.0, "Payment - thank you"),
+                row(3, "2024-03-20", TransactionType.REFUND, 15.0, "Return"));
+    }
+
+    private static LedgerPlanner.Plan plan(List<LedgerPlanner.Row> rows, Map<String, LedgerPlanner.Stored> stored) {
+        return plan(rows, stored, account());
+    }
+
+    private static LedgerPlanner.Plan plan(List<LedgerPlanner.Row> rows, Map<String, LedgerPlanner.Stored> stored,
+            Account account) {
+        LedgerPlanner.assignKeys(rows);
+        Map<LocalDate, Map<String, Account>> accounts = Map.of(SNAPSHOT, Map.of("card-1", account));
+        return LedgerPlanner.plan(rows, accounts, stored, NOW);
+    }
+
+    // What PaymentIngestionService.commit leaves on the stored account
+    private static void committed(Account account, LedgerPlanner.Plan plan) {
+        LedgerPlanner.AccountChange change = plan.accountChanges.get(0);
+        account.setCurrentBalance(LedgerPlanner.round(account.getCurrentBalance() + change.delta));
+        account.setLedgerInterest(change.interestAfter);
+    }
+
+    private static Account account() {
+        Account account = new Account();
+        account.setId("a1");
+        account.setAccountId("card-1");
+        account.setCurrentBalance(1000.0);
+        account.setApr(12.0);
+        return account;
+    }
+
+    private static LedgerPlanner.Row row(long line, String date, TransactionType type, double amount,
+            String description) {
+        LedgerPlanner.Row row = new LedgerPlanner.Row();
+        row.line = line;
+        row.accountId = "card-1";
+        row.date = LocalDate.parse(date);
+        row.type = type;
+        row.amount = amount;
+        row.description = description;
+        row.snapshotDate = SNAPSHOT;
+        return row;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.expensetracker.support;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+
+/**
+ * Database factory for unit tests that build a MongoTemplate only to stub
+ * its operations or use its converter. It opens no client; anything that
+ * would reach a server fails fast.
+ */
+public class OfflineMongoDatabaseFactory implements MongoDatabaseFactory {
+
+    @Override
+    public MongoDatabase getMongoDatabase() {
+        throw new UnsupportedOperationException("No MongoDB server in unit tests");
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase(String dbName) {
+        throw new UnsupportedOperationException("No MongoDB server in unit tests");
+    }
+
+    @Override
+    public PersistenceExceptionTranslator getExceptionTranslator() {
+        return new MongoExceptionTranslator();
+    }
+
+    @Override
+    public ClientSession getSession(ClientSessionOptions options) {
+        throw new UnsupportedOperationException("No MongoDB server in unit tests");
+    }
+
+    @Override
+    public MongoDatabaseFactory withSession(ClientSession session) {
+        throw new UnsupportedOperationException("No MongoDB server in unit tests");
+    }
+}